@@ -0,0 +1,151 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.homematic.internal.communicator;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.openhab.binding.homematic.internal.model.HmChannel;
+import org.openhab.binding.homematic.internal.model.HmDatapoint;
+import org.openhab.binding.homematic.internal.model.HmDevice;
+import org.openhab.binding.homematic.internal.model.HmParamsetType;
+import org.openhab.binding.homematic.internal.model.HmValueType;
+
+/**
+ * Tests the persistence and the invalidation of the {@link ParamsetDescriptionCache}.
+ *
+ * @author agent - Initial contribution
+ */
+public class ParamsetDescriptionCacheTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File file;
+    private HmDevice device;
+    private HmChannel channel;
+
+    @Before
+    public void setUp() {
+        file = new File(folder.getRoot(), "homematic/ccu.paramsets");
+
+        device = new HmDevice();
+        device.setAddress("LEQ0000001");
+        device.setType("HM-LC-Sw1-Pl");
+        device.setFirmware("2.5");
+        channel = new HmChannel();
+        channel.setNumber(1);
+        device.addChannel(channel);
+
+        HmDatapoint state = new HmDatapoint("STATE", "Switch", HmValueType.BOOL, Boolean.TRUE, false,
+                HmParamsetType.VALUES);
+        channel.addDatapoint(state);
+        HmDatapoint virtual = new HmDatapoint("ON_TIME_AUTOMATIC", "", HmValueType.FLOAT, null, false,
+                HmParamsetType.VALUES);
+        virtual.setVirtual(true);
+        channel.addDatapoint(virtual);
+    }
+
+    @Test
+    public void roundTrip() {
+        ParamsetDescriptionCache cache = new ParamsetDescriptionCache(file, "1.0");
+        cache.load();
+        assertThat(cache.get(channel), is(nullValue()));
+        cache.put(channel);
+        cache.save(Collections.singletonList(device));
+        assertTrue(file.exists());
+
+        ParamsetDescriptionCache loaded = new ParamsetDescriptionCache(file, "1.0");
+        loaded.load();
+        assertThat(loaded.size(), is(1));
+        List<HmDatapoint> datapoints = loaded.get(channel);
+        assertThat(datapoints.size(), is(1));
+        HmDatapoint dp = datapoints.get(0);
+        assertThat(dp.getName(), is("STATE"));
+        assertThat(dp.getDescription(), is("Switch"));
+        assertThat(dp.getType(), is(HmValueType.BOOL));
+        assertThat(dp.getParamsetType(), is(HmParamsetType.VALUES));
+        // values and the channel are not persisted
+        assertThat(dp.getValue(), is(nullValue()));
+        assertThat(dp.getChannel(), is(nullValue()));
+    }
+
+    @Test
+    public void unmodifiedCacheIsNotWritten() {
+        ParamsetDescriptionCache cache = new ParamsetDescriptionCache(file, "1.0");
+        cache.load();
+        cache.save(Collections.singletonList(device));
+        assertFalse(file.exists());
+    }
+
+    @Test
+    public void otherGatewayFirmwareInvalidatesCache() {
+        ParamsetDescriptionCache cache = new ParamsetDescriptionCache(file, "1.0");
+        cache.put(channel);
+        cache.save(Collections.singletonList(device));
+
+        ParamsetDescriptionCache updated = new ParamsetDescriptionCache(file, "1.1");
+        updated.load();
+        assertThat(updated.size(), is(0));
+        assertThat(updated.get(channel), is(nullValue()));
+    }
+
+    @Test
+    public void otherDeviceFirmwareIsNotCached() {
+        ParamsetDescriptionCache cache = new ParamsetDescriptionCache(file, "1.0");
+        cache.put(channel);
+
+        device.setFirmware("2.6");
+        assertThat(cache.get(channel), is(nullValue()));
+    }
+
+    @Test
+    public void removedDeviceTypesArePurgedOnSave() {
+        ParamsetDescriptionCache cache = new ParamsetDescriptionCache(file, "1.0");
+        cache.put(channel);
+
+        HmDevice other = new HmDevice();
+        other.setType("HM-Sec-SC-2");
+        other.setFirmware("1.0");
+        cache.save(Arrays.asList(other));
+        assertThat(cache.size(), is(0));
+
+        ParamsetDescriptionCache loaded = new ParamsetDescriptionCache(file, "1.0");
+        loaded.load();
+        assertThat(loaded.size(), is(0));
+    }
+
+    @Test
+    public void invalidFileIsIgnored() throws Exception {
+        file.getParentFile().mkdirs();
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(new byte[] { 1, 2, 3 });
+        }
+
+        ParamsetDescriptionCache cache = new ParamsetDescriptionCache(file, "1.0");
+        cache.load();
+        assertThat(cache.size(), is(0));
+
+        // the invalid file is replaced on the next save
+        cache.put(channel);
+        cache.save(Collections.singletonList(device));
+        ParamsetDescriptionCache loaded = new ParamsetDescriptionCache(file, "1.0");
+        loaded.load();
+        assertThat(loaded.size(), is(1));
+    }
+}
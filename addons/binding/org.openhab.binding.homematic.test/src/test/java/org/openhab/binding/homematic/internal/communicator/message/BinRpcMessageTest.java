@@ -0,0 +1,192 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.homematic.internal.communicator.message;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.Test;
+import org.openhab.binding.homematic.internal.communicator.message.BinRpcMessage.TYPE;
+
+/**
+ * Encodes and decodes BIN-RPC messages and compares them with a golden corpus of the wire format.
+ *
+ * @author agent - Initial contribution
+ */
+public class BinRpcMessageTest {
+    private static final String ENCODING = "ISO-8859-1";
+
+    @Test
+    public void integerValue() throws Exception {
+        assertResponse(42, "42696e01 00000008 00000001 0000002a");
+        assertResponse(-7, "42696e01 00000008 00000001 fffffff9");
+    }
+
+    @Test
+    public void booleanValue() throws Exception {
+        assertResponse(true, "42696e01 00000005 00000002 01");
+        assertResponse(false, "42696e01 00000005 00000002 00");
+    }
+
+    @Test
+    public void stringValue() throws Exception {
+        assertResponse("abc", "42696e01 0000000b 00000003 00000003 616263");
+        assertResponse("", "42696e01 00000008 00000003 00000000");
+    }
+
+    @Test
+    public void doubleValue() throws Exception {
+        assertResponse(1.5, "42696e01 0000000c 00000004 30000000 00000001");
+        assertResponse(-0.25, "42696e01 0000000c 00000004 e0000000 ffffffff");
+        assertResponse(0.0, "42696e01 0000000c 00000004 00000000 00000000");
+    }
+
+    @Test
+    public void dateValue() throws Exception {
+        assertResponse(new Date(1000000), "42696e01 00000008 00000005 000003e8");
+    }
+
+    @Test
+    public void base64Value() throws Exception {
+        byte[] message = hex("42696e01 0000000c 00000011 00000004 41514944");
+        assertArrayEquals(message, response(new byte[] { 1, 2, 3 }));
+
+        Object decoded = decode(message, false).getResponseData()[0];
+        assertArrayEquals(new byte[] { 1, 2, 3 }, (byte[]) decoded);
+    }
+
+    @Test
+    public void arrayValue() throws Exception {
+        byte[] message = hex("42696e01 00000019 00000100 00000002 00000001 00000001 00000003 00000001 61");
+        assertArrayEquals(message, response(Arrays.asList(1, "a")));
+
+        Object decoded = decode(message, false).getResponseData()[0];
+        assertArrayEquals(new Object[] { 1, "a" }, (Object[]) decoded);
+    }
+
+    @Test
+    public void structValue() throws Exception {
+        Map<String, Object> struct = new TreeMap<>();
+        struct.put("A", 1);
+        struct.put("B", true);
+        byte[] message = hex(
+                "42696e01 0000001f 00000101 00000002 00000001 41 00000001 00000001 00000001 42 00000002 01");
+        assertArrayEquals(message, response(struct));
+
+        Object decoded = decode(message, false).getResponseData()[0];
+        assertThat(decoded, is((Object) struct));
+    }
+
+    @Test
+    public void request() throws Exception {
+        byte[] message = hex("42696e00 00000026 00000004 696e6974 00000002 00000003 00000008 687474703a2f2f78"
+                + " 00000003 00000002 6964");
+        BinRpcMessage request = new BinRpcMessage("init", ENCODING);
+        request.addArg("http://x");
+        request.addArg("id");
+        assertThat(request.getArgCount(), is(2));
+        assertArrayEquals(message, request.createMessage());
+
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        request.writeTo(os);
+        assertArrayEquals(message, os.toByteArray());
+
+        BinRpcMessage decoded = decode(message, true);
+        assertThat(decoded.getMethodName(), is("init"));
+        assertArrayEquals(new Object[] { "http://x", "id" }, decoded.getResponseData());
+    }
+
+    @Test
+    public void requestWithoutArguments() throws Exception {
+        byte[] message = hex("42696e00 0000000c 00000004 70696e67 00000000");
+        assertArrayEquals(message, new BinRpcMessage("ping", ENCODING).createMessage());
+
+        BinRpcMessage decoded = decode(message, true);
+        assertThat(decoded.getMethodName(), is("ping"));
+        assertThat(decoded.getResponseData().length, is(0));
+    }
+
+    @Test
+    public void responseType() throws Exception {
+        BinRpcMessage message = new BinRpcMessage(null, TYPE.RESPONSE, ENCODING);
+        message.addArg("");
+        assertThat(message.createMessage()[3], is((byte) 1));
+        message.setType(TYPE.REQUEST);
+        assertThat(message.createMessage()[3], is((byte) 0));
+    }
+
+    @Test
+    public void largeMessageFromStream() throws Exception {
+        char[] chars = new char[10000];
+        Arrays.fill(chars, 'x');
+        String value = new String(chars);
+        byte[] message = response(value);
+
+        // Larger than the pooled read buffer
+        BinRpcMessage decoded = new BinRpcMessage(new ByteArrayInputStream(message), false, ENCODING);
+        assertThat(decoded.getResponseData()[0], is((Object) value));
+
+        // The pooled read buffer is reused for the next message
+        decoded = new BinRpcMessage(new ByteArrayInputStream(response(42)), false, ENCODING);
+        assertThat(decoded.getResponseData()[0], is((Object) 42));
+    }
+
+    @Test(expected = EOFException.class)
+    public void truncatedMessageFromStream() throws Exception {
+        byte[] message = hex("42696e01 0000000b 00000003 00000003 616263");
+        new BinRpcMessage(new ByteArrayInputStream(Arrays.copyOf(message, message.length - 1)), false, ENCODING);
+    }
+
+    @Test(expected = UnsupportedEncodingException.class)
+    public void missingSignature() throws Exception {
+        decode(hex("58696e01 00000008 00000001 0000002a"), false);
+    }
+
+    @Test(expected = IOException.class)
+    public void unknownType() throws Exception {
+        decode(hex("42696e01 00000008 00000099 0000002a"), false);
+    }
+
+    private void assertResponse(Object value, String expected) throws Exception {
+        byte[] message = hex(expected);
+        assertArrayEquals(message, response(value));
+        assertThat(decode(message, false).getResponseData()[0], is(value));
+        assertThat(new BinRpcMessage(new ByteArrayInputStream(message), false, ENCODING).getResponseData()[0],
+                is(value));
+    }
+
+    private static byte[] response(Object value) {
+        BinRpcMessage message = new BinRpcMessage(null, TYPE.RESPONSE, ENCODING);
+        message.addArg(value);
+        return message.createMessage();
+    }
+
+    private static BinRpcMessage decode(byte[] message, boolean methodHeader) throws Exception {
+        return new BinRpcMessage(message, methodHeader, ENCODING);
+    }
+
+    private static byte[] hex(String hex) {
+        String digits = hex.replace(" ", "");
+        byte[] data = new byte[digits.length() / 2];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) Integer.parseInt(digits.substring(i * 2, i * 2 + 2), 16);
+        }
+        return data;
+    }
+}
@@ -10,6 +10,7 @@ package org.openhab.binding.homematic.internal.communicator;
 
 import static org.openhab.binding.homematic.internal.misc.HomematicConstants.*;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -20,12 +21,19 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.LinkedHashMap;
+import java.util.Optional;
 import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.lang.StringUtils;
+import org.eclipse.smarthome.config.core.ConfigConstants;
 import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.openhab.binding.homematic.internal.common.HomematicConfig;
 import org.openhab.binding.homematic.internal.communicator.client.BinRpcClient;
@@ -82,6 +90,7 @@ public abstract class AbstractHomematicGateway implements RpcEventListener, Home
     public static final double DEFAULT_DISABLE_DELAY = 2.0;
     private static final long CONNECTION_TRACKER_INTERVAL_SECONDS = 15;
     private static final String GATEWAY_POOL_NAME = "homematicGateway";
+    private static final String METADATA_POOL_NAME = "homematicMetadata";
 
     private Map<TransferMode, RpcClient<?>> rpcClients = new HashMap<TransferMode, RpcClient<?>>();
     private Map<TransferMode, RpcServer> rpcServers = new HashMap<TransferMode, RpcServer>();
@@ -97,7 +106,9 @@ public abstract class AbstractHomematicGateway implements RpcEventListener, Home
     private Map<String, HmDevice> devices = Collections.synchronizedMap(new HashMap<String, HmDevice>());
     private Map<HmInterface, TransferMode> availableInterfaces = new TreeMap<HmInterface, TransferMode>();
     private static List<VirtualDatapointHandler> virtualDatapointHandlers = new ArrayList<VirtualDatapointHandler>();
-    private boolean cancelLoadAllMetadata;
+    private ParamsetDescriptionCache paramsetDescriptionCache;
+    private final List<Future<?>> metadataLoaders = Collections.synchronizedList(new ArrayList<Future<?>>());
+    private volatile boolean cancelLoadAllMetadata;
     private boolean initialized;
 
     static {
@@ -169,6 +180,9 @@ public abstract class AbstractHomematicGateway implements RpcEventListener, Home
             sb.setLength(sb.length() - 2);
         }
         logger.debug("Used Homematic transfer modes: {}", sb.toString());
+        paramsetDescriptionCache = new ParamsetDescriptionCache(
+                new File(ConfigConstants.getUserDataFolder() + File.separator + "homematic", id + ".paramsets"),
+                gatewayInfo.getFirmware());
         startClients();
         startServers();
     }
@@ -176,7 +190,11 @@ public abstract class AbstractHomematicGateway implements RpcEventListener, Home
     @Override
     public void dispose() {
         initialized = false;
+        cancelLoadAllMetadata = true;
+        cancelMetadataLoaders();
         stopWatchdogs();
+        logger.debug("Delayed events of gateway with id '{}': send [{}], receive [{}]", id, sendDelayedExecutor,
+                receiveDelayedExecutor);
         sendDelayedExecutor.stop();
         receiveDelayedExecutor.stop();
         stopServers();
@@ -332,6 +350,16 @@ public abstract class AbstractHomematicGateway implements RpcEventListener, Home
     @Override
     public void cancelLoadAllDeviceMetadata() {
         cancelLoadAllMetadata = true;
+        cancelMetadataLoaders();
+    }
+
+    private void cancelMetadataLoaders() {
+        synchronized (metadataLoaders) {
+            for (Future<?> loader : metadataLoaders) {
+                loader.cancel(true);
+            }
+            metadataLoaders.clear();
+        }
     }
 
     @Override
@@ -339,57 +367,103 @@ public abstract class AbstractHomematicGateway implements RpcEventListener, Home
         cancelLoadAllMetadata = false;
         // load all device descriptions
         List<HmDevice> deviceDescriptions = getDeviceDescriptions();
+        paramsetDescriptionCache.load();
 
-        // loading datapoints for all channels
-        Set<String> loadedDevices = new HashSet<String>();
-        Map<String, Collection<HmDatapoint>> datapointsByChannelIdCache = new HashMap<String, Collection<HmDatapoint>>();
+        // loading datapoints for all channels in parallel with one loader per interface, as the RPC clients send the
+        // requests of an interface one after another. The devices are prepared in the order they are loaded
+        Map<HmInterface, List<HmDevice>> devicesByInterface = new LinkedHashMap<HmInterface, List<HmDevice>>();
         for (HmDevice device : deviceDescriptions) {
-            if (!cancelLoadAllMetadata) {
-                try {
-                    logger.trace("Loading metadata for device '{}' of type '{}'", device.getAddress(),
-                            device.getType());
-                    if (device.isGatewayExtras()) {
-                        loadChannelValues(device.getChannel(HmChannel.CHANNEL_NUMBER_VARIABLE));
-                        loadChannelValues(device.getChannel(HmChannel.CHANNEL_NUMBER_SCRIPT));
-                    } else {
-                        for (HmChannel channel : device.getChannels()) {
-                            logger.trace("  Loading channel {}", channel);
-                            // speed up metadata generation a little bit for equal channels in the gateway devices
-                            if ((DEVICE_TYPE_VIRTUAL.equals(device.getType())
-                                    || DEVICE_TYPE_VIRTUAL_WIRED.equals(device.getType())) && channel.getNumber() > 1) {
-                                HmChannel previousChannel = device.getChannel(channel.getNumber() - 1);
-                                cloneAllDatapointsIntoChannel(channel, previousChannel.getDatapoints().values());
-                            } else {
-                                String channelId = String.format("%s:%s:%s", channel.getDevice().getType(),
-                                        channel.getDevice().getFirmware(), channel.getNumber());
-                                Collection<HmDatapoint> cachedDatapoints = datapointsByChannelIdCache.get(channelId);
-                                if (cachedDatapoints != null) {
-                                    // clone all datapoints
-                                    cloneAllDatapointsIntoChannel(channel, cachedDatapoints);
-                                } else {
-                                    logger.trace("    Loading datapoints into channel {}", channel);
-                                    addChannelDatapoints(channel, HmParamsetType.MASTER);
-                                    addChannelDatapoints(channel, HmParamsetType.VALUES);
-                                    datapointsByChannelIdCache.put(channelId, channel.getDatapoints().values());
-                                }
-                            }
-                        }
+            devicesByInterface.computeIfAbsent(device.getHmInterface(), k -> new ArrayList<HmDevice>()).add(device);
+        }
+        BlockingQueue<Optional<HmDevice>> loadedDescriptions = new LinkedBlockingQueue<Optional<HmDevice>>();
+        ExecutorService pool = ThreadPoolManager.getPool(METADATA_POOL_NAME);
+        for (List<HmDevice> interfaceDevices : devicesByInterface.values()) {
+            metadataLoaders.add(pool.submit(() -> {
+                for (HmDevice device : interfaceDevices) {
+                    HmDevice loadedDevice = null;
+                    try {
+                        loadedDevice = loadDeviceMetadata(device);
+                    } catch (RuntimeException ex) {
+                        logger.warn("Can't load device with address '{}' from gateway '{}': {}", device.getAddress(),
+                                id, ex.getMessage(), ex);
                     }
+                    loadedDescriptions.add(Optional.ofNullable(loadedDevice));
+                }
+            }));
+        }
+
+        Set<String> loadedDevices = new HashSet<String>();
+        try {
+            int pending = deviceDescriptions.size();
+            while (pending > 0 && !cancelLoadAllMetadata) {
+                Optional<HmDevice> loadedDevice = loadedDescriptions.poll(1, TimeUnit.SECONDS);
+                if (loadedDevice == null) {
+                    continue;
+                }
+                pending--;
+                if (loadedDevice.isPresent() && !cancelLoadAllMetadata) {
+                    HmDevice device = loadedDevice.get();
                     prepareDevice(device);
                     loadedDevices.add(device.getAddress());
                     gatewayAdapter.onDeviceLoaded(device);
-                } catch (IOException ex) {
-                    logger.warn("Can't load device with address '{}' from gateway '{}': {}", device.getAddress(), id,
-                            ex.getMessage());
                 }
             }
+        } catch (InterruptedException ex) {
+            cancelLoadAllMetadata = true;
+            Thread.currentThread().interrupt();
+        } finally {
+            cancelMetadataLoaders();
         }
         if (!cancelLoadAllMetadata) {
             devices.keySet().retainAll(loadedDevices);
+            paramsetDescriptionCache.save(deviceDescriptions);
         }
         initialized = true;
     }
 
+    /**
+     * Loads the datapoints of all channels of the device, either from the paramset description cache or from the
+     * gateway. Returns null, if the device could not be loaded or the loading has been cancelled.
+     */
+    private HmDevice loadDeviceMetadata(HmDevice device) {
+        if (cancelLoadAllMetadata) {
+            return null;
+        }
+        try {
+            logger.trace("Loading metadata for device '{}' of type '{}'", device.getAddress(), device.getType());
+            if (device.isGatewayExtras()) {
+                loadChannelValues(device.getChannel(HmChannel.CHANNEL_NUMBER_VARIABLE));
+                loadChannelValues(device.getChannel(HmChannel.CHANNEL_NUMBER_SCRIPT));
+            } else {
+                for (HmChannel channel : device.getChannels()) {
+                    logger.trace("  Loading channel {}", channel);
+                    // speed up metadata generation a little bit for equal channels in the gateway devices
+                    if ((DEVICE_TYPE_VIRTUAL.equals(device.getType())
+                            || DEVICE_TYPE_VIRTUAL_WIRED.equals(device.getType())) && channel.getNumber() > 1) {
+                        HmChannel previousChannel = device.getChannel(channel.getNumber() - 1);
+                        cloneAllDatapointsIntoChannel(channel, previousChannel.getDatapoints().values());
+                    } else {
+                        Collection<HmDatapoint> cachedDatapoints = paramsetDescriptionCache.get(channel);
+                        if (cachedDatapoints != null) {
+                            // clone all datapoints
+                            cloneAllDatapointsIntoChannel(channel, cachedDatapoints);
+                        } else {
+                            logger.trace("    Loading datapoints into channel {}", channel);
+                            addChannelDatapoints(channel, HmParamsetType.MASTER);
+                            addChannelDatapoints(channel, HmParamsetType.VALUES);
+                            paramsetDescriptionCache.put(channel);
+                        }
+                    }
+                }
+            }
+            return device;
+        } catch (IOException ex) {
+            logger.warn("Can't load device with address '{}' from gateway '{}': {}", device.getAddress(), id,
+                    ex.getMessage());
+            return null;
+        }
+    }
+
     /**
      * Loads all datapoints from the gateway.
      */
@@ -635,6 +709,7 @@ public abstract class AbstractHomematicGateway implements RpcEventListener, Home
                             for (HmChannel channel : device.getChannels()) {
                                 addChannelDatapoints(channel, HmParamsetType.MASTER);
                                 addChannelDatapoints(channel, HmParamsetType.VALUES);
+                                paramsetDescriptionCache.put(channel);
                             }
                             prepareDevice(device);
                             gatewayAdapter.onNewDevice(device);
@@ -644,6 +719,7 @@ public abstract class AbstractHomematicGateway implements RpcEventListener, Home
                     logger.error("{}", ex.getMessage(), ex);
                 }
             }
+            paramsetDescriptionCache.save(new ArrayList<HmDevice>(devices.values()));
         }
     }
 
@@ -0,0 +1,177 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.homematic.internal.communicator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.lang.ObjectUtils;
+import org.openhab.binding.homematic.internal.model.HmChannel;
+import org.openhab.binding.homematic.internal.model.HmDatapoint;
+import org.openhab.binding.homematic.internal.model.HmDevice;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Caches the datapoint metadata (the MASTER and VALUES paramset descriptions) of the channels of all device types
+ * of a gateway, keyed by device type, firmware and channel number. The cache is persisted to a file, so that the
+ * metadata must not be loaded from the gateway again after a restart.
+ *
+ * The file is only used if it was written by the same cache format for the same gateway firmware, otherwise it is
+ * ignored and the metadata is loaded from the gateway.
+ *
+ * @author agent - Initial contribution
+ */
+public class ParamsetDescriptionCache {
+    private final Logger logger = LoggerFactory.getLogger(ParamsetDescriptionCache.class);
+    private static final int FORMAT_VERSION = 1;
+
+    private final File file;
+    private final String gatewayFirmware;
+    private final Map<String, List<HmDatapoint>> datapointsByChannelId;
+    private boolean modified;
+
+    /**
+     * Creates the cache for a gateway.
+     *
+     * @param file the file of the persistent cache
+     * @param gatewayFirmware the firmware of the gateway, a cache file of another firmware is ignored
+     */
+    public ParamsetDescriptionCache(File file, String gatewayFirmware) {
+        this.file = file;
+        this.gatewayFirmware = gatewayFirmware;
+        this.datapointsByChannelId = new ConcurrentHashMap<String, List<HmDatapoint>>();
+    }
+
+    /**
+     * Returns the cache id of the given channel.
+     */
+    public static String getChannelId(HmChannel channel) {
+        return getDeviceId(channel.getDevice()) + ":" + channel.getNumber();
+    }
+
+    private static String getDeviceId(HmDevice device) {
+        return device.getType() + ":" + device.getFirmware();
+    }
+
+    /**
+     * Loads the persistent cache, an invalid or outdated file is ignored.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized void load() {
+        datapointsByChannelId.clear();
+        modified = false;
+        if (!file.exists()) {
+            return;
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            int formatVersion = in.readInt();
+            String firmware = (String) in.readObject();
+            if (formatVersion != FORMAT_VERSION || !ObjectUtils.equals(firmware, gatewayFirmware)) {
+                logger.debug("Ignoring paramset description cache '{}', it was written for firmware '{}'", file,
+                        firmware);
+                modified = true;
+                return;
+            }
+            datapointsByChannelId.putAll((Map<String, List<HmDatapoint>>) in.readObject());
+            logger.debug("Loaded paramset descriptions of {} channels from '{}'", datapointsByChannelId.size(), file);
+        } catch (IOException | ClassNotFoundException | ClassCastException ex) {
+            logger.debug("Ignoring invalid paramset description cache '{}': {}", file, ex.getMessage());
+            datapointsByChannelId.clear();
+            modified = true;
+        }
+    }
+
+    /**
+     * Returns the cached datapoints of a channel or null if the channel is not cached.
+     */
+    public List<HmDatapoint> get(HmChannel channel) {
+        return datapointsByChannelId.get(getChannelId(channel));
+    }
+
+    /**
+     * Stores a copy of the (non virtual) datapoints of a channel.
+     */
+    public void put(HmChannel channel) {
+        List<HmDatapoint> datapoints = new ArrayList<HmDatapoint>();
+        for (HmDatapoint dp : channel.getDatapoints().values()) {
+            if (!dp.isVirtual()) {
+                HmDatapoint clonedDp = dp.clone();
+                clonedDp.setChannel(null);
+                datapoints.add(clonedDp);
+            }
+        }
+        datapointsByChannelId.put(getChannelId(channel), datapoints);
+        synchronized (this) {
+            modified = true;
+        }
+    }
+
+    /**
+     * Returns the number of cached channels.
+     */
+    public int size() {
+        return datapointsByChannelId.size();
+    }
+
+    /**
+     * Removes all channels of device types which are not available on the gateway anymore and writes the cache file,
+     * if it has been modified.
+     */
+    public synchronized void save(Collection<HmDevice> devices) {
+        Set<String> deviceIds = new HashSet<String>();
+        for (HmDevice device : devices) {
+            deviceIds.add(getDeviceId(device));
+        }
+        if (datapointsByChannelId.keySet()
+                .removeIf(channelId -> !deviceIds.contains(channelId.substring(0, channelId.lastIndexOf(':'))))) {
+            modified = true;
+        }
+        if (!modified) {
+            return;
+        }
+
+        File folder = file.getParentFile();
+        if (folder != null && !folder.exists() && !folder.mkdirs()) {
+            logger.warn("Can't create folder '{}' for the paramset description cache", folder);
+            return;
+        }
+        File tempFile = new File(file.getPath() + ".tmp");
+        try (ObjectOutputStream out = new ObjectOutputStream(
+                new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+            out.writeInt(FORMAT_VERSION);
+            out.writeObject(gatewayFirmware);
+            out.writeObject(new HashMap<String, List<HmDatapoint>>(datapointsByChannelId));
+        } catch (IOException ex) {
+            logger.warn("Can't write paramset description cache '{}': {}", file, ex.getMessage());
+            tempFile.delete();
+            return;
+        }
+        if (file.exists() && !file.delete() || !tempFile.renameTo(file)) {
+            logger.warn("Can't replace paramset description cache '{}'", file);
+            return;
+        }
+        modified = false;
+        logger.debug("Saved paramset descriptions of {} channels to '{}'", datapointsByChannelId.size(), file);
+    }
+}
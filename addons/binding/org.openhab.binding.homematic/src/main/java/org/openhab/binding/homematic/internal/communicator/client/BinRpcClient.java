@@ -10,6 +10,8 @@ package org.openhab.binding.homematic.internal.communicator.client;
 
 import java.io.IOException;
 import java.net.Socket;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.openhab.binding.homematic.internal.common.HomematicConfig;
 import org.openhab.binding.homematic.internal.communicator.message.BinRpcMessage;
@@ -28,6 +30,7 @@ public class BinRpcClient extends RpcClient<byte[]> {
     private final Logger logger = LoggerFactory.getLogger(BinRpcClient.class);
 
     private SocketHandler socketHandler;
+    private Map<Integer, Object> portLocks = new ConcurrentHashMap<Integer, Object>();
 
     public BinRpcClient(HomematicConfig config) {
         super(config);
@@ -52,18 +55,28 @@ public class BinRpcClient extends RpcClient<byte[]> {
     @Override
     public void init(HmInterface hmInterface, String clientId) throws IOException {
         super.init(hmInterface, clientId);
-        socketHandler.removeSocket(config.getRpcPort(hmInterface));
+        int port = config.getRpcPort(hmInterface);
+        synchronized (getPortLock(port)) {
+            socketHandler.removeSocket(port);
+        }
     }
 
     /**
-     * Sends a BIN-RPC message and parses the response to see if there was an error.
+     * Sends a BIN-RPC message and parses the response to see if there was an error. Messages to the same port share
+     * one socket and are sent one after another, messages to different ports (interfaces) are sent in parallel.
      */
     @Override
-    protected synchronized Object[] sendMessage(int port, RpcRequest<byte[]> request) throws IOException {
+    protected Object[] sendMessage(int port, RpcRequest<byte[]> request) throws IOException {
         if (logger.isTraceEnabled()) {
             logger.trace("Client BinRpcRequest:\n{}", request);
         }
-        return sendMessage(port, request, 0);
+        synchronized (getPortLock(port)) {
+            return sendMessage(port, request, 0);
+        }
+    }
+
+    private Object getPortLock(int port) {
+        return portLocks.computeIfAbsent(port, p -> new Object());
     }
 
     /**
@@ -73,7 +86,7 @@ public class BinRpcClient extends RpcClient<byte[]> {
         BinRpcMessage resp = null;
         try {
             Socket socket = socketHandler.getSocket(port);
-            socket.getOutputStream().write(request.createMessage());
+            ((BinRpcMessage) request).writeTo(socket.getOutputStream());
             resp = new BinRpcMessage(socket.getInputStream(), false, config.getEncoding());
             return new RpcResponseParser(request).parse(resp.getResponseData());
         } catch (UnknownRpcFailureException | UnknownParameterSetException rpcEx) {
@@ -11,46 +11,61 @@ package org.openhab.binding.homematic.internal.communicator.message;
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Base64;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 
-import org.apache.commons.io.IOUtils;
-import org.apache.commons.lang.ArrayUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Handles BIN-RPC request and response messages to communicate with a Homematic gateway.
  *
+ * Received messages are read into a pooled (per thread) buffer and the values are decoded directly from that
+ * buffer. Requests are encoded into a growing buffer, which can be written to a stream without copying it.
+ *
  * @author Gerhard Riegler - Initial contribution
  */
 public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
     private final Logger logger = LoggerFactory.getLogger(BinRpcMessage.class);
 
+    public static final int HEADER_LENGTH = 8;
+    private static final int INITIAL_BUFFER_SIZE = 256;
+    private static final int MAX_POOLED_BUFFER_SIZE = 64 * 1024;
+    private static final ThreadLocal<ByteBuffer> READ_BUFFER = new ThreadLocal<ByteBuffer>() {
+        @Override
+        protected ByteBuffer initialValue() {
+            return ByteBuffer.allocate(4 * 1024);
+        }
+    };
+
     public enum TYPE {
         REQUEST,
         RESPONSE;
     }
 
     private Object[] messageData;
-    private byte binRpcData[];
-    private int offset;
+    private ByteBuffer binRpcData;
+    private byte[] message;
 
     private String methodName;
     private TYPE type;
     private int args;
-    private String encoding;
+    private Charset charset;
 
     public BinRpcMessage(String methodName, String encoding) {
         this(methodName, TYPE.REQUEST, encoding);
@@ -62,7 +77,7 @@ public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
     public BinRpcMessage(String methodName, TYPE type, String encoding) {
         this.methodName = methodName;
         this.type = type;
-        this.encoding = encoding;
+        setEncoding(encoding);
         createHeader();
     }
 
@@ -70,68 +85,133 @@ public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
      * Decodes a BIN-RPC message from the given InputStream.
      */
     public BinRpcMessage(InputStream is, boolean methodHeader, String encoding) throws IOException {
-        this.encoding = encoding;
-        byte sig[] = new byte[8];
-        int length = is.read(sig, 0, 4);
+        setEncoding(encoding);
+        decodeMessage(readMessage(is), methodHeader);
+    }
+
+    /**
+     * Decodes a BIN-RPC message from the given byte array.
+     */
+    public BinRpcMessage(byte[] message, boolean methodHeader, String encoding) throws IOException, ParseException {
+        this(ByteBuffer.wrap(message), methodHeader, encoding);
+    }
+
+    /**
+     * Decodes a BIN-RPC message from the given heap buffer, from the current position up to the limit.
+     * The buffer is not referenced after decoding and may be reused.
+     */
+    public BinRpcMessage(ByteBuffer message, boolean methodHeader, String encoding) throws IOException {
+        setEncoding(encoding);
+        if (message.remaining() < HEADER_LENGTH) {
+            throw new EOFException("Only " + message.remaining() + " bytes received");
+        }
+        validateBinXSignature(message);
+        decodeMessage(message, methodHeader);
+    }
+
+    private void setEncoding(String encoding) {
+        try {
+            this.charset = Charset.forName(encoding);
+        } catch (IllegalArgumentException e) {
+            this.charset = Charset.defaultCharset();
+        }
+    }
+
+    /**
+     * Reads a complete BIN-RPC message into the pooled buffer of the current thread.
+     *
+     * @return The pooled buffer, positioned at the start of the message
+     */
+    private static ByteBuffer readMessage(InputStream is) throws IOException {
+        ByteBuffer buffer = READ_BUFFER.get();
+        byte[] data = buffer.array();
+        int length = readFully(is, data, 0, 4);
         if (length != 4) {
             throw new EOFException("Only " + length + " bytes received reading signature");
         }
-        validateBinXSignature(sig);
-        length = is.read(sig, 4, 4);
+        buffer.clear();
+        validateBinXSignature(buffer);
+        length = readFully(is, data, 4, 4);
         if (length != 4) {
             throw new EOFException("Only " + length + " bytes received reading message length");
         }
-        int datasize = (new BigInteger(ArrayUtils.subarray(sig, 4, 8))).intValue();
-        byte[] message = ArrayUtils.addAll(sig, IOUtils.toByteArray(is, datasize));
-        decodeMessage(message, methodHeader);
+        int messageLength = getMessageLength(buffer);
+        if (messageLength > buffer.capacity()) {
+            ByteBuffer larger = ByteBuffer.allocate(messageLength);
+            larger.put(data, 0, HEADER_LENGTH);
+            if (messageLength <= MAX_POOLED_BUFFER_SIZE) {
+                READ_BUFFER.set(larger);
+            }
+            buffer = larger;
+            data = buffer.array();
+        }
+        length = readFully(is, data, HEADER_LENGTH, messageLength - HEADER_LENGTH);
+        if (length != messageLength - HEADER_LENGTH) {
+            throw new EOFException("Only " + length + " bytes of " + (messageLength - HEADER_LENGTH)
+                    + " bytes received reading message data");
+        }
+        buffer.limit(messageLength);
+        buffer.position(0);
+        return buffer;
     }
 
-    private void validateBinXSignature(byte[] sig) throws UnsupportedEncodingException {
-        if (sig[0] != 'B' || sig[1] != 'i' || sig[2] != 'n') {
-            throw new UnsupportedEncodingException("No BinX signature");
+    private static int readFully(InputStream is, byte[] data, int offset, int length) throws IOException {
+        int total = 0;
+        while (total < length) {
+            int read = is.read(data, offset + total, length - total);
+            if (read < 0) {
+                break;
+            }
+            total += read;
         }
+        return total;
     }
 
     /**
-     * Decodes a BIN-RPC message from the given byte array.
+     * Returns the total length of the BIN-RPC message (including the header) which starts at the current position
+     * of the given buffer. At least the header must be available.
      */
-    public BinRpcMessage(byte[] message, boolean methodHeader, String encoding) throws IOException, ParseException {
-        this.encoding = encoding;
-        if (message.length < 8) {
-            throw new EOFException("Only " + message.length + " bytes received");
-        }
-        validateBinXSignature(message);
-        decodeMessage(message, methodHeader);
+    public static int getMessageLength(ByteBuffer buffer) {
+        return HEADER_LENGTH + buffer.getInt(buffer.position() + 4);
     }
 
-    private void decodeMessage(byte[] message, boolean methodHeader) throws IOException {
-        binRpcData = message;
+    private static void validateBinXSignature(ByteBuffer buffer) throws UnsupportedEncodingException {
+        int position = buffer.position();
+        if (buffer.get(position) != 'B' || buffer.get(position + 1) != 'i' || buffer.get(position + 2) != 'n') {
+            throw new UnsupportedEncodingException("No BinX signature");
+        }
+    }
 
-        offset = 8;
+    private void decodeMessage(ByteBuffer buffer, boolean methodHeader) throws IOException {
+        ByteBuffer data = buffer.slice();
+        data.position(HEADER_LENGTH);
 
         if (methodHeader) {
-            methodName = readString();
-            readInt();
+            methodName = readString(data);
+            readInt(data);
         }
-        generateResponseData();
+        messageData = readRpcValues(data);
+        buffer.position(buffer.limit());
     }
 
     public void setType(TYPE type) {
-        binRpcData[3] = type == TYPE.RESPONSE ? (byte) 1 : (byte) 0;
+        this.type = type;
+        if (binRpcData != null) {
+            binRpcData.put(3, type == TYPE.RESPONSE ? (byte) 1 : (byte) 0);
+            message = null;
+        }
     }
 
-    private void generateResponseData() throws IOException {
-        offset = 8 + (methodName != null ? methodName.length() + 8 : 0);
+    private Object[] readRpcValues(ByteBuffer data) throws IOException {
         List<Object> values = new ArrayList<Object>();
-        while (offset < binRpcData.length) {
-            values.add(readRpcValue());
+        while (data.hasRemaining()) {
+            values.add(readRpcValue(data));
         }
-        messageData = values.toArray();
-        values.clear();
+        return values.toArray();
     }
 
     private void createHeader() {
-        binRpcData = new byte[256];
+        binRpcData = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
         addString("Bin ");
         setType(type);
         addInt(0); // placeholder content length
@@ -140,7 +220,7 @@ public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
             addString(methodName);
             addInt(0); // placeholder arguments
         }
-        setInt(4, offset - 8);
+        binRpcData.putInt(4, binRpcData.position() - HEADER_LENGTH);
     }
 
     /**
@@ -149,11 +229,12 @@ public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
     @Override
     public void addArg(Object argument) {
         addObject(argument);
-        setInt(4, offset - 8);
+        binRpcData.putInt(4, binRpcData.position() - HEADER_LENGTH);
 
         if (methodName != null) {
-            setInt(12 + methodName.length(), ++args);
+            binRpcData.putInt(12 + methodName.length(), ++args);
         }
+        message = null;
     }
 
     public int getArgCount() {
@@ -167,14 +248,23 @@ public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
 
     @Override
     public byte[] createMessage() {
-        trimBinRpcData();
-        return binRpcData;
+        if (binRpcData == null) {
+            throw new IllegalStateException("A decoded message can not be sent");
+        }
+        if (message == null) {
+            message = Arrays.copyOf(binRpcData.array(), binRpcData.position());
+        }
+        return message;
     }
 
-    private void trimBinRpcData() {
-        byte[] trimmed = new byte[offset];
-        System.arraycopy(binRpcData, 0, trimmed, 0, offset);
-        binRpcData = trimmed;
+    /**
+     * Writes the encoded request to the given stream, without creating a copy of the message.
+     */
+    public void writeTo(OutputStream os) throws IOException {
+        if (binRpcData == null) {
+            throw new IllegalStateException("A decoded message can not be sent");
+        }
+        os.write(binRpcData.array(), 0, binRpcData.position());
     }
 
     @Override
@@ -183,82 +273,84 @@ public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
     }
 
     // read rpc values
-    private int readInt() {
-        byte bi[] = new byte[4];
-        System.arraycopy(binRpcData, offset, bi, 0, 4);
-        offset += 4;
-        return (new BigInteger(bi)).intValue();
+    private int readInt(ByteBuffer data) {
+        return data.getInt();
     }
 
-    private String readString() throws UnsupportedEncodingException {
-        int len = readInt();
-        offset += len;
-        return new String(binRpcData, offset - len, len, encoding);
+    private String readString(ByteBuffer data) {
+        int len = data.getInt();
+        int position = data.position();
+        data.position(position + len);
+        return new String(data.array(), data.arrayOffset() + position, len, charset);
     }
 
-    private Object readRpcValue() throws IOException {
-        int type = readInt();
+    private Object readRpcValue(ByteBuffer data) throws IOException {
+        int type = data.getInt();
         switch (type) {
             case 1:
-                return new Integer(readInt());
+                return Integer.valueOf(data.getInt());
             case 2:
-                return binRpcData[offset++] != 0 ? Boolean.TRUE : Boolean.FALSE;
+                return data.get() != 0 ? Boolean.TRUE : Boolean.FALSE;
             case 3:
-                return readString();
+                return readString(data);
             case 4:
-                int mantissa = readInt();
-                int exponent = readInt();
+                int mantissa = data.getInt();
+                int exponent = data.getInt();
                 BigDecimal bd = new BigDecimal((double) mantissa / (double) (1 << 30) * Math.pow(2, exponent));
                 return bd.setScale(6, RoundingMode.HALF_DOWN).doubleValue();
             case 5:
-                return new Date(readInt() * 1000);
+                return new Date(data.getInt() * 1000);
+            case 0x11:
+                // Base64, transferred as encoded string
+                return Base64.getDecoder().decode(readString(data));
             case 0x100:
                 // Array
-                int numElements = readInt();
-                Collection<Object> array = new ArrayList<Object>();
+                int numElements = data.getInt();
+                Collection<Object> array = new ArrayList<Object>(Math.min(numElements, data.remaining()));
                 while (numElements-- > 0) {
-                    array.add(readRpcValue());
+                    array.add(readRpcValue(data));
                 }
                 return array.toArray();
             case 0x101:
                 // Struct
-                numElements = readInt();
+                numElements = data.getInt();
                 Map<String, Object> struct = new TreeMap<String, Object>();
                 while (numElements-- > 0) {
-                    String name = readString();
-                    struct.put(name, readRpcValue());
+                    String name = readString(data);
+                    struct.put(name, readRpcValue(data));
                 }
                 return struct;
 
             default:
-                for (int i = 0; i < binRpcData.length; i++) {
-                    logger.info("{} {}", Integer.toHexString(binRpcData[i]), (char) binRpcData[i]);
+                if (logger.isDebugEnabled()) {
+                    ByteBuffer dump = data.duplicate();
+                    dump.rewind();
+                    byte[] bytes = new byte[dump.remaining()];
+                    dump.get(bytes);
+                    logger.debug("Unknown data type {} in message {}", type, Arrays.toString(bytes));
                 }
                 throw new IOException("Unknown data type " + type);
         }
     }
 
-    private void setInt(int position, int value) {
-        int temp = offset;
-        offset = position;
-        addInt(value);
-        offset = temp;
+    private void ensureCapacity(int additionalBytes) {
+        if (binRpcData.remaining() < additionalBytes) {
+            int newCapacity = Math.max(binRpcData.capacity() * 2, binRpcData.position() + additionalBytes);
+            ByteBuffer newData = ByteBuffer.allocate(newCapacity);
+            binRpcData.flip();
+            newData.put(binRpcData);
+            binRpcData = newData;
+        }
     }
 
     private void addByte(byte b) {
-        if (offset == binRpcData.length) {
-            byte newdata[] = new byte[binRpcData.length * 2];
-            System.arraycopy(binRpcData, 0, newdata, 0, binRpcData.length);
-            binRpcData = newdata;
-        }
-        binRpcData[offset++] = b;
+        ensureCapacity(1);
+        binRpcData.put(b);
     }
 
     private void addInt(int value) {
-        addByte((byte) (value >> 24));
-        addByte((byte) (value >> 16));
-        addByte((byte) (value >> 8));
-        addByte((byte) (value));
+        ensureCapacity(4);
+        binRpcData.putInt(value);
     }
 
     private void addDouble(double value) {
@@ -284,14 +376,18 @@ public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
     }
 
     private void addString(String string) {
-        byte sd[];
-        try {
-            sd = string.getBytes(encoding);
-        } catch (UnsupportedEncodingException use) {
-            sd = string.getBytes();
-        }
-        for (byte ch : sd) {
-            addByte(ch);
+        if (charset == StandardCharsets.ISO_8859_1 || charset == StandardCharsets.US_ASCII) {
+            // Single byte encodings, write the characters directly without an intermediate array
+            int length = string.length();
+            ensureCapacity(length);
+            for (int i = 0; i < length; i++) {
+                char ch = string.charAt(i);
+                binRpcData.put(ch <= 0xFF ? (byte) ch : (byte) '?');
+            }
+        } else {
+            byte sd[] = string.getBytes(charset);
+            ensureCapacity(sd.length);
+            binRpcData.put(sd);
         }
     }
 
@@ -329,6 +425,11 @@ public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
         } else if (object.getClass() == Date.class) {
             addInt(5);
             addInt((int) ((Date) object).getTime() / 1000);
+        } else if (object.getClass() == byte[].class) {
+            addInt(0x11);
+            String string = Base64.getEncoder().encodeToString((byte[]) object);
+            addInt(string.length());
+            addString(string);
         } else if (object instanceof List<?>) {
             Collection<?> list = (Collection<?>) object;
             addInt(0x100);
@@ -342,7 +443,7 @@ public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
                 String key = (String) entry.getKey();
                 addInt(key.length());
                 addString(key);
-                addList(Collections.singleton(entry.getValue()));
+                addObject(entry.getValue());
             }
         }
     }
@@ -354,8 +455,12 @@ public class BinRpcMessage implements RpcRequest<byte[]>, RpcResponse {
     @Override
     public String toString() {
         try {
-            trimBinRpcData();
-            generateResponseData();
+            if (binRpcData != null) {
+                // Decode the request values again
+                ByteBuffer data = ByteBuffer.wrap(binRpcData.array(), 0, binRpcData.position());
+                data.position(HEADER_LENGTH + (methodName != null ? methodName.length() + 8 : 0));
+                messageData = readRpcValues(data);
+            }
             return RpcUtils.dumpRpcMessage(methodName, messageData);
         } catch (Exception e) {
             throw new RuntimeException(e.getMessage(), e);
@@ -10,40 +10,109 @@ package org.openhab.binding.homematic.internal.communicator.server;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
-import java.net.ServerSocket;
-import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.openhab.binding.homematic.internal.common.HomematicConfig;
 import org.openhab.binding.homematic.internal.communicator.message.BinRpcMessage;
 import org.openhab.binding.homematic.internal.communicator.message.RpcRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
- * Waits for a message from the Homematic gateway and starts the RpcCallbackHandler to handle the message.
+ * Waits for messages from the Homematic gateway and handles the method calls.
+ *
+ * All connections are served by a single selector thread. Connections are kept open after a response, so a gateway
+ * can send further (also pipelined) requests over the same connection. Requests of one connection are handled
+ * strictly in order. Decoded method calls are handled by the shared "homematicRpc" pool of the ThreadPoolManager. If too
+ * many method calls are pending, no more data is read from the connection until some of them have been handled, which
+ * pushes back to the gateway through TCP flow control.
  *
  * @author Gerhard Riegler - Initial contribution
  */
 public class BinRpcNetworkService implements Runnable {
+    private final Logger logger = LoggerFactory.getLogger(BinRpcNetworkService.class);
+
     private static final byte BIN_EMPTY_STRING[] = { 'B', 'i', 'n', 1, 0, 0, 0, 8, 0, 0, 0, 3, 0, 0, 0, 0 };
     private static final byte BIN_EMPTY_ARRAY[] = { 'B', 'i', 'n', 1, 0, 0, 0, 8, 0, 0, 1, 0, 0, 0, 0, 0 };
     private static final byte BIN_EMPTY_EVENT_LIST[] = { 'B', 'i', 'n', 1, 0, 0, 0, 21, 0, 0, 1, 0, 0, 0, 0, 1, 0, 0, 0,
             3, 0, 0, 0, 5, 'e', 'v', 'e', 'n', 't' };
 
     private static final String RPC_POOL_NAME = "homematicRpc";
-    private ServerSocket serverSocket;
-    private boolean accept = true;
+    private static final int MAX_PENDING_CALLS = 200;
+    private static final int INITIAL_READ_BUFFER_SIZE = 4 * 1024;
+    private static final int MAX_MESSAGE_SIZE = 32 * 1024 * 1024;
+    private static final long IDLE_CONNECTION_TIMEOUT = TimeUnit.MINUTES.toNanos(5);
+    private static final long SELECT_TIMEOUT_MS = 10000;
+    private static final long BACKPRESSURE_RETRY_MS = 20;
+
+    private final ServerSocketChannel serverChannel;
+    private final Selector selector;
+    private final ExecutorService workers = ThreadPoolManager.getPool(RPC_POOL_NAME);
+    private final AtomicInteger pendingCalls = new AtomicInteger();
+    private volatile boolean accept = true;
     private HomematicConfig config;
     private RpcResponseHandler<byte[]> rpcResponseHandler;
 
+    private final Queue<Connection> completedCalls = new ConcurrentLinkedQueue<Connection>();
+    private final Queue<Connection> backlog = new ArrayDeque<Connection>();
+
+    // Statistics
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private final AtomicLong acceptedConnections = new AtomicLong();
+    private final AtomicLong receivedMessages = new AtomicLong();
+    private final AtomicLong handledMessages = new AtomicLong();
+    private final AtomicLong failedMessages = new AtomicLong();
+    private final AtomicLong backpressureStalls = new AtomicLong();
+    private final AtomicLong totalHandlingTime = new AtomicLong();
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+
+    /**
+     * The state of a connection from the Homematic gateway. Only accessed by the selector thread, except for the
+     * response which is handed over by a worker thread.
+     */
+    private static class Connection {
+        final SocketChannel channel;
+        SelectionKey key;
+        ByteBuffer readBuffer = ByteBuffer.allocate(INITIAL_READ_BUFFER_SIZE);
+        ByteBuffer writeBuffer;
+        BinRpcMessage pendingMessage;
+        volatile byte[] response;
+        volatile boolean failed;
+        boolean busy;
+        long lastActivity = System.nanoTime();
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+
     /**
      * Creates the socket for listening to events from the Homematic gateway.
      */
     public BinRpcNetworkService(RpcEventListener listener, HomematicConfig config) throws IOException {
         this.config = config;
 
-        serverSocket = new ServerSocket();
-        serverSocket.setReuseAddress(true);
-        serverSocket.bind(new InetSocketAddress(config.getBinCallbackPort()));
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.socket().setReuseAddress(true);
+        serverChannel.bind(new InetSocketAddress(config.getBinCallbackPort()));
+        serverChannel.configureBlocking(false);
+        selector = Selector.open();
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
 
         this.rpcResponseHandler = new RpcResponseHandler<byte[]>(listener) {
 
@@ -70,31 +139,364 @@ public class BinRpcNetworkService implements Runnable {
     }
 
     /**
-     * Listening for events and starts the callbackHandler if a event received.
+     * Listening for events and dispatches the received method calls to the workers.
      */
     @Override
     public void run() {
-        while (accept) {
-            try {
-                Socket cs = serverSocket.accept();
-                BinRpcResponseHandler rpcHandler = new BinRpcResponseHandler(cs, rpcResponseHandler, config);
-                ThreadPoolManager.getPool(RPC_POOL_NAME).execute(rpcHandler);
-            } catch (IOException ex) {
-                // ignore
+        long lastIdleCheck = System.nanoTime();
+        try {
+            while (accept) {
+                selector.select(backlog.isEmpty() ? SELECT_TIMEOUT_MS : BACKPRESSURE_RETRY_MS);
+                writeCompletedCalls();
+                dispatchBacklog();
+
+                Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                while (it.hasNext()) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        acceptConnection();
+                    } else {
+                        Connection connection = (Connection) key.attachment();
+                        if (key.isReadable()) {
+                            readConnection(connection);
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            writeResponse(connection);
+                        }
+                    }
+                }
+
+                long now = System.nanoTime();
+                if (now - lastIdleCheck > TimeUnit.MILLISECONDS.toNanos(SELECT_TIMEOUT_MS)) {
+                    closeIdleConnections(now);
+                    lastIdleCheck = now;
+                }
+            }
+        } catch (IOException | ClosedSelectorException ex) {
+            if (accept) {
+                logger.error("BIN-RPC server failed: {}", ex.getMessage(), ex);
+            }
+        } finally {
+            closeAll();
+        }
+    }
+
+    private void acceptConnection() {
+        try {
+            SocketChannel channel = serverChannel.accept();
+            if (channel == null) {
+                return;
+            }
+            channel.configureBlocking(false);
+            Connection connection = new Connection(channel);
+            connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+            openConnections.incrementAndGet();
+            acceptedConnections.incrementAndGet();
+        } catch (IOException ex) {
+            logger.debug("Can't accept BIN-RPC connection: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Reads the available data of a connection and dispatches the next complete message, if the connection is not
+     * busy with a previous message.
+     */
+    private void readConnection(Connection connection) {
+        try {
+            int read = connection.channel.read(connection.readBuffer);
+            if (read < 0) {
+                closeConnection(connection);
+                return;
+            }
+            connection.lastActivity = System.nanoTime();
+            ensureReadBufferCapacity(connection);
+            dispatchNextMessage(connection);
+        } catch (IOException ex) {
+            logger.debug("BIN-RPC connection failed: {}", ex.getMessage());
+            closeConnection(connection);
+        }
+    }
+
+    /**
+     * Grows the read buffer of the connection, if the announced message does not fit.
+     */
+    private void ensureReadBufferCapacity(Connection connection) throws IOException {
+        ByteBuffer buffer = connection.readBuffer;
+        if (buffer.position() < BinRpcMessage.HEADER_LENGTH) {
+            return;
+        }
+        int messageLength = getMessageLength((ByteBuffer) buffer.duplicate().flip());
+        if (messageLength > buffer.capacity()) {
+            ByteBuffer larger = ByteBuffer.allocate(messageLength);
+            buffer.flip();
+            larger.put(buffer);
+            connection.readBuffer = larger;
+        }
+    }
+
+    /**
+     * Decodes the next complete message from the read buffer and dispatches it. While a message is handled, the
+     * connection is not read any further.
+     */
+    private void dispatchNextMessage(Connection connection) throws IOException {
+        if (connection.busy) {
+            connection.key.interestOps(0);
+            return;
+        }
+        ByteBuffer buffer = connection.readBuffer;
+        if (buffer.position() >= BinRpcMessage.HEADER_LENGTH) {
+            buffer.flip();
+            int messageLength = getMessageLength(buffer);
+            if (buffer.remaining() >= messageLength) {
+                ByteBuffer messageData = buffer.duplicate();
+                messageData.limit(messageLength);
+                BinRpcMessage message;
+                try {
+                    message = new BinRpcMessage(messageData, true, config.getEncoding());
+                } catch (RuntimeException ex) {
+                    throw new IOException("Invalid BIN-RPC message: " + ex.getMessage(), ex);
+                }
+                buffer.position(messageLength);
+                buffer.compact();
+                receivedMessages.incrementAndGet();
+
+                connection.busy = true;
+                connection.key.interestOps(0);
+                if (!dispatch(connection, message)) {
+                    connection.pendingMessage = message;
+                    backlog.add(connection);
+                    backpressureStalls.incrementAndGet();
+                }
+                return;
+            }
+            buffer.position(buffer.limit());
+            buffer.limit(buffer.capacity());
+        }
+        connection.key.interestOps(SelectionKey.OP_READ);
+    }
+
+    private int getMessageLength(ByteBuffer buffer) throws IOException {
+        int messageLength = BinRpcMessage.getMessageLength(buffer);
+        if (messageLength < BinRpcMessage.HEADER_LENGTH || messageLength > MAX_MESSAGE_SIZE) {
+            throw new IOException("Invalid BIN-RPC message length " + messageLength);
+        }
+        return messageLength;
+    }
+
+    /**
+     * Hands the message over to the workers. Only called by the selector thread.
+     *
+     * @return false if too many method calls are pending
+     */
+    private boolean dispatch(Connection connection, BinRpcMessage message) {
+        if (pendingCalls.get() >= MAX_PENDING_CALLS) {
+            return false;
+        }
+        try {
+            maxQueueDepth.accumulateAndGet(pendingCalls.incrementAndGet(), Math::max);
+            workers.execute(() -> handleMessage(connection, message));
+            return true;
+        } catch (RejectedExecutionException ex) {
+            pendingCalls.decrementAndGet();
+            return false;
+        }
+    }
+
+    /**
+     * Retries to dispatch the messages, which have been rejected because of a full worker queue.
+     */
+    private void dispatchBacklog() {
+        while (!backlog.isEmpty()) {
+            Connection connection = backlog.peek();
+            if (connection.channel.isOpen() && !dispatch(connection, connection.pendingMessage)) {
+                return;
             }
+            connection.pendingMessage = null;
+            backlog.poll();
         }
     }
 
+    /**
+     * Handles the method call, executed by a worker thread. The response is written by the selector thread.
+     */
+    private void handleMessage(Connection connection, BinRpcMessage message) {
+        final long startTime = System.nanoTime();
+        try {
+            logger.trace("Event BinRpcMessage: {}", message);
+            byte[] returnValue = rpcResponseHandler.handleMethodCall(message.getMethodName(),
+                    message.getResponseData());
+            connection.response = returnValue != null ? returnValue : new byte[0];
+            handledMessages.incrementAndGet();
+        } catch (Exception e) {
+            logger.error("{}", e.getMessage(), e);
+            connection.failed = true;
+            failedMessages.incrementAndGet();
+        } finally {
+            totalHandlingTime.addAndGet(System.nanoTime() - startTime);
+            pendingCalls.decrementAndGet();
+            completedCalls.add(connection);
+            selector.wakeup();
+        }
+    }
+
+    private void writeCompletedCalls() {
+        Connection connection;
+        while ((connection = completedCalls.poll()) != null) {
+            if (!connection.channel.isOpen()) {
+                continue;
+            }
+            if (connection.failed) {
+                closeConnection(connection);
+                continue;
+            }
+            connection.writeBuffer = ByteBuffer.wrap(connection.response);
+            connection.response = null;
+            writeResponse(connection);
+        }
+    }
+
+    /**
+     * Writes the response of the current message. If it is written completely, the next message of the
+     * connection is dispatched.
+     */
+    private void writeResponse(Connection connection) {
+        try {
+            connection.channel.write(connection.writeBuffer);
+            if (connection.writeBuffer.hasRemaining()) {
+                connection.key.interestOps(SelectionKey.OP_WRITE);
+                return;
+            }
+            connection.writeBuffer = null;
+            connection.busy = false;
+            connection.lastActivity = System.nanoTime();
+            dispatchNextMessage(connection);
+        } catch (IOException ex) {
+            logger.debug("Can't write BIN-RPC response: {}", ex.getMessage());
+            closeConnection(connection);
+        }
+    }
+
+    private void closeIdleConnections(long now) {
+        for (SelectionKey key : selector.keys()) {
+            Connection connection = (Connection) key.attachment();
+            if (connection != null && !connection.busy && now - connection.lastActivity > IDLE_CONNECTION_TIMEOUT) {
+                closeConnection(connection);
+            }
+        }
+    }
+
+    private void closeConnection(Connection connection) {
+        if (connection.key != null) {
+            connection.key.attach(null);
+            connection.key.cancel();
+        }
+        try {
+            if (connection.channel.isOpen()) {
+                connection.channel.close();
+                openConnections.decrementAndGet();
+            }
+        } catch (IOException ex) {
+            // ignore
+        }
+    }
+
+    private void closeAll() {
+        // The worker pool is shared and managed by the ThreadPoolManager, pending calls just finish
+        try {
+            for (SelectionKey key : selector.keys()) {
+                Connection connection = (Connection) key.attachment();
+                if (connection != null) {
+                    closeConnection(connection);
+                }
+            }
+            selector.close();
+        } catch (IOException | ClosedSelectorException ex) {
+            // ignore
+        }
+        try {
+            serverChannel.close();
+        } catch (IOException ex) {
+            // ignore
+        }
+    }
+
+    /**
+     * Returns the number of currently open connections.
+     */
+    public int getOpenConnections() {
+        return openConnections.get();
+    }
+
+    /**
+     * Returns the number of accepted connections since the start.
+     */
+    public long getAcceptedConnections() {
+        return acceptedConnections.get();
+    }
+
+    /**
+     * Returns the number of received messages since the start.
+     */
+    public long getReceivedMessages() {
+        return receivedMessages.get();
+    }
+
+    /**
+     * Returns the number of messages that wait for a worker or are handled right now.
+     */
+    public int getQueueDepth() {
+        return pendingCalls.get();
+    }
+
+    /**
+     * Returns the highest number of messages that were pending at the same time.
+     */
+    public int getMaxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+
+    /**
+     * Returns how often a message could not be dispatched because too many method calls were pending.
+     */
+    public long getBackpressureStalls() {
+        return backpressureStalls.get();
+    }
+
+    /**
+     * Returns the average time in milliseconds a worker needed to handle a message.
+     */
+    public double getAverageHandlingTime() {
+        long count = handledMessages.get() + failedMessages.get();
+        if (count == 0) {
+            return 0;
+        }
+        return TimeUnit.NANOSECONDS.toMicros(totalHandlingTime.get() / count) / 1000.0;
+    }
+
     /**
      * Stops the listening.
      */
     public void shutdown() {
         accept = false;
         try {
-            serverSocket.close();
+            selector.wakeup();
+            serverChannel.close();
         } catch (IOException ioe) {
             // ignore
         }
     }
 
+    @Override
+    public String toString() {
+        return String.format(
+                "connections=%d/%d, received=%d, handled=%d, failed=%d, queued=%d/%d, stalls=%d, avgHandling=%.1fms",
+                getOpenConnections(), getAcceptedConnections(), getReceivedMessages(), handledMessages.get(),
+                failedMessages.get(), getQueueDepth(), getMaxQueueDepth(), getBackpressureStalls(),
+                getAverageHandlingTime());
+    }
+
 }
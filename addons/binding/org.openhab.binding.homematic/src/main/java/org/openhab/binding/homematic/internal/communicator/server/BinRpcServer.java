@@ -45,7 +45,7 @@ public class BinRpcServer implements RpcServer {
     @Override
     public void shutdown() {
         if (networkService != null) {
-            logger.debug("Stopping BIN-RPC server");
+            logger.debug("Stopping BIN-RPC server ({})", networkService);
             try {
                 if (networkServiceThread != null) {
                     networkServiceThread.interrupt();
@@ -9,24 +9,62 @@
 package org.openhab.binding.homematic.internal.misc;
 
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.Map;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.openhab.binding.homematic.internal.model.HmDatapointInfo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Executes a callback method either immediately or after a given delay for a datapoint.
+ * Executes a callback method either immediately or after a given delay for a datapoint. If a new callback is started
+ * for a datapoint while the previous one is still delayed, the previous one is cancelled.
+ *
+ * The delayed callbacks of all executers are scheduled on one shared scheduled thread pool.
  *
  * @author Gerhard Riegler - Initial contribution
  */
 public class DelayedExecuter {
     private final Logger logger = LoggerFactory.getLogger(DelayedExecuter.class);
+    private static final String DELAYED_EXECUTER_POOL_NAME = "homematicDelayedExecuter";
+
+    private Map<HmDatapointInfo, DelayedTask> delayedEvents = new ConcurrentHashMap<HmDatapointInfo, DelayedTask>();
+
+    // Statistics
+    private final AtomicLong scheduledTasks = new AtomicLong();
+    private final AtomicLong cancelledTasks = new AtomicLong();
+    private final AtomicLong executedTasks = new AtomicLong();
+
+    /**
+     * A delayed callback for a datapoint.
+     */
+    private class DelayedTask implements Runnable {
+        private final HmDatapointInfo dpInfo;
+        private final DelayedExecuterCallback callback;
+        private volatile ScheduledFuture<?> future;
+
+        public DelayedTask(HmDatapointInfo dpInfo, DelayedExecuterCallback callback) {
+            this.dpInfo = dpInfo;
+            this.callback = callback;
+        }
 
-    private Map<HmDatapointInfo, Timer> delayedEvents = new HashMap<HmDatapointInfo, Timer>();
+        @Override
+        public void run() {
+            logger.debug("Executing delayed event for '{}'", dpInfo);
+            delayedEvents.remove(dpInfo, this);
+            executedTasks.incrementAndGet();
+            try {
+                callback.execute();
+            } catch (Exception ex) {
+                logger.error("{}", ex.getMessage(), ex);
+            }
+        }
+    }
 
     /**
      * Executes a callback method either immediately or after a given delay.
@@ -34,29 +72,18 @@ public class DelayedExecuter {
     public void start(final HmDatapointInfo dpInfo, final double delay, final DelayedExecuterCallback callback)
             throws IOException, HomematicClientException {
         if (delay > 0.0) {
-            synchronized (DelayedExecuter.class) {
-                logger.debug("Delaying event for {} seconds: '{}'", delay, dpInfo);
+            logger.debug("Delaying event for {} seconds: '{}'", delay, dpInfo);
+            ScheduledExecutorService scheduler = ThreadPoolManager.getScheduledPool(DELAYED_EXECUTER_POOL_NAME);
 
-                Timer timer = delayedEvents.get(dpInfo);
-                if (timer != null) {
-                    timer.cancel();
+            delayedEvents.compute(dpInfo, (key, previousTask) -> {
+                if (previousTask != null && previousTask.future.cancel(false)) {
+                    cancelledTasks.incrementAndGet();
                 }
-
-                timer = new Timer();
-                delayedEvents.put(dpInfo, timer);
-                timer.schedule(new TimerTask() {
-                    @Override
-                    public void run() {
-                        logger.debug("Executing delayed event for '{}'", dpInfo);
-                        delayedEvents.remove(dpInfo);
-                        try {
-                            callback.execute();
-                        } catch (Exception ex) {
-                            logger.error("{}", ex.getMessage(), ex);
-                        }
-                    }
-                }, (long) (delay * 1000));
-            }
+                DelayedTask task = new DelayedTask(dpInfo, callback);
+                task.future = scheduler.schedule(task, (long) (delay * 1000), TimeUnit.MILLISECONDS);
+                scheduledTasks.incrementAndGet();
+                return task;
+            });
         } else {
             callback.execute();
         }
@@ -66,12 +93,46 @@ public class DelayedExecuter {
      * Stops all delayed events.
      */
     public void stop() {
-        for (Timer timer : delayedEvents.values()) {
-            timer.cancel();
+        for (DelayedTask task : delayedEvents.values()) {
+            task.future.cancel(false);
         }
         delayedEvents.clear();
     }
 
+    /**
+     * Returns the number of delayed callbacks which are waiting for their execution.
+     */
+    public int getPendingTasks() {
+        return delayedEvents.size();
+    }
+
+    /**
+     * Returns the number of callbacks which have been delayed since the start.
+     */
+    public long getScheduledTasks() {
+        return scheduledTasks.get();
+    }
+
+    /**
+     * Returns the number of delayed callbacks which have been replaced by a newer callback for the same datapoint.
+     */
+    public long getCancelledTasks() {
+        return cancelledTasks.get();
+    }
+
+    /**
+     * Returns the number of delayed callbacks which have been executed.
+     */
+    public long getExecutedTasks() {
+        return executedTasks.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("pending=%d, scheduled=%d, cancelled=%d, executed=%d", getPendingTasks(),
+                getScheduledTasks(), getCancelledTasks(), getExecutedTasks());
+    }
+
     /**
      * Callback interface for the {@link DelayedExecuter}.
      *
@@ -0,0 +1,142 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.loxone.internal.core;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+/**
+ * Cache of Miniserver's configuration file (LoxApp3.json), keyed by the time of its last modification on the
+ * Miniserver.
+ * <p>
+ * The parsed configuration is kept in memory, so that a reconnect to a Miniserver with unchanged configuration needs
+ * neither transfer nor parsing of the file. The received file is also stored on disk, so that after a restart of the
+ * binding it only needs to be parsed again.
+ *
+ * @author agent - Initial contribution
+ *
+ */
+class LxJsonApp3Cache {
+    private final File file;
+    private final int debugId;
+    private final Gson gson = new Gson();
+    private String lastModified;
+    private LxJsonApp3 config;
+    private boolean loaded;
+
+    private Logger logger = LoggerFactory.getLogger(LxJsonApp3Cache.class);
+
+    /**
+     * Create a cache for the configuration of a Miniserver
+     *
+     * @param debugId
+     *            instance of the client used for debugging purposes only
+     * @param file
+     *            file to store the configuration in
+     */
+    LxJsonApp3Cache(int debugId, File file) {
+        this.debugId = debugId;
+        this.file = file;
+    }
+
+    /**
+     * Get cached configuration, if it has the given modification time
+     *
+     * @param lastModified
+     *            time of last modification of the configuration, as reported by the Miniserver
+     * @return
+     *         parsed configuration or null if there is no cached configuration with this modification time
+     */
+    synchronized LxJsonApp3 get(String lastModified) {
+        if (lastModified == null) {
+            return null;
+        }
+        if (!loaded) {
+            loaded = true;
+            if (file.exists()) {
+                load();
+            }
+        }
+        if (config != null && lastModified.equals(this.lastModified)) {
+            return config;
+        }
+        return null;
+    }
+
+    /**
+     * Store a received configuration in the cache
+     *
+     * @param lastModified
+     *            time of last modification of the configuration, as reported by the Miniserver
+     * @param json
+     *            configuration file as received from the Miniserver
+     * @param config
+     *            parsed configuration
+     */
+    synchronized void put(String lastModified, String json, LxJsonApp3 config) {
+        if (lastModified == null) {
+            return;
+        }
+        this.lastModified = lastModified;
+        this.config = config;
+        loaded = true;
+
+        File folder = file.getParentFile();
+        if (folder != null && !folder.exists() && !folder.mkdirs()) {
+            logger.debug("[{}] Can't create folder for configuration cache {}", debugId, folder);
+            return;
+        }
+        File tempFile = new File(file.getPath() + ".tmp");
+        try (BufferedWriter writer = new BufferedWriter(
+                new OutputStreamWriter(new FileOutputStream(tempFile), StandardCharsets.UTF_8))) {
+            writer.write(lastModified);
+            writer.newLine();
+            writer.write(json);
+        } catch (IOException e) {
+            logger.debug("[{}] Error writing configuration cache {}: {}", debugId, file, e.getMessage());
+            tempFile.delete();
+            return;
+        }
+        if (file.exists() && !file.delete() || !tempFile.renameTo(file)) {
+            logger.debug("[{}] Can't replace configuration cache {}", debugId, file);
+        }
+    }
+
+    /**
+     * Load configuration cached on disk. The first line contains the modification time, followed by the
+     * configuration file.
+     */
+    private void load() {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String modified = reader.readLine();
+            LxJsonApp3 cached = gson.fromJson(reader, LxJsonApp3.class);
+            if (modified != null && cached != null) {
+                lastModified = modified;
+                config = cached;
+                logger.debug("[{}] Loaded configuration cache {} modified {}", debugId, file, modified);
+            }
+        } catch (IOException | JsonParseException e) {
+            logger.debug("[{}] Ignoring invalid configuration cache {}: {}", debugId, file, e.getMessage());
+        }
+    }
+}
@@ -8,11 +8,12 @@
  */
 package org.openhab.binding.loxone.internal.core;
 
+import java.io.File;
 import java.net.InetAddress;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -20,6 +21,7 @@ import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import org.eclipse.smarthome.config.core.ConfigConstants;
 import org.openhab.binding.loxone.internal.core.LxServerEvent.EventType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -70,8 +72,9 @@ public class LxServer {
     private int comErrorDelay = 30;
 
     // Data structures
-    private Set<LxUuid> uuids = new HashSet<>();
+    private Map<LxUuid, LxUuid> uuids = new HashMap<>();
     private Map<LxUuid, LxControl> controls = new HashMap<>();
+    private volatile Map<String, LxControl> controlsByName = new HashMap<>();
     private Map<LxUuid, LxContainer> rooms = new HashMap<>();
     private Map<LxUuid, LxCategory> categories = new HashMap<>();
     private Map<LxUuid, LxControlState> states = new HashMap<>();
@@ -107,7 +110,10 @@ public class LxServer {
         this.password = password;
 
         debugId = staticDebugId.getAndIncrement();
-        socketClient = new LxWsClient(debugId, queue, host, port, user, password);
+        File cacheFile = new File(ConfigConstants.getUserDataFolder() + File.separator + "loxone",
+                host.getHostAddress() + "_" + port + ".json");
+        socketClient = new LxWsClient(debugId, queue, host, port, user, password,
+                new LxJsonApp3Cache(debugId, cacheFile));
     }
 
     /**
@@ -263,12 +269,10 @@ public class LxServer {
      *         Found control or null if not found
      */
     public LxControl findControl(String name) {
-        for (LxControl l : controls.values()) {
-            if (l.getName().equals(name)) {
-                return l;
-            }
+        if (name == null) {
+            return null;
         }
-        return null;
+        return controlsByName.get(name);
     }
 
     /**
@@ -390,21 +394,11 @@ public class LxServer {
                                 }
                                 break;
                             case STATE_UPDATE:
-                                LxWsStateUpdateEvent update = (LxWsStateUpdateEvent) wsMsg.getObject();
-                                LxControlState state = findState(update.getUuid());
-                                if (state != null) {
-                                    state.setValue(update.getValue(), update.getText());
-                                    LxControl control = state.getControl();
-                                    if (control != null) {
-                                        logger.debug("[{}] State update {} ({}:{}) to value {}, text '{}'", debugId,
-                                                update.getUuid(), control.getName(), state.getName(), update.getValue(),
-                                                update.getText());
-                                        for (LxServerListener listener : listeners) {
-                                            listener.onControlStateUpdate(control);
-                                        }
-                                    } else {
-                                        logger.debug("[{}] State update {} ({}) of unknown control", debugId,
-                                                update.getUuid(), state.getName());
+                                @SuppressWarnings("unchecked")
+                                List<LxWsStateUpdateEvent> updates = (List<LxWsStateUpdateEvent>) wsMsg.getObject();
+                                for (LxControl control : updateStates(updates)) {
+                                    for (LxServerListener listener : listeners) {
+                                        listener.onControlStateUpdate(control);
                                     }
                                 }
                                 break;
@@ -461,6 +455,37 @@ public class LxServer {
         }
     }
 
+    /**
+     * Updates states with a batch of state updates received from the Miniserver. A control with more than one
+     * updated state in the batch is returned only once, so that listeners are notified once per control.
+     *
+     * @param updates
+     *            state updates received in one binary message
+     * @return
+     *         controls with updated states, in the order of their first update
+     */
+    private Set<LxControl> updateStates(List<LxWsStateUpdateEvent> updates) {
+        Set<LxControl> updatedControls = new LinkedHashSet<>();
+        for (LxWsStateUpdateEvent update : updates) {
+            LxControlState state = findState(update.getUuid());
+            if (state != null) {
+                state.setValue(update.getValue(), update.getText());
+                LxControl control = state.getControl();
+                if (control != null) {
+                    logger.debug("[{}] State update {} ({}:{}) to value {}, text '{}'", debugId, update.getUuid(),
+                            control.getName(), state.getName(), update.getValue(), update.getText());
+                    updatedControls.add(control);
+                } else {
+                    logger.debug("[{}] State update {} ({}) of unknown control", debugId, update.getUuid(),
+                            state.getName());
+                }
+            }
+        }
+        logger.trace("[{}] Processed {} state updates of {} controls", debugId, updates.size(),
+                updatedControls.size());
+        return updatedControls;
+    }
+
     /**
      * Updates runtime configuration from parsed JSON configuration file of Loxone Miniserver (LoxApp3.json)
      *
@@ -470,7 +495,7 @@ public class LxServer {
     private void updateConfig(LxJsonApp3 config) {
         logger.trace("[{}] Updating configuration from Miniserver", debugId);
 
-        for (LxUuid id : uuids) {
+        for (LxUuid id : uuids.values()) {
             id.setUpdate(false);
         }
         for (LxUuid id : states.keySet()) {
@@ -518,6 +543,15 @@ public class LxServer {
         removeUnusedFromMap(categories);
         removeUnusedFromMap(controls);
         removeUnusedFromMap(states);
+
+        // index controls by name, if names are not unique the first control found is used
+        Map<String, LxControl> byName = new HashMap<>();
+        for (LxControl control : controls.values()) {
+            if (control.getName() != null) {
+                byName.putIfAbsent(control.getName(), control);
+            }
+        }
+        controlsByName = byName;
     }
 
     /**
@@ -554,12 +588,7 @@ public class LxServer {
         if (uuids == null || id == null) {
             return null;
         }
-        for (LxUuid i : uuids) {
-            if (id.equals(i)) {
-                return i;
-            }
-        }
-        return null;
+        return uuids.get(id);
     }
 
     /**
@@ -576,7 +605,7 @@ public class LxServer {
         if (i != null) {
             return i;
         }
-        uuids.add(id);
+        uuids.put(id, id);
         return id;
     }
 
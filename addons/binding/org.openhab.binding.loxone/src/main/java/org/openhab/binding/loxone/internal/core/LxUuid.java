@@ -8,9 +8,6 @@
  */
 package org.openhab.binding.loxone.internal.core;
 
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-
 /**
  * Unique identifier of an object on Loxone Miniserver.
  * <p>
@@ -21,6 +18,8 @@ import java.nio.ByteOrder;
  *
  */
 public class LxUuid {
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
     private String uuid;
     private String uuidOriginal;
     private boolean updated;
@@ -35,14 +34,47 @@ public class LxUuid {
         init(uuid);
     }
 
+    /**
+     * Create a new {@link LxUuid} object from its binary representation in a message received from the Miniserver.
+     * The UUID is formatted directly from the buffer, as state update tables contain thousands of them.
+     *
+     * @param data
+     *            buffer with binary message received from the Miniserver
+     * @param offset
+     *            offset in buffer where 16 bytes of UUID are expected
+     */
     public LxUuid(byte data[], int offset) {
-        String id = String.format("%08x-%04x-%04x-%02x%02x%02x%02x%02x%02x%02x%02x",
-                ByteBuffer.wrap(data, offset, 4).order(ByteOrder.LITTLE_ENDIAN).getInt(),
-                ByteBuffer.wrap(data, offset + 4, 2).order(ByteOrder.LITTLE_ENDIAN).getShort(),
-                ByteBuffer.wrap(data, offset + 6, 2).order(ByteOrder.LITTLE_ENDIAN).getShort(), data[offset + 8],
-                data[offset + 9], data[offset + 10], data[offset + 11], data[offset + 12], data[offset + 13],
-                data[offset + 14], data[offset + 15]);
-        init(id);
+        if (offset < 0 || offset + 16 > data.length) {
+            throw new IndexOutOfBoundsException("UUID exceeds buffer");
+        }
+        // data1 (4 bytes), data2 (2 bytes) and data3 (2 bytes) are little endian, data4 (8 bytes) is a byte array
+        char[] chars = new char[35];
+        int pos = 0;
+        for (int i = 3; i >= 0; i--) {
+            pos = appendHex(chars, pos, data[offset + i]);
+        }
+        chars[pos++] = '-';
+        pos = appendHex(chars, pos, data[offset + 5]);
+        pos = appendHex(chars, pos, data[offset + 4]);
+        chars[pos++] = '-';
+        pos = appendHex(chars, pos, data[offset + 7]);
+        pos = appendHex(chars, pos, data[offset + 6]);
+        chars[pos++] = '-';
+        for (int i = 8; i < 16; i++) {
+            pos = appendHex(chars, pos, data[offset + i]);
+        }
+        uuidOriginal = new String(chars);
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toUpperCase(chars[i]);
+        }
+        uuid = new String(chars);
+        updated = true;
+    }
+
+    private static int appendHex(char[] chars, int pos, byte value) {
+        chars[pos++] = HEX_DIGITS[(value >> 4) & 0x0F];
+        chars[pos++] = HEX_DIGITS[value & 0x0F];
+        return pos;
     }
 
     private void init(String uuid) {
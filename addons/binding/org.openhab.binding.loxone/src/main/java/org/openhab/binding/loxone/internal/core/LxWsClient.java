@@ -67,6 +67,8 @@ class LxWsClient {
     private LxWebSocket socket;
     private WebSocketClient wsClient;
     private BlockingQueue<LxServerEvent> queue;
+    private LxJsonApp3Cache configCache;
+    private String configLastModified;
     private ClientState state = ClientState.IDLE;
     private Logger logger = LoggerFactory.getLogger(LxWsClient.class);
 
@@ -79,6 +81,7 @@ class LxWsClient {
     private static final String CMD_AUTHENTICATE = "authenticate/";
     private static final String CMD_KEEPALIVE = "keepalive";
     private static final String CMD_ENABLE_UPDATES = "jdev/sps/enablebinstatusupdate";
+    private static final String CMD_GET_APP_VERSION = "jdev/sps/LoxAPPversion3";
     private static final String CMD_GET_APP_CONFIG = "data/LoxAPP3.json";
 
     /**
@@ -104,6 +107,10 @@ class LxWsClient {
          * Waiting for authentication
          */
         AUTHENTICATING,
+        /**
+         * Waiting for the time of last modification of Miniserver's configuration
+         */
+        CHECKING_CONFIGURATION,
         /**
          * Waiting for Miniserver's configuration
          */
@@ -228,11 +235,14 @@ class LxWsClient {
      *            user to authenticate
      * @param password
      *            password to authenticate
+     * @param configCache
+     *            cache of Miniserver's configuration
      */
     LxWsClient(int debugId, BlockingQueue<LxServerEvent> queue, InetAddress host, int port, String user,
-            String password) {
+            String password, LxJsonApp3Cache configCache) {
         this.debugId = debugId;
         this.queue = queue;
+        this.configCache = configCache;
         this.host = host;
         this.port = port;
         this.user = user;
@@ -597,20 +607,12 @@ class LxWsClient {
                         switch (header.type) {
                             case EVENT_TABLE_OF_VALUE_STATES:
                                 stopResponseTimeout();
-                                while (length > 0) {
-                                    LxWsStateUpdateEvent event = new LxWsStateUpdateEvent(true, data, offset);
-                                    offset += event.getSize();
-                                    length -= event.getSize();
-                                    notifyMaster(EventType.STATE_UPDATE, null, event);
-                                }
+                                notifyMaster(EventType.STATE_UPDATE, null,
+                                        LxWsStateUpdateEvent.decodeTable(true, data, offset, length));
                                 break;
                             case EVENT_TABLE_OF_TEXT_STATES:
-                                while (length > 0) {
-                                    LxWsStateUpdateEvent event = new LxWsStateUpdateEvent(false, data, offset);
-                                    offset += event.getSize();
-                                    length -= event.getSize();
-                                    notifyMaster(EventType.STATE_UPDATE, null, event);
-                                }
+                                notifyMaster(EventType.STATE_UPDATE, null,
+                                        LxWsStateUpdateEvent.decodeTable(false, data, offset, length));
                                 break;
                             case KEEPALIVE_RESPONSE:
                             case TEXT_MESSAGE:
@@ -681,22 +683,36 @@ class LxWsClient {
                                                 "Timeout on authentication procedure, response : " + subResp.value);
                                     } else if (code == 200) {
                                         logger.debug("[{}] Websocket authentication successfull.", debugId);
-                                        sendString(CMD_GET_APP_CONFIG);
-                                        setClientState(ClientState.UPDATING_CONFIGURATION);
+                                        sendString(CMD_GET_APP_VERSION);
+                                        setClientState(ClientState.CHECKING_CONFIGURATION);
                                         startResponseTimeout();
                                     }
                                 }
                             }
                             break;
+                        case CHECKING_CONFIGURATION:
+                            configLastModified = null;
+                            resp = gson.fromJson(msg, LxJsonResponse.class);
+                            if (resp != null && resp.subResponse != null && resp.subResponse.code == 200) {
+                                configLastModified = resp.subResponse.value;
+                            }
+                            LxJsonApp3 cachedConfig = configCache.get(configLastModified);
+                            if (cachedConfig != null) {
+                                logger.debug("[{}] Configuration not modified since {}, using cached one", debugId,
+                                        configLastModified);
+                                configReceived(cachedConfig);
+                            } else {
+                                sendString(CMD_GET_APP_CONFIG);
+                                setClientState(ClientState.UPDATING_CONFIGURATION);
+                                startResponseTimeout();
+                            }
+                            break;
                         case UPDATING_CONFIGURATION:
                             LxJsonApp3 config = gson.fromJson(msg, LxJsonApp3.class);
                             if (config != null) {
                                 logger.debug("[{}] Received configuration from server", debugId);
-                                notifyMaster(EventType.RECEIVED_CONFIG, null, config);
-                                sendString(CMD_ENABLE_UPDATES);
-                                setClientState(ClientState.RUNNING);
-                                startResponseTimeout();
-                                notifyMaster(EventType.SERVER_ONLINE, null, null);
+                                configCache.put(configLastModified, msg, config);
+                                configReceived(config);
                             } else {
                                 notifyAndClose(LxOfflineReason.INTERNAL_ERROR,
                                         "Error processing received configuration");
@@ -714,6 +730,22 @@ class LxWsClient {
             }
         }
 
+        /**
+         * Passes Miniserver's configuration to {@link LxServer} and enables state updates
+         *
+         * @param config
+         *            received or cached configuration
+         * @throws IOException
+         *             exception when communication error occurs
+         */
+        private void configReceived(LxJsonApp3 config) throws IOException {
+            notifyMaster(EventType.RECEIVED_CONFIG, null, config);
+            sendString(CMD_ENABLE_UPDATES);
+            setClientState(ClientState.RUNNING);
+            startResponseTimeout();
+            notifyMaster(EventType.SERVER_ONLINE, null, null);
+        }
+
         /**
          * Stops keep alive thread and ceases sending keep alive messages to the Miniserver
          */
@@ -10,6 +10,8 @@ package org.openhab.binding.loxone.internal.core;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * An event received from Loxone Miniserver with control's state update
@@ -19,8 +21,6 @@ import java.nio.ByteOrder;
  */
 class LxWsStateUpdateEvent {
     private LxUuid uuid;
-    @SuppressWarnings("unused")
-    private LxUuid iconUuid;
     private Double value;
     private String text;
     private int size = 0;
@@ -30,31 +30,62 @@ class LxWsStateUpdateEvent {
      *
      * @param isValueEvent
      *            true if this event updates double value, false if it updates text message
-     * @param data
-     *            buffer with binary message received from Miniserver
+     * @param buffer
+     *            little endian buffer wrapping the binary message received from Miniserver
      * @param offset
      *            offset in buffer where event is expected
      */
-    LxWsStateUpdateEvent(boolean isValueEvent, byte data[], int offset) throws IndexOutOfBoundsException {
+    LxWsStateUpdateEvent(boolean isValueEvent, ByteBuffer buffer, int offset) throws IndexOutOfBoundsException {
+        byte data[] = buffer.array();
         uuid = new LxUuid(data, offset);
         offset += 16;
 
         if (isValueEvent) {
-            value = ByteBuffer.wrap(data, offset, 8).order(ByteOrder.LITTLE_ENDIAN).getDouble();
+            value = buffer.getDouble(offset);
             size = 24;
             return;
         }
 
-        iconUuid = new LxUuid(data, offset);
+        // icon UUID is not used
         offset += 16;
 
-        int textLen = ByteBuffer.wrap(data, offset, 4).order(ByteOrder.LITTLE_ENDIAN).getInt();
+        int textLen = buffer.getInt(offset);
         offset += 4;
 
         text = new String(data, offset, textLen);
         size = 36 + (textLen % 4 > 0 ? textLen + 4 - (textLen % 4) : textLen);
     }
 
+    /**
+     * Decode a complete table of value or text state update events, as received from Miniserver in one binary
+     * message. The whole table is passed to {@link LxServer} as one batch.
+     *
+     * @param isValueEvent
+     *            true if the table contains double value events, false if it contains text events
+     * @param data
+     *            buffer with binary message received from Miniserver
+     * @param offset
+     *            offset in buffer where the table starts
+     * @param length
+     *            length of the table in bytes
+     * @return
+     *         list of decoded events in the order of the table
+     * @throws IndexOutOfBoundsException
+     *             when the table is malformed
+     */
+    static List<LxWsStateUpdateEvent> decodeTable(boolean isValueEvent, byte data[], int offset, int length)
+            throws IndexOutOfBoundsException {
+        ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        List<LxWsStateUpdateEvent> events = new ArrayList<>(isValueEvent ? length / 24 : 16);
+        while (length > 0) {
+            LxWsStateUpdateEvent event = new LxWsStateUpdateEvent(isValueEvent, buffer, offset);
+            offset += event.getSize();
+            length -= event.getSize();
+            events.add(event);
+        }
+        return events;
+    }
+
     /**
      * Get UUID of this state
      *
@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.max.internal.message;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.smarthome.core.library.types.OpenClosedType;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.max.internal.device.Device;
+import org.openhab.binding.max.internal.device.DeviceConfiguration;
+import org.openhab.binding.max.internal.device.HeatingThermostat;
+import org.openhab.binding.max.internal.device.ShutterContact;
+
+/**
+ * Tests cases for {@link L_Message}.
+ *
+ * @author agent - Initial contribution
+ * @since 2.2
+ */
+public class L_MessageTest {
+
+    private final String thermostatConfiguration = "C:0b0da3,0gsNowIBEABLRVEwNTQ0MjQyLCQ9CQcYAzAM/wBIYViRSP1ZFE0gTSBNIEUgRSBFIEUgRSBFIEhhWJFQ/VkVUSBRIFEgRSBFIEUgRSBFIEUgSFBYWkj+WRRNIE0gTSBFIEUgRSBFIEUgRSBIUFhaSP5ZFE0gTSBNIEUgRSBFIEUgRSBFIEhQWFpI/lkUTSBNIE0gRSBFIEUgRSBFIEUgSFBYWkj+WRRNIE0gTSBFIEUgRSBFIEUgRSBIUFhaSP5ZFE0gTSBNIEUgRSBFIEUgRSBFIA==";
+    private final String shutterContactConfiguration = "C:0ff1bc,EQ/xvAQJEAJMRVEwNzk0MDA3";
+
+    // shutter contact closed, thermostat valve at 0%
+    private final String rawData1 = "L:Bg/xvAkSAAsLDaMJEhgAKgDXAA==";
+    // shutter contact closed, thermostat valve at 32%
+    private final String rawData2 = "L:Bg/xvAkSAAsLDaMJEhggKgDXAA==";
+    // shutter contact open, thermostat valve at 32%
+    private final String rawData3 = "L:Bg/xvAkSAgsLDaMJEhggKgDXAA==";
+
+    private List<DeviceConfiguration> configurations;
+    private List<Device> devices;
+    private Map<String, byte[]> snapshots;
+
+    @Before
+    public void Before() {
+        configurations = new ArrayList<DeviceConfiguration>();
+        configurations.add(DeviceConfiguration.create(new C_Message(thermostatConfiguration)));
+        configurations.add(DeviceConfiguration.create(new C_Message(shutterContactConfiguration)));
+        devices = new ArrayList<Device>();
+        snapshots = new HashMap<String, byte[]>();
+    }
+
+    @Test
+    public void getMessageTypeTest() {
+        MessageType messageType = ((Message) new L_Message(rawData1)).getType();
+        assertEquals(MessageType.L, messageType);
+    }
+
+    @Test
+    public void newDevicesAreChangedTest() {
+        List<Device> changed = new L_Message(rawData1).updateChangedDevices(devices, configurations, snapshots);
+
+        assertEquals(2, changed.size());
+        assertEquals(2, devices.size());
+        assertEquals(OpenClosedType.CLOSED, getShutterContact().getShutterState());
+    }
+
+    @Test
+    public void unchangedDevicesAreSkippedTest() {
+        new L_Message(rawData1).updateChangedDevices(devices, configurations, snapshots);
+        List<Device> changed = new L_Message(rawData1).updateChangedDevices(devices, configurations, snapshots);
+
+        assertEquals(0, changed.size());
+        assertEquals(2, devices.size());
+    }
+
+    @Test
+    public void onlyChangedDevicesAreReturnedTest() {
+        new L_Message(rawData1).updateChangedDevices(devices, configurations, snapshots);
+
+        List<Device> changed = new L_Message(rawData2).updateChangedDevices(devices, configurations, snapshots);
+        assertEquals(1, changed.size());
+        assertSame(getThermostat(), changed.get(0));
+        assertEquals(32, getThermostat().getValvePosition().intValue());
+
+        changed = new L_Message(rawData3).updateChangedDevices(devices, configurations, snapshots);
+        assertEquals(1, changed.size());
+        assertSame(getShutterContact(), changed.get(0));
+        assertEquals(OpenClosedType.OPEN, getShutterContact().getShutterState());
+    }
+
+    @Test
+    public void updateDevicesTest() {
+        new L_Message(rawData1).updateDevices(devices, configurations);
+        new L_Message(rawData3).updateDevices(devices, configurations);
+
+        assertEquals(2, devices.size());
+        assertEquals(OpenClosedType.OPEN, getShutterContact().getShutterState());
+        assertEquals(32, getThermostat().getValvePosition().intValue());
+    }
+
+    private HeatingThermostat getThermostat() {
+        for (Device device : devices) {
+            if (device instanceof HeatingThermostat) {
+                return (HeatingThermostat) device;
+            }
+        }
+        fail("No thermostat found");
+        return null;
+    }
+
+    private ShutterContact getShutterContact() {
+        for (Device device : devices) {
+            if (device instanceof ShutterContact) {
+                return (ShutterContact) device;
+            }
+        }
+        fail("No shutter contact found");
+        return null;
+    }
+
+}
@@ -20,6 +20,8 @@ import java.net.Socket;
 import java.net.SocketException;
 import java.net.UnknownHostException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -28,6 +30,7 @@ import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.eclipse.smarthome.config.core.Configuration;
 import org.eclipse.smarthome.core.library.types.DecimalType;
@@ -105,6 +108,15 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
     private ArrayList<RoomInformation> rooms;
     private HashSet<String> lastActiveDevices = new HashSet<String>();
 
+    /** Interval in which all devices are passed to the listeners, also when their state has not changed */
+    private static final long FULL_UPDATE_INTERVAL = TimeUnit.MINUTES.toMillis(5);
+
+    /** The device information of the last L message per RF address, to find the devices with changed state */
+    private final Map<String, byte[]> deviceSnapshots = new HashMap<String, byte[]>();
+    private Set<Device> changedDevices = new HashSet<Device>();
+    private volatile boolean fullUpdateRequested = true;
+    private long lastFullUpdate;
+
     /** MAX! Thermostat default off temperature */
     private static final DecimalType DEFAULT_OFF_TEMPERATURE = new DecimalType(4.5);
 
@@ -117,7 +129,32 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
     private static final int MAX_COMMANDS = 50;
     private ArrayBlockingQueue<SendCommand> commandQueue = new ArrayBlockingQueue<SendCommand>(MAX_COMMANDS);
 
-    private SendCommand lastCommandId = null;
+    /** The queued commands by the key of the commands they supersede */
+    private final Map<String, SendCommand> queuedCommands = new HashMap<String, SendCommand>();
+
+    /** Maximum duty cycle (%) of the Cube to send a further command right away */
+    private static final int MAX_DUTY_CYCLE = 80;
+
+    /** Minimum free memory slots of the Cube to send a further command right away */
+    private static final int MIN_FREE_MEMORY_SLOTS = 2;
+
+    /** Locks per Cube address, so a Cube is accessed by one bridge at a time while other Cubes run in parallel */
+    private static final Map<String, CubeLock> CUBE_LOCKS = new HashMap<String, CubeLock>();
+
+    /**
+     * The lock of a Cube address, it is removed when the last bridge of the Cube is disposed.
+     */
+    private static class CubeLock {
+        private int bridges;
+    }
+
+    private volatile CubeLock cubeLock;
+    private String cubeAddress;
+
+    /** Held while the queued commands are sent, so they are sent in the order they are taken from the queue */
+    private final Object sendCommandsLock = new Object();
+
+    private boolean commandDiscarded;
 
     private String ipAddress;
     private int port;
@@ -161,10 +198,18 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
     };
     private ScheduledFuture<?> sendCommandJob;
     private long sendCommandInterval = 5;
+    private final AtomicBoolean sendCommandsPending = new AtomicBoolean();
+    private Runnable sendCommandsNowRunnable = new Runnable() {
+        @Override
+        public void run() {
+            sendCommandsPending.set(false);
+            sendCommands(false);
+        }
+    };
     private Runnable sendCommandRunnable = new Runnable() {
         @Override
         public void run() {
-            sendCommands();
+            sendCommands(true);
         }
     };
 
@@ -172,6 +217,7 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
     public void handleCommand(ChannelUID channelUID, Command command) {
         if (command instanceof RefreshType) {
             logger.debug("Refresh command received.");
+            fullUpdateRequested = true;
             refreshData();
         } else {
             logger.warn("No bridge commands defined. Cannot process '{}'.", command.toString());
@@ -184,6 +230,7 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
         stopAutomaticRefresh();
         clearDeviceList();
         socketClose();
+        releaseCubeLock();
         super.dispose();
     }
 
@@ -205,6 +252,9 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
         logger.debug("Exclusive mode  {}.", exclusive);
         logger.debug("Max Requests    {}.", maxRequestsPerConnection);
 
+        releaseCubeLock();
+        acquireCubeLock(ipAddress + ":" + port);
+
         previousOnline = true; // To trigger offline in case no connection @ startup
         startAutomaticRefresh();
     }
@@ -327,36 +377,71 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
     }
 
     /**
-     * Takes a command from the command queue and send it to
-     * {@link executeCommand} for execution.
+     * Takes the commands from the command queue and send them to
+     * {@link executeCommand} for execution. On each scheduled run at least one command is sent, further commands are
+     * sent right away as long as the duty cycle and free memory slots of the Cube allow it.
      *
+     * @param scheduled
+     *            false if the commands are sent right after a command has been queued
      */
-    private synchronized void sendCommands() {
-
-        SendCommand sendCommand = commandQueue.poll();
-        if (sendCommand != null) {
-            CubeCommand cmd = sendCommand.getCubeCommand();
-            if (cmd == null) {
-                cmd = getCommand(sendCommand);
-            }
-            if (cmd != null) {
-                // Actual sending of the data to the Max! Cube Lan Gateway
-                logger.debug("Command {} ({}:{}) sent to MAX! Cube at IP: {}", sendCommand.getId(),
-                        sendCommand.getKey(), sendCommand.getCommandText(), ipAddress);
-
-                if (sendCubeCommand(cmd)) {
-                    logger.trace("Command {} ({}:{}) completed for MAX! Cube at IP: {}", sendCommand.getId(),
-                            sendCommand.getKey(), sendCommand.getCommandText(), ipAddress);
-                } else {
-                    logger.warn("Error sending command {} ({}:{}) to MAX! Cube at IP: {}", sendCommand.getId(),
+    private void sendCommands(boolean scheduled) {
+        synchronized (sendCommandsLock) {
+            boolean send = scheduled;
+            while (send || hasCubeCapacity()) {
+                send = false;
+                SendCommand sendCommand = takeCommand();
+                if (sendCommand == null) {
+                    return;
+                }
+                CubeCommand cmd = sendCommand.getCubeCommand();
+                if (cmd == null) {
+                    cmd = getCommand(sendCommand);
+                }
+                if (cmd != null) {
+                    // Actual sending of the data to the Max! Cube Lan Gateway
+                    logger.debug("Command {} ({}:{}) sent to MAX! Cube at IP: {}", sendCommand.getId(),
                             sendCommand.getKey(), sendCommand.getCommandText(), ipAddress);
+
+                    commandDiscarded = false;
+                    if (sendCubeCommand(cmd)) {
+                        logger.trace("Command {} ({}:{}) completed for MAX! Cube at IP: {}", sendCommand.getId(),
+                                sendCommand.getKey(), sendCommand.getCommandText(), ipAddress);
+                        if (commandDiscarded) {
+                            // Wait for the next scheduled run before sending more commands
+                            return;
+                        }
+                    } else {
+                        logger.warn("Error sending command {} ({}:{}) to MAX! Cube at IP: {}", sendCommand.getId(),
+                                sendCommand.getKey(), sendCommand.getCommandText(), ipAddress);
+                        return;
+                    }
                 }
             }
         }
     }
 
     /**
-     * initiates read data from the MAX! Cube bridge
+     * Takes the next command from the queue. The socket I/O happens outside of this lock, so commands can be queued
+     * while a command is sent.
+     */
+    private synchronized SendCommand takeCommand() {
+        SendCommand sendCommand = commandQueue.poll();
+        if (sendCommand != null) {
+            queuedCommands.values().remove(sendCommand);
+        }
+        return sendCommand;
+    }
+
+    /**
+     * @return true if the Cube reported enough duty cycle and free memory slots to send a further command
+     */
+    private boolean hasCubeCapacity() {
+        return dutyCycle < MAX_DUTY_CYCLE && freeMemorySlots >= MIN_FREE_MEMORY_SLOTS;
+    }
+
+    /**
+     * initiates read data from the MAX! Cube bridge. Only the devices of which the state has changed since the
+     * previous L message are passed to the listeners, unless a full update is due.
      */
     private void refreshData() {
 
@@ -364,8 +449,15 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
             if (sendCubeCommand(new L_Command())) {
                 updateStatus(ThingStatus.ONLINE);
                 previousOnline = true;
+                Set<Device> updatedDevices = takeChangedDevices();
+                boolean fullUpdate = isFullUpdateDue();
+                int dispatchedDevices = 0;
                 for (Device di : devices) {
                     if (lastActiveDevices != null && lastActiveDevices.contains(di.getSerialNumber())) {
+                        if (!fullUpdate && !updatedDevices.contains(di)) {
+                            continue;
+                        }
+                        dispatchedDevices++;
                         for (DeviceStatusListener deviceStatusListener : deviceStatusListeners) {
                             try {
                                 deviceStatusListener.onDeviceStateChanged(getThing().getUID(), di);
@@ -377,6 +469,7 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
                     }
                     // New device, not seen before, pass to Discovery
                     else {
+                        dispatchedDevices++;
                         for (DeviceStatusListener deviceStatusListener : deviceStatusListeners) {
                             try {
                                 deviceStatusListener.onDeviceAdded(getThing(), di);
@@ -389,6 +482,8 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
                         }
                     }
                 }
+                logger.trace("Passed {} of {} devices to the listeners (full update: {}).", dispatchedDevices,
+                        devices.size(), fullUpdate);
             } else if (previousOnline) {
                 onConnectionLost();
             }
@@ -398,6 +493,28 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
         }
     }
 
+    /**
+     * Returns the devices of which the state has changed since the last call
+     */
+    private synchronized Set<Device> takeChangedDevices() {
+        if (changedDevices.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Set<Device> result = changedDevices;
+        changedDevices = new HashSet<Device>();
+        return result;
+    }
+
+    private boolean isFullUpdateDue() {
+        long now = System.currentTimeMillis();
+        if (fullUpdateRequested || now - lastFullUpdate >= FULL_UPDATE_INTERVAL) {
+            fullUpdateRequested = false;
+            lastFullUpdate = now;
+            return true;
+        }
+        return false;
+    }
+
     public void onConnectionLost() {
         logger.debug("Bridge connection lost. Updating thing status to OFFLINE.");
         previousOnline = false;
@@ -422,7 +539,7 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
         }
         boolean result = deviceStatusListeners.add(deviceStatusListener);
         if (result) {
-            // onUpdate();
+            fullUpdateRequested = true;
         }
         return result;
     }
@@ -440,6 +557,7 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
 
     public void clearDeviceList() {
         lastActiveDevices.clear();
+        fullUpdateRequested = true;
     }
 
     /**
@@ -449,8 +567,13 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
      * @param {@link CubeCommand}
      * @return boolean success
      */
-    private synchronized boolean sendCubeCommand(CubeCommand command) {
-        synchronized (MaxCubeBridgeHandler.class) {
+    private boolean sendCubeCommand(CubeCommand command) {
+        CubeLock lock = cubeLock;
+        if (lock == null) {
+            logger.debug("MAX! Cube bridge is disposed, not sending {}", command.getCommandString());
+            return false;
+        }
+        synchronized (lock) {
             boolean sendSuccess = false;
             try {
                 if (socket == null || socket.isClosed()) {
@@ -651,13 +774,20 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
                     }
                 }
             } else if (message.getType() == MessageType.L) {
-                ((L_Message) message).updateDevices(devices, configurations);
-                logger.trace("{} devices found.", devices.size());
+                List<Device> updatedDevices = ((L_Message) message).updateChangedDevices(devices, configurations,
+                        deviceSnapshots);
+                int changed;
+                synchronized (this) {
+                    changedDevices.addAll(updatedDevices);
+                    changed = changedDevices.size();
+                }
+                logger.trace("{} devices found, {} changed.", devices.size(), changed);
             } else if (message.getType() == MessageType.S) {
                 dutyCycle = ((S_Message) message).getDutyCycle();
                 freeMemorySlots = ((S_Message) message).getFreeMemorySlots();
                 updateCubeState();
-                if (((S_Message) message).isCommandDiscarded()) {
+                commandDiscarded = ((S_Message) message).isCommandDiscarded();
+                if (commandDiscarded) {
                     logger.warn("Last Send Command discarded. Duty Cycle: {}, Free Memory Slots: {}", dutyCycle,
                             freeMemorySlots);
                 } else {
@@ -771,6 +901,8 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
      * item-channel combination are send prior that they are processed by the
      * Max! Cube, they will be removed from the queue as they would not be
      * meaningful. This will improve the behavior when using sliders in the GUI.
+     * The same applies to the commands for the same channel of devices in the
+     * same room, as these commands are sent to the whole room.
      *
      * @param SendCommand
      *            the SendCommand containing the serial number of the device as
@@ -779,25 +911,45 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
      */
     public synchronized void queueCommand(SendCommand sendCommand) {
 
-        if (commandQueue.offer(sendCommand)) {
-            if (lastCommandId != null) {
-                if (lastCommandId.getKey().equals(sendCommand.getKey())) {
-                    if (commandQueue.remove(lastCommandId)) {
-                        logger.debug("Removed Command id {} ({}) from queue. Superceeded by {}", lastCommandId.getId(),
-                                lastCommandId.getKey(), sendCommand.getId());
-                    }
-                }
+        String key = getSupersedeKey(sendCommand);
+        SendCommand supersededCommand = queuedCommands.get(key);
+        if (supersededCommand != null) {
+            if (commandQueue.remove(supersededCommand)) {
+                logger.debug("Removed Command id {} ({}) from queue. Superceeded by {}", supersededCommand.getId(),
+                        supersededCommand.getKey(), sendCommand.getId());
             }
-            lastCommandId = sendCommand;
+            queuedCommands.remove(key);
+        }
+
+        if (commandQueue.offer(sendCommand)) {
+            queuedCommands.put(key, sendCommand);
             logger.debug("Command queued id {} ({}:{}).", sendCommand.getId(), sendCommand.getKey(),
                     sendCommand.getCommandText());
-
+            if (sendCommandJob != null && !sendCommandJob.isCancelled()
+                    && sendCommandsPending.compareAndSet(false, true)) {
+                scheduler.execute(sendCommandsNowRunnable);
+            }
         } else {
             logger.debug("Command queued full dropping command id {} ({}).", sendCommand.getId(), sendCommand.getKey());
         }
 
     }
 
+    /**
+     * Returns the key of the queued commands which are superseded by the command. The temperature and mode commands
+     * of a device in a room are sent to all devices of the room, so the commands of the devices in the same room
+     * supersede each other.
+     */
+    private String getSupersedeKey(SendCommand sendCommand) {
+        if (sendCommand.getChannelUID() != null) {
+            Device device = getDevice(sendCommand.getDeviceSerial(), devices);
+            if (device != null && device.getRoomId() != 0) {
+                return "Room" + device.getRoomId() + "-" + sendCommand.getChannelUID().getId();
+            }
+        }
+        return sendCommand.getKey();
+    }
+
     /**
      * Processes device command and sends it to the MAX! Cube Lan Gateway.
      *
@@ -929,6 +1081,33 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
         socket = null;
     }
 
+    private void acquireCubeLock(String address) {
+        synchronized (CUBE_LOCKS) {
+            CubeLock lock = CUBE_LOCKS.get(address);
+            if (lock == null) {
+                lock = new CubeLock();
+                CUBE_LOCKS.put(address, lock);
+            }
+            lock.bridges++;
+            cubeAddress = address;
+            cubeLock = lock;
+        }
+    }
+
+    private void releaseCubeLock() {
+        synchronized (CUBE_LOCKS) {
+            CubeLock lock = cubeLock;
+            if (lock == null) {
+                return;
+            }
+            cubeLock = null;
+            lock.bridges--;
+            if (lock.bridges == 0) {
+                CUBE_LOCKS.remove(cubeAddress);
+            }
+        }
+    }
+
     private void updateCubeState() {
         updateState(new ChannelUID(getThing().getUID(), CHANNEL_FREE_MEMORY), new DecimalType(freeMemorySlots));
         updateState(new ChannelUID(getThing().getUID(), CHANNEL_DUTY_CYCLE), new DecimalType(dutyCycle));
@@ -9,8 +9,11 @@
 package org.openhab.binding.max.internal.message;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.net.util.Base64;
 import org.openhab.binding.max.internal.Utils;
@@ -52,37 +55,61 @@ public final class L_Message extends Message {
     }
 
     public Collection<? extends Device> updateDevices(List<Device> devices, List<DeviceConfiguration> configurations) {
+        updateChangedDevices(devices, configurations, new HashMap<String, byte[]>());
+        return devices;
+    }
 
-        byte[] decodedRawMessage = Base64.decodeBase64(getPayload().getBytes());
+    /**
+     * Updates the devices with the real time information of this message. The information of each device is compared
+     * with the information of the previous message, only devices with changed information are updated.
+     *
+     * @param devices
+     *            the known devices, new devices are added to this list
+     * @param configurations
+     *            the device configurations
+     * @param snapshots
+     *            the information of the previous message per RF address, updated with the information of this message
+     * @return the devices which have been added or whose information has changed
+     */
+    public List<Device> updateChangedDevices(List<Device> devices, List<DeviceConfiguration> configurations,
+            Map<String, byte[]> snapshots) {
+        List<Device> changedDevices = new ArrayList<Device>();
+
+        Map<String, Device> devicesByRFAddress = new HashMap<String, Device>();
+        for (Device device : devices) {
+            devicesByRFAddress.put(device.getRFAddress().toUpperCase(), device);
+        }
+
+        byte[] decodedRawMessage = Base64.decodeBase64(getPayload());
 
         MaxTokenizer tokenizer = new MaxTokenizer(decodedRawMessage);
 
         while (tokenizer.hasMoreElements()) {
             byte[] token = tokenizer.nextElement();
-            String rfAddress = Utils.toHex(token[0] & 0xFF, token[1] & 0xFF, token[2] & 0xFF);
-            // logger.debug("token: "+token+" rfaddress: "+rfAddress);
-
-            Device foundDevice = null;
-            for (Device device : devices) {
-                // logger.debug(device.getRFAddress().toUpperCase()+ " vs "+rfAddress);
-                if (device.getRFAddress().toUpperCase().equals(rfAddress)) {
-                    // logger.debug("Updating device..."+rfAddress);
-                    foundDevice = device;
-                }
+            if (token.length < 3) {
+                continue;
             }
+            String rfAddress = Utils.toHex(token[0] & 0xFF, token[1] & 0xFF, token[2] & 0xFF);
+
+            Device foundDevice = devicesByRFAddress.get(rfAddress);
             if (foundDevice != null) {
-                foundDevice = Device.update(token, configurations, foundDevice);
-                // devices.remove(token);
-                // devices.add(foundDevice);
+                if (!Arrays.equals(token, snapshots.get(rfAddress))) {
+                    Device.update(token, configurations, foundDevice);
+                    snapshots.put(rfAddress, token);
+                    changedDevices.add(foundDevice);
+                }
             } else {
                 Device tempDevice = Device.create(token, configurations);
                 if (tempDevice != null) {
                     devices.add(tempDevice);
+                    devicesByRFAddress.put(rfAddress, tempDevice);
+                    snapshots.put(rfAddress, token);
+                    changedDevices.add(tempDevice);
                 }
             }
         }
 
-        return devices;
+        return changedDevices;
     }
 
     @Override
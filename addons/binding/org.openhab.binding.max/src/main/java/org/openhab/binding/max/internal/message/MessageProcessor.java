@@ -172,11 +172,11 @@ public class MessageProcessor {
                 receivedLines.add(tokens[2]);
 
                 if (index + 1 == receivedLines.size()) {
-                    String newLine = "";
+                    StringBuilder newLine = new StringBuilder();
                     for (String curLine : receivedLines) {
-                        newLine += curLine;
+                        newLine.append(curLine);
                     }
-                    this.currentMessage = new M_Message(newLine);
+                    this.currentMessage = new M_Message(newLine.toString());
                     result = true;
                 }
             }
@@ -16,6 +16,7 @@ import static org.mockito.Mockito.*;
 import java.io.IOException;
 import java.net.UnknownHostException;
 import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
@@ -54,6 +55,8 @@ public class PresenceDetectionTest {
     @Mock
     Consumer<PresenceDetectionValue> callback;
 
+    PresenceDetectionScheduler detectionScheduler;
+
     PresenceDetection subject;
 
     @Before
@@ -63,12 +66,15 @@ public class PresenceDetectionTest {
         // Mock an interface
         when(networkUtils.getInterfaceNames()).thenReturn(Collections.singleton("TESTinterface"));
         doReturn(ArpPingUtilEnum.IPUTILS_ARPING).when(networkUtils).determineNativeARPpingMethod(anyString());
-        doReturn(IpPingMethodEnum.WINDOWS_PING).when(networkUtils).determinePingMethod();
+        doReturn(IpPingMethodEnum.WINDOWS_PING).when(networkUtils).determinePingMethod(anyBoolean());
+
+        detectionScheduler = spy(new PresenceDetectionScheduler(4));
 
         subject = spy(new PresenceDetection(listener, (int) CACHETIME));
         subject.networkUtils = networkUtils;
+        subject.detectionScheduler = detectionScheduler;
         subject.cache = spy(new ExpiringCacheAsync<PresenceDetectionValue>(CACHETIME, () -> {
-            subject.performPresenceDetection(false);
+            subject.requestCacheUpdate();
         }));
 
         // Set a useful configuration. The default presenceDetection is a no-op.
@@ -86,28 +92,31 @@ public class PresenceDetectionTest {
     @After
     public void shutDown() {
         subject.waitForPresenceDetection();
+        detectionScheduler.shutdown();
     }
 
-    // Depending on the amount of test methods an according amount of threads is spawned.
-    // We will check if they spawn and return in time.
+    // Depending on the amount of test methods an according amount of checks is scheduled.
+    // We will check if they are scheduled and return in time.
     @Test
-    public void threadCountTest() {
-        assertNull(subject.executorService);
+    public void checkCountTest() {
+        assertFalse(subject.isDetectionInProgress());
 
         doNothing().when(subject).performARPping(anyObject());
         doNothing().when(subject).performJavaPing();
         doNothing().when(subject).performSystemPing();
-        doNothing().when(subject).performServicePing(anyInt());
+        doNothing().when(subject).performServicePing(anyInt(), anyLong());
 
         subject.performPresenceDetection(false);
 
-        // Thread count: ARP + ICMP + 1*TCP
+        // Check count: ARP + ICMP + 1*TCP
         assertThat(subject.detectionChecks, is(3));
-        assertNotNull(subject.executorService);
+        assertTrue(subject.isDetectionInProgress());
+        // Only ARP and ICMP need a thread of the bounded pool
+        verify(detectionScheduler, times(2)).submit(anyObject());
 
         subject.waitForPresenceDetection();
         assertThat(subject.detectionChecks, is(0));
-        assertNull(subject.executorService);
+        assertFalse(subject.isDetectionInProgress());
     }
 
     @Test
@@ -115,7 +124,8 @@ public class PresenceDetectionTest {
         doReturn(true).when(networkUtils).nativePing(eq(IpPingMethodEnum.WINDOWS_PING), anyString(), anyInt());
         doReturn(true).when(networkUtils).nativeARPPing(eq(ArpPingUtilEnum.IPUTILS_ARPING), anyString(), anyString(),
                 anyObject(), anyInt());
-        doReturn(true).when(networkUtils).servicePing(anyString(), anyInt(), anyInt());
+        doReturn(CompletableFuture.completedFuture(true)).when(detectionScheduler).servicePing(anyObject(), anyInt(),
+                anyInt());
 
         assertTrue(subject.performPresenceDetection(false));
         subject.waitForPresenceDetection();
@@ -123,7 +133,7 @@ public class PresenceDetectionTest {
         verify(subject, times(0)).performJavaPing();
         verify(subject).performSystemPing();
         verify(subject).performARPping(anyObject());
-        verify(subject).performServicePing(anyInt());
+        verify(subject).performServicePing(anyInt(), anyLong());
 
         verify(listener, times(3)).partialDetectionResult(anyObject());
         ArgumentCaptor<PresenceDetectionValue> capture = ArgumentCaptor.forClass(PresenceDetectionValue.class);
@@ -132,30 +142,102 @@ public class PresenceDetectionTest {
         assertThat(capture.getValue().getSuccessfulDetectionTypes(), is("ARP_PING, ICMP_PING, TCP_CONNECTION"));
     }
 
+    @Test
+    public void timeoutFinishesDetectionTest() {
+        doNothing().when(subject).performARPping(anyObject());
+        doNothing().when(subject).performSystemPing();
+        // The TCP connection attempt never finishes
+        CompletableFuture<Boolean> servicePingResult = new CompletableFuture<>();
+        doReturn(servicePingResult).when(detectionScheduler).servicePing(anyObject(), anyInt(), anyInt());
+
+        assertTrue(subject.performPresenceDetection(false));
+
+        verify(listener, timeout(2000).times(1)).finalDetectionResult(anyObject());
+        assertFalse(subject.isDetectionInProgress());
+        assertTrue(servicePingResult.isCancelled());
+
+        // A new detection can be started after the timeout
+        subject.cache.invalidateValue();
+        assertTrue(subject.performPresenceDetection(false));
+    }
+
+    @Test
+    public void abortedDetectionEndsCacheRefreshTest() {
+        doNothing().when(subject).performARPping(anyObject());
+        doNothing().when(subject).performSystemPing();
+        doReturn(new CompletableFuture<Boolean>()).when(detectionScheduler).servicePing(anyObject(), anyInt(),
+                anyInt());
+        doReturn(executorService).when(detectionScheduler).getExecutor();
+
+        CompletableFuture<PresenceDetectionValue> value = subject.cache.getValue();
+        assertTrue(subject.isDetectionInProgress());
+        assertTrue(subject.cache.isRefreshing());
+
+        subject.stopAutomaticRefresh();
+        assertTrue(value.isCompletedExceptionally());
+        assertFalse(subject.cache.isRefreshing());
+    }
+
+    @Test
+    public void impossibleDetectionEndsCacheRefreshTest() {
+        subject.setServicePorts(Collections.emptySet());
+        subject.setUseArpPing(false, "arping");
+        subject.setUseIcmpPing(null);
+
+        CompletableFuture<PresenceDetectionValue> value = subject.cache.getValue();
+        assertFalse(subject.isDetectionInProgress());
+        assertTrue(value.isCompletedExceptionally());
+        assertFalse(subject.cache.isRefreshing());
+    }
+
+    @Test
+    public void stopAutomaticRefreshCancelsChecksTest() {
+        doNothing().when(subject).performARPping(anyObject());
+        doNothing().when(subject).performSystemPing();
+        CompletableFuture<Boolean> servicePingResult = new CompletableFuture<>();
+        doReturn(servicePingResult).when(detectionScheduler).servicePing(anyObject(), anyInt(), anyInt());
+        doReturn(executorService).when(detectionScheduler).getExecutor();
+
+        assertTrue(subject.performPresenceDetection(false));
+        subject.stopAutomaticRefresh();
+
+        assertFalse(subject.isDetectionInProgress());
+        assertTrue(servicePingResult.isCancelled());
+        verify(listener, times(0)).finalDetectionResult(anyObject());
+    }
+
+    @Test
+    public void stopAutomaticRefreshReleasesSchedulerTest() {
+        subject.stopAutomaticRefresh();
+        assertNull(subject.detectionScheduler);
+    }
+
     @Test
     public void cacheTest() throws InterruptedException, IOException {
         doReturn(true).when(networkUtils).nativePing(eq(IpPingMethodEnum.WINDOWS_PING), anyString(), anyInt());
         doReturn(true).when(networkUtils).nativeARPPing(eq(ArpPingUtilEnum.IPUTILS_ARPING), anyString(), anyString(),
                 anyObject(), anyInt());
-        doReturn(true).when(networkUtils).servicePing(anyString(), anyInt(), anyInt());
+        CompletableFuture<Boolean> servicePingResult = new CompletableFuture<>();
+        doReturn(servicePingResult).when(detectionScheduler).servicePing(anyObject(), anyInt(), anyInt());
 
-        doReturn(executorService).when(subject).getThreadsFor(anyInt());
+        doReturn(executorService).when(detectionScheduler).getExecutor();
 
         // We expect no valid value
         assertTrue(subject.cache.isExpired());
         // Get value will issue a PresenceDetection internally.
         subject.getValue(callback);
         verify(subject).performPresenceDetection(eq(false));
-        assertNotNull(subject.executorService);
+        assertTrue(subject.isDetectionInProgress());
         // There should be no straight callback yet
         verify(callback, times(0)).accept(anyObject());
 
-        // Perform the different presence detection threads now
+        // Perform the different presence detection checks now
         ArgumentCaptor<Runnable> capture = ArgumentCaptor.forClass(Runnable.class);
-        verify(executorService, times(3)).execute(capture.capture());
+        verify(executorService, times(2)).submit(capture.capture());
         for (Runnable r : capture.getAllValues()) {
             r.run();
         }
+        servicePingResult.complete(true);
         // "Wait" for the presence detection to finish
         subject.waitForPresenceDetection();
 
@@ -13,7 +13,11 @@ import static org.mockito.Matchers.anyObject;
 import static org.mockito.Mockito.*;
 import static org.mockito.MockitoAnnotations.initMocks;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
 
 import org.eclipse.smarthome.config.discovery.DiscoveryListener;
 import org.eclipse.smarthome.config.discovery.DiscoveryResult;
@@ -24,6 +28,9 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.openhab.binding.network.NetworkBindingConstants;
 import org.openhab.binding.network.internal.PresenceDetectionValue;
+import org.openhab.binding.network.internal.utils.NetworkUtils;
+
+import com.google.common.collect.Sets;
 
 /**
  * Tests cases for {@see PresenceDetectionValue}
@@ -83,4 +90,24 @@ public class DiscoveryTest {
         Assert.assertThat(dresult.getProperties().get(NetworkBindingConstants.PARAMETER_HOSTNAME), is(ip));
         Assert.assertThat(dresult.getProperties().get(NetworkBindingConstants.PARAMETER_PORT), is(1010));
     }
+
+    @Test
+    public void lazyNetworkIPs() {
+        NetworkUtils networkUtils = new NetworkUtils();
+        // The same network twice, a small network and an IPv6 network
+        Set<String> interfaceIPs = Sets.newHashSet("192.168.1.10/24", "192.168.1.20/24", "10.0.0.1/30", "fe80::1/64");
+
+        List<String> lazyIPs = new ArrayList<>();
+        for (Iterator<String> it = networkUtils.iterateNetworkIPs(interfaceIPs, 0); it.hasNext();) {
+            lazyIPs.add(it.next());
+        }
+        Set<String> materializedIPs = networkUtils.getNetworkIPs(interfaceIPs, 0);
+
+        Assert.assertThat(lazyIPs.size(), is(254 + 2));
+        Assert.assertThat(Sets.newHashSet(lazyIPs), is(materializedIPs));
+        Assert.assertThat(networkUtils.countNetworkIPs(interfaceIPs, 0), is(lazyIPs.size()));
+        Assert.assertThat(networkUtils.countNetworkIPs(interfaceIPs, 100), is(100 + 2));
+        Assert.assertTrue(lazyIPs.contains("192.168.1.254"));
+        Assert.assertTrue(lazyIPs.contains("10.0.0.2"));
+    }
 }
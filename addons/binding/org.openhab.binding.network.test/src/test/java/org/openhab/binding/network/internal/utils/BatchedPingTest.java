@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.network.internal.utils;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang.SystemUtils;
+import org.junit.Assume;
+import org.junit.Test;
+
+/**
+ * Tests cases for {@see BatchedPing}
+ *
+ * @author agent - Initial contribution
+ */
+public class BatchedPingTest {
+    @Test
+    public void parseOutputLines() {
+        assertThat(BatchedPing.parseHost("192.168.0.1 is alive (0.52 ms)"), is("192.168.0.1"));
+        assertTrue(BatchedPing.isAlive("192.168.0.1 is alive (0.52 ms)"));
+        assertThat(BatchedPing.parseHost("fe80::1 is unreachable"), is("fe80::1"));
+        assertFalse(BatchedPing.isAlive("fe80::1 is unreachable"));
+        assertNull(BatchedPing.parseHost("ICMP Host Unreachable from 192.168.0.1 for ICMP Echo sent to 192.168.0.2"));
+    }
+
+    @Test
+    public void manyDestinationsOneProcess() throws Exception {
+        Assume.assumeTrue(SystemUtils.IS_OS_UNIX);
+
+        // A fake fping, that reports every odd last octet as alive
+        File fakeFping = File.createTempFile("fping", ".sh");
+        fakeFping.deleteOnExit();
+        Files.write(fakeFping.toPath(), ("#!/bin/sh\nshift 4\nfor h in \"$@\"; do\n"
+                + "  case $h in *1|*3|*5|*7|*9) echo \"$h is alive (0.1 ms)\";; *) echo \"$h is unreachable\";; esac\n"
+                + "done\n").getBytes(StandardCharsets.US_ASCII));
+        if (!fakeFping.setExecutable(true)) {
+            throw new IOException("Could not make the fake fping executable");
+        }
+
+        BatchedPing subject = new BatchedPing(fakeFping.getAbsolutePath());
+        try {
+            List<CompletableFuture<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 100; ++i) {
+                results.add(subject.ping("10.0.0." + i, 500));
+            }
+            // A second request for the same destination shares the probe
+            CompletableFuture<Boolean> duplicate = subject.ping("10.0.0.1", 500);
+
+            for (int i = 0; i < 100; ++i) {
+                assertThat(results.get(i).get(5, TimeUnit.SECONDS), is(i % 2 == 1));
+            }
+            assertTrue(duplicate.get(5, TimeUnit.SECONDS));
+            assertThat(subject.getProbesSent(), is(100L));
+            assertThat(subject.getProcessesStarted(), is(1L));
+        } finally {
+            subject.close();
+        }
+    }
+
+    @Test
+    public void closeStopsRunningFping() throws Exception {
+        Assume.assumeTrue(SystemUtils.IS_OS_UNIX);
+
+        // A fake fping, that never answers
+        File fakeFping = File.createTempFile("fping", ".sh");
+        fakeFping.deleteOnExit();
+        Files.write(fakeFping.toPath(), "#!/bin/sh\nexec sleep 60\n".getBytes(StandardCharsets.US_ASCII));
+        if (!fakeFping.setExecutable(true)) {
+            throw new IOException("Could not make the fake fping executable");
+        }
+
+        BatchedPing subject = new BatchedPing(fakeFping.getAbsolutePath());
+        CompletableFuture<Boolean> result = subject.ping("10.0.0.1", 500);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (subject.getProcessesStarted() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(200);
+
+        subject.close();
+        assertFalse(result.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void pingAfterCloseFails() {
+        BatchedPing subject = new BatchedPing("fping");
+        subject.close();
+
+        CompletableFuture<Boolean> result = subject.ping("10.0.0.1", 500);
+        assertTrue(result.isCompletedExceptionally());
+    }
+}
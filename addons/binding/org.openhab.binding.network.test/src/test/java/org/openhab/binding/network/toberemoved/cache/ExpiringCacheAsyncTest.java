@@ -9,8 +9,12 @@
 package org.openhab.binding.network.toberemoved.cache;
 
 import static org.junit.Assert.*;
+import static org.mockito.Matchers.anyObject;
 import static org.mockito.Mockito.*;
 
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 import org.junit.Test;
@@ -93,4 +97,110 @@ public class ExpiringCacheAsyncTest {
         assertTrue(t.isExpired());
         assertEquals(10.0, t.getExpiredValue(), 0);
     }
+
+    @Test
+    public void testCoalescing() {
+        ExpiringCacheUpdate u = mock(ExpiringCacheUpdate.class);
+        ExpiringCacheAsync<Double> t = new ExpiringCacheAsync<Double>(2000, u);
+        Consumer<Double> consumer = mock(Consumer.class);
+
+        // A burst of requests results in one update request
+        for (int i = 0; i < 10; ++i) {
+            t.getValue(consumer);
+        }
+        CompletableFuture<Double> future = t.getValue();
+        verify(u, times(1)).requestCacheUpdate();
+        assertTrue(t.isRefreshing());
+        assertFalse(future.isDone());
+
+        // All requests get the value
+        t.setValue(10.0);
+        verify(consumer, times(10)).accept(10.0);
+        assertEquals(10.0, future.getNow(0.0), 0);
+        assertFalse(t.isRefreshing());
+        assertEquals(11, t.getMissCount());
+        assertEquals(10, t.getCoalescedCount());
+        assertEquals(1, t.getRefreshCount());
+
+        // A valid value is a hit
+        t.getValue(consumer);
+        assertEquals(1, t.getHitCount());
+    }
+
+    @Test
+    public void testStaleWhileRevalidate() {
+        ExpiringCacheUpdate u = mock(ExpiringCacheUpdate.class);
+        ExpiringCacheAsync<Double> t = spy(new ExpiringCacheAsync<Double>(100, u));
+        t.setStaleWhileRevalidate(1000);
+        when(t.getCurrentNanoTime()).thenReturn(TimeUnit.MILLISECONDS.toNanos(1000));
+        t.setValue(10.0);
+
+        // Expired, but within the stale-while-revalidate duration
+        when(t.getCurrentNanoTime()).thenReturn(TimeUnit.MILLISECONDS.toNanos(1200));
+        Consumer<Double> consumer = mock(Consumer.class);
+        t.getValue(consumer);
+        t.getValue(consumer);
+        // The stale value is returned immediately and one update is requested
+        verify(consumer, times(2)).accept(10.0);
+        verify(u, times(1)).requestCacheUpdate();
+        assertEquals(2, t.getStaleHitCount());
+
+        // An invalidated value is never served
+        t.invalidateValue();
+        t.getValue(consumer);
+        verify(consumer, times(2)).accept(anyObject());
+    }
+
+    @Test
+    public void testFailingUpdater() {
+        ExpiringCacheUpdate u = mock(ExpiringCacheUpdate.class);
+        doThrow(new IllegalStateException("fetch failed")).when(u).requestCacheUpdate();
+        ExpiringCacheAsync<Double> t = new ExpiringCacheAsync<Double>(2000, u);
+        Consumer<Double> consumer = mock(Consumer.class);
+
+        CompletableFuture<Double> future = t.getValue();
+        t.getValue(consumer);
+        // The failed refresh is not kept in progress, the next request fetches again
+        assertTrue(future.isCompletedExceptionally());
+        assertFalse(t.isRefreshing());
+        verify(u, times(2)).requestCacheUpdate();
+        verify(consumer, times(0)).accept(anyObject());
+    }
+
+    @Test
+    public void testAbortedRefresh() {
+        ExpiringCacheUpdate u = mock(ExpiringCacheUpdate.class);
+        ExpiringCacheAsync<Double> t = new ExpiringCacheAsync<Double>(2000, u);
+        Consumer<Double> consumer = mock(Consumer.class);
+
+        CompletableFuture<Double> future = t.getValue();
+        t.getValue(consumer);
+        assertTrue(t.isRefreshing());
+        t.refreshFailed(new CancellationException());
+        assertTrue(future.isCompletedExceptionally());
+        assertFalse(t.isRefreshing());
+        verify(consumer, times(0)).accept(anyObject());
+
+        // A request after the abort starts a new refresh
+        future = t.getValue();
+        verify(u, times(2)).requestCacheUpdate();
+        assertTrue(t.isRefreshing());
+        t.setValue(10.0);
+        assertEquals(10.0, future.getNow(0.0), 0);
+    }
+
+    @Test
+    public void testFailedRefreshWithValidValue() {
+        ExpiringCacheUpdate u = mock(ExpiringCacheUpdate.class);
+        ExpiringCacheAsync<Double> t = spy(new ExpiringCacheAsync<Double>(100, u));
+        when(t.getCurrentNanoTime()).thenReturn(TimeUnit.MILLISECONDS.toNanos(1000));
+        CompletableFuture<Double> future = t.getValue();
+
+        // The value became valid while the refresh was in progress
+        t.value = 10.0;
+        t.expiresAt = TimeUnit.MILLISECONDS.toNanos(1100);
+        t.refreshFailed(new CancellationException());
+        assertEquals(10.0, future.getNow(0.0), 0);
+        assertFalse(t.isRefreshing());
+    }
 }
@@ -11,6 +11,7 @@ package org.openhab.binding.network.internal;
 import java.math.BigDecimal;
 
 import org.eclipse.jdt.annotation.NonNull;
+import org.openhab.binding.network.internal.discovery.NetworkDiscoveryService;
 
 /**
  * Contains the binding configuration and default values. The field names represent the configuration names,
@@ -20,14 +21,22 @@ import org.eclipse.jdt.annotation.NonNull;
  */
 public class NetworkBindingConfiguration {
     public Boolean allowSystemPings = true;
+    public Boolean useBatchedPing = false;
     public Boolean allowDHCPlisten = true;
     public BigDecimal cacheDeviceStateTimeInMS = BigDecimal.valueOf(2000);
     public String arpPingToolPath = "arping";
+    public BigDecimal maxConcurrentProbes = BigDecimal
+            .valueOf(PresenceDetectionScheduler.DEFAULT_MAX_CONCURRENT_PROBES);
+    public BigDecimal maxDiscoveryIPsPerInterface = BigDecimal
+            .valueOf(NetworkDiscoveryService.DEFAULT_MAXIMUM_IPS_PER_INTERFACE);
 
     public void update(@NonNull NetworkBindingConfiguration newConfiguration) {
         this.allowSystemPings = newConfiguration.allowSystemPings;
+        this.useBatchedPing = newConfiguration.useBatchedPing;
         this.allowDHCPlisten = newConfiguration.allowDHCPlisten;
         this.cacheDeviceStateTimeInMS = newConfiguration.cacheDeviceStateTimeInMS;
         this.arpPingToolPath = newConfiguration.arpPingToolPath;
+        this.maxConcurrentProbes = newConfiguration.maxConcurrentProbes;
+        this.maxDiscoveryIPsPerInterface = newConfiguration.maxDiscoveryIPsPerInterface;
     }
 }
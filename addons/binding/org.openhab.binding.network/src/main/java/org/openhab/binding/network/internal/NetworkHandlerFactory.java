@@ -46,6 +46,7 @@ public class NetworkHandlerFactory extends BaseThingHandlerFactory {
     @Deactivate
     protected void deactivate() {
         super.deactivate(null);
+        PresenceDetectionScheduler.shutdownInstance();
     }
 
     @Modified
@@ -54,6 +55,7 @@ public class NetworkHandlerFactory extends BaseThingHandlerFactory {
         // configuration, the values are automatically available in all handlers. Because they all
         // share the same instance.
         configuration.update(new Configuration(config).as(NetworkBindingConfiguration.class));
+        PresenceDetectionScheduler.getInstance().setMaxConcurrentProbes(configuration.maxConcurrentProbes.intValue());
     }
 
     @Override
@@ -14,9 +14,13 @@ import java.net.InetAddress;
 import java.net.SocketException;
 import java.net.UnknownHostException;
 import java.util.HashSet;
+import java.util.Queue;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -45,6 +49,7 @@ public class PresenceDetection implements IPRequestReceivedCallback {
 
     /// Configuration variables
     private boolean useDHCPsniffing = false;
+    private boolean useBatchedPing = false;
     private ArpPingUtilEnum arpPingMethod = null;
     private String arpPingUtilPath = "arping";
     private IpPingMethodEnum pingMethod = null;
@@ -62,7 +67,12 @@ public class PresenceDetection implements IPRequestReceivedCallback {
     private final PresenceDetectionListener updateListener;
     private ScheduledFuture<?> refreshJob;
     private InetAddress destination;
-    ExecutorService executorService;
+    // The shared scheduler, released when the automatic refresh is stopped
+    volatile PresenceDetectionScheduler detectionScheduler;
+    private final Queue<Future<?>> pendingChecks = new ConcurrentLinkedQueue<>();
+    private volatile CountDownLatch detectionFinished;
+    private ScheduledFuture<?> detectionTimeout;
+    private volatile long detectionRun = 0;
     private String dhcpState = "off";
     Integer currentCheck = 0;
     int detectionChecks;
@@ -71,10 +81,20 @@ public class PresenceDetection implements IPRequestReceivedCallback {
             throws IllegalArgumentException {
         this.updateListener = updateListener;
         cache = new ExpiringCacheAsync<PresenceDetectionValue>(cacheDeviceStateTimeInMS, () -> {
-            performPresenceDetection(false);
+            requestCacheUpdate();
         });
     }
 
+    /**
+     * Called by the cache if a new value is needed. Starts a presence detection or joins the one in progress.
+     * If neither is possible, the refresh of the cache is failed, so that the waiting requests are not kept forever.
+     */
+    void requestCacheUpdate() {
+        if (!performPresenceDetection(false) && !isDetectionInProgress()) {
+            cache.refreshFailed(new IllegalStateException("No presence detection possible for " + hostname));
+        }
+    }
+
     public String getHostname() {
         return hostname;
     }
@@ -111,8 +131,21 @@ public class PresenceDetection implements IPRequestReceivedCallback {
         this.useDHCPsniffing = enable;
     }
 
+    /**
+     * Allows to use fping, which performs the pings of many things with one process. Has to be set before
+     * {@link #setUseIcmpPing(Boolean)}.
+     */
+    public void setUseBatchedPing(boolean enable) {
+        this.useBatchedPing = enable;
+    }
+
+    /**
+     * Sets the refresh interval. Until the next automatic refresh, an expired presence detection value
+     * is still returned immediately while a new presence detection is performed.
+     */
     public void setRefreshInterval(long refreshInterval) {
         this.refreshIntervalInMS = refreshInterval;
+        cache.setStaleWhileRevalidate(refreshInterval);
     }
 
     public void setTimeout(int timeout) {
@@ -130,7 +163,7 @@ public class PresenceDetection implements IPRequestReceivedCallback {
         if (useSystemPing == null) {
             pingMethod = null;
         } else if (useSystemPing) {
-            pingMethod = networkUtils.determinePingMethod();
+            pingMethod = networkUtils.determinePingMethod(useBatchedPing);
         } else {
             pingMethod = IpPingMethodEnum.JAVA_PING;
         }
@@ -156,6 +189,32 @@ public class PresenceDetection implements IPRequestReceivedCallback {
         arpPingMethod = networkUtils.determineNativeARPpingMethod(arpPingUtilPath);
     }
 
+    /**
+     * Sets an already determined ping method. In contrast to {@link #setUseIcmpPing(Boolean)}, no feature
+     * test is performed. Useful if many presence detections are configured at once.
+     *
+     * @param pingMethod The ping method or null to disable ICMP pings.
+     */
+    public void setPingMethod(IpPingMethodEnum pingMethod) {
+        this.pingMethod = pingMethod;
+    }
+
+    /**
+     * Sets an already determined ARP ping method. In contrast to {@link #setUseArpPing(boolean, String)}, no feature
+     * test is performed. ARP pings are disabled if the destination is not an IPv4 address.
+     *
+     * @param arpPingMethod The ARP ping method or null to disable ARP pings.
+     * @param arpPingUtilPath The file path to the utility
+     */
+    public void setArpPingMethod(ArpPingUtilEnum arpPingMethod, String arpPingUtilPath) {
+        this.arpPingUtilPath = arpPingUtilPath;
+        if (destination == null || !(destination instanceof Inet4Address)) {
+            this.arpPingMethod = null;
+        } else {
+            this.arpPingMethod = arpPingMethod;
+        }
+    }
+
     public ArpPingUtilEnum arpPingMethod() {
         return arpPingMethod;
     }
@@ -193,23 +252,21 @@ public class PresenceDetection implements IPRequestReceivedCallback {
 
     /**
      * Return asynchronously the value of the presence detection as a PresenceDetectionValue.
+     * Concurrent requests share one presence detection.
      *
      * @param callback A callback with the PresenceDetectionValue. The callback may
-     *            not happen immediately if the cached value expired, but as soon as a new
-     *            discovery took place.
+     *            not happen immediately if the cached value expired for longer than the refresh
+     *            interval, but as soon as a new discovery took place.
      */
     public void getValue(Consumer<PresenceDetectionValue> callback) {
         cache.getValue(callback);
     }
 
-    public ExecutorService getThreadsFor(int threadCount) {
-        return Executors.newFixedThreadPool(threadCount);
-    }
-
     /**
      * Perform a presence detection with ICMP-, ARP ping and
-     * TCP connection attempts simultaneously. A fixed thread pool will be created with as many
-     * thread as necessary to perform all tests at once.
+     * TCP connection attempts simultaneously. All checks are handed over to the binding wide
+     * {@link PresenceDetectionScheduler}: TCP connection attempts are performed non-blocking,
+     * all other checks are queued for the bounded thread pool of the scheduler.
      *
      * This is a NO-OP, if there is already an ongoing detection or if the cached value
      * is not expired yet.
@@ -223,64 +280,62 @@ public class PresenceDetection implements IPRequestReceivedCallback {
      * @return Return true if a presence detection is performed and false otherwise.
      */
     public boolean performPresenceDetection(boolean waitForDetectionToFinish) {
-        if (executorService != null) {
-            logger.debug(
-                    "There is already an ongoing presence discovery for {} and a new one was issued by the scheduler! TCP Port {}",
-                    hostname, tcpPorts);
-            return false;
-        }
+        Set<String> interfaceNames = null;
+        final long run;
+
+        synchronized (this) {
+            if (detectionFinished != null) {
+                logger.debug(
+                        "There is already an ongoing presence discovery for {} and a new one was issued by the scheduler! TCP Port {}",
+                        hostname, tcpPorts);
+                return false;
+            }
 
-        if (!cache.isExpired()) {
-            return false;
-        }
+            if (!cache.isExpired()) {
+                return false;
+            }
 
-        Set<String> interfaceNames = null;
+            currentCheck = 0;
+            detectionChecks = tcpPorts.size();
+            if (pingMethod != null) {
+                detectionChecks += 1;
+            }
+            if (arpPingMethod != null) {
+                interfaceNames = networkUtils.getInterfaceNames();
+                detectionChecks += interfaceNames.size();
+            }
 
-        currentCheck = 0;
-        detectionChecks = tcpPorts.size();
-        if (pingMethod != null) {
-            detectionChecks += 1;
-        }
-        if (arpPingMethod != null) {
-            interfaceNames = networkUtils.getInterfaceNames();
-            detectionChecks += interfaceNames.size();
-        }
+            if (detectionChecks == 0) {
+                return false;
+            }
 
-        if (detectionChecks == 0) {
-            return false;
+            detectionFinished = new CountDownLatch(1);
+            run = ++detectionRun;
+            // Finish the detection even if a check hangs or is still queued
+            detectionTimeout = getDetectionScheduler().schedule(() -> detectionTimedOut(run), timeoutInMS + 100);
         }
 
-        executorService = getThreadsFor(detectionChecks);
-
         for (Integer tcpPort : tcpPorts) {
-            executorService.execute(() -> {
-                Thread.currentThread().setName("presenceDetectionTCP_" + hostname + " " + String.valueOf(tcpPort));
-                performServicePing(tcpPort);
-                checkIfFinished();
-            });
+            performServicePing(tcpPort, run);
         }
 
-        // ARP ping for IPv4 addresses. Use an own executor for each network interface
+        // ARP ping for IPv4 addresses. Perform an own check for each network interface
         if (interfaceNames != null) {
             for (final String interfaceName : interfaceNames) {
-                executorService.execute(() -> {
-                    Thread.currentThread().setName("presenceDetectionARP_" + hostname + " " + interfaceName);
-                    performARPping(interfaceName);
-                    checkIfFinished();
-                });
+                submitCheck(run, () -> performARPping(interfaceName));
             }
         }
 
         // ICMP ping
-        if (pingMethod != null) {
-            executorService.execute(() -> {
+        if (pingMethod == IpPingMethodEnum.BATCHED_FPING) {
+            performBatchedPing(run);
+        } else if (pingMethod != null) {
+            submitCheck(run, () -> {
                 if (pingMethod != IpPingMethodEnum.JAVA_PING) {
-                    Thread.currentThread().setName("presenceDetectionICMP_" + hostname);
                     performSystemPing();
                 } else {
                     performJavaPing();
                 }
-                checkIfFinished();
             });
         }
 
@@ -291,21 +346,43 @@ public class PresenceDetection implements IPRequestReceivedCallback {
         return true;
     }
 
+    /**
+     * Return the shared scheduler. A scheduler released by {@link #stopAutomaticRefresh()} is replaced by the current
+     * instance, which is a new one if the binding was restarted in the meantime.
+     */
+    private PresenceDetectionScheduler getDetectionScheduler() {
+        PresenceDetectionScheduler scheduler = detectionScheduler;
+        if (scheduler == null) {
+            scheduler = PresenceDetectionScheduler.getInstance();
+            detectionScheduler = scheduler;
+        }
+        return scheduler;
+    }
+
+    /**
+     * Queue a blocking check on the shared scheduler. The check counts as finished, as soon as it returns.
+     */
+    private void submitCheck(long run, Runnable check) {
+        Future<?> future = getDetectionScheduler().submit(() -> {
+            check.run();
+            checkIfFinished(run);
+        });
+        if (future != null) {
+            pendingChecks.add(future);
+        }
+    }
+
     /**
      * Calls updateListener.finalDetectionResult() with a final result value.
      * Safe to be called from different threads. After a call to this method,
-     * the presence detection process is finished and all threads are forcefully
-     * shut down.
+     * the presence detection process is finished and all checks that are still
+     * queued or running are cancelled.
      */
     private synchronized void submitFinalResult() {
         // Do nothing if we are not in a detection process
-        if (executorService == null) {
+        if (!finishDetection()) {
             return;
         }
-        // Finish the detection process
-        executorService.shutdownNow();
-        executorService = null;
-        detectionChecks = 0;
 
         PresenceDetectionValue v;
 
@@ -319,42 +396,112 @@ public class PresenceDetection implements IPRequestReceivedCallback {
             v = cache.getExpiredValue();
         }
         cache.setValue(v);
+        logger.debug("Presence detection for {} finished. Cache: {}. Scheduler: {}", hostname, cache,
+                detectionScheduler);
         updateListener.finalDetectionResult(v);
     }
 
+    /**
+     * Ends the current detection process without submitting a result. The detection is marked as finished
+     * before the pending checks are cancelled: Cancelling a check completes it on this thread and the
+     * completion callbacks must see the finished detection.
+     *
+     * @return Return true if a detection was in progress.
+     */
+    private synchronized boolean finishDetection() {
+        CountDownLatch finished = detectionFinished;
+        if (finished == null) {
+            return false;
+        }
+        detectionFinished = null;
+        detectionChecks = 0;
+        if (detectionTimeout != null) {
+            detectionTimeout.cancel(false);
+            detectionTimeout = null;
+        }
+        cancelPendingChecks();
+        finished.countDown();
+        return true;
+    }
+
+    /**
+     * Ends the current detection process without a result. Requests waiting for the value of the
+     * cache are completed with a {@link CancellationException}.
+     */
+    private void abortDetection() {
+        if (finishDetection()) {
+            cache.refreshFailed(new CancellationException("Presence detection for " + hostname + " aborted"));
+        }
+    }
+
+    private void cancelPendingChecks() {
+        Future<?> future;
+        while ((future = pendingChecks.poll()) != null) {
+            future.cancel(true);
+        }
+    }
+
+    /**
+     * Called by the timeout task of a detection run. Submits the final result, if the run is still in progress.
+     *
+     * @param run The detection run the timeout belongs to
+     */
+    private synchronized void detectionTimedOut(long run) {
+        if (run != detectionRun || detectionFinished == null) {
+            return;
+        }
+        logger.debug("Presence detection for {} timed out. Scheduler: {}", hostname, detectionScheduler);
+        submitFinalResult();
+    }
+
     /**
      * This method is called after each individual check and increases a check counter.
      * If the counter equals the total checks,the final result is submitted. This will
      * happen way before the "timeoutInMS", if all checks were successful.
+     * Checks of an already finished detection run are ignored.
      * Thread safe.
+     *
+     * @param run The detection run the check belongs to
      */
-    private synchronized void checkIfFinished() {
+    private synchronized void checkIfFinished(long run) {
+        if (run != detectionRun || detectionFinished == null) {
+            return;
+        }
         currentCheck += 1;
         if (currentCheck < detectionChecks) {
             return;
         }
+        // All checks are done, there is nothing left to cancel
+        pendingChecks.clear();
         submitFinalResult();
     }
 
     /**
-     * Waits for the presence detection threads to finish. Returns immediately
+     * Waits for the presence detection checks to finish. Returns immediately
      * if no presence detection is performed right now.
      */
     public void waitForPresenceDetection() {
-        if (executorService == null) {
+        CountDownLatch finished = detectionFinished;
+        if (finished == null) {
             return;
         }
         try {
             // We may get interrupted here by cancelRefreshJob().
-            executorService.awaitTermination(timeoutInMS + 100, TimeUnit.MILLISECONDS);
+            finished.await(timeoutInMS + 100, TimeUnit.MILLISECONDS);
             submitFinalResult();
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt(); // Reset interrupt flag
-            executorService.shutdownNow();
-            executorService = null;
+            abortDetection();
         }
     }
 
+    /**
+     * Return true if a presence detection is performed right now.
+     */
+    public boolean isDetectionInProgress() {
+        return detectionFinished != null;
+    }
+
     /**
      * If the cached PresenceDetectionValue has not expired yet, the cached version
      * is returned otherwise a new reachable PresenceDetectionValue is created with
@@ -380,20 +527,30 @@ public class PresenceDetection implements IPRequestReceivedCallback {
         return v;
     }
 
-    protected void performServicePing(int tcpPort) {
-        logger.trace("Perform TCP presence detection for {} on port", hostname, tcpPorts);
-        try {
-            double pingTime = System.nanoTime();
-            if (networkUtils.servicePing(destination.getHostAddress(), tcpPort, timeoutInMS)) {
+    /**
+     * Performs a non-blocking TCP connection attempt on the given port.
+     * The check counts as finished, as soon as the connection attempt succeeded, failed or timed out.
+     *
+     * @param tcpPort The TCP port
+     * @param run The detection run the check belongs to
+     */
+    protected void performServicePing(int tcpPort, long run) {
+        logger.trace("Perform TCP presence detection for {} on port {}", hostname, tcpPort);
+        final double pingTime = System.nanoTime();
+        CompletableFuture<Boolean> result = getDetectionScheduler().servicePing(destination, tcpPort, timeoutInMS);
+        pendingChecks.add(result);
+        result.whenComplete((reachable, e) -> {
+            if (e instanceof IOException) {
+                // This should not happen and might be a user configuration issue, we log a warning message therefore.
+                logger.warn("Could not create a socket connection", e);
+            } else if (e == null && reachable) {
                 final double latency = Math.round((System.nanoTime() - pingTime) / 1000000.0f);
                 PresenceDetectionValue v = updateReachableValue(PresenceDetectionType.TCP_CONNECTION, latency);
                 v.addReachableTcpService(tcpPort);
                 updateListener.partialDetectionResult(v);
             }
-        } catch (IOException e) {
-            // This should not happen and might be a user configuration issue, we log a warning message therefore.
-            logger.warn("Could not create a socket connection", e);
-        }
+            checkIfFinished(run);
+        });
     }
 
     /**
@@ -445,6 +602,29 @@ public class PresenceDetection implements IPRequestReceivedCallback {
         }
     }
 
+    /**
+     * Performs an ICMP ping with the fping utility. The ping is batched with the pings of other
+     * presence detections and does not block a thread.
+     *
+     * @param run The detection run the check belongs to
+     */
+    protected void performBatchedPing(long run) {
+        logger.trace("Perform batched ping presence detection for {}", hostname);
+        final double pingTime = System.nanoTime();
+        CompletableFuture<Boolean> result = getDetectionScheduler().batchedPing(destination, timeoutInMS);
+        pendingChecks.add(result);
+        result.whenComplete((reachable, e) -> {
+            if (e != null) {
+                logger.trace("Failed to execute a batched ping for ip {}", hostname, e);
+            } else if (reachable) {
+                final double latency = Math.round((System.nanoTime() - pingTime) / 1000000.0f);
+                PresenceDetectionValue v = updateReachableValue(PresenceDetectionType.ICMP_PING, latency);
+                updateListener.partialDetectionResult(v);
+            }
+            checkIfFinished(run);
+        });
+    }
+
     protected void performSystemPing() {
         try {
             logger.trace("Perform native ping presence detection for {}", hostname);
@@ -476,7 +656,11 @@ public class PresenceDetection implements IPRequestReceivedCallback {
         if (refreshJob != null && !refreshJob.isDone()) {
             refreshJob.cancel(true);
         }
-        refreshJob = scheduledExecutorService.scheduleWithFixedDelay(() -> performPresenceDetection(true), 0,
+        // The binding may have shut down the scheduler that was used before
+        detectionScheduler = PresenceDetectionScheduler.getInstance();
+        // The checks are performed by the shared PresenceDetectionScheduler, we do not block a thread of the
+        // given scheduler while waiting for the result.
+        refreshJob = scheduledExecutorService.scheduleWithFixedDelay(() -> performPresenceDetection(false), 0,
                 refreshIntervalInMS, TimeUnit.MILLISECONDS);
 
         enableDHCPListen(useDHCPsniffing);
@@ -490,13 +674,16 @@ public class PresenceDetection implements IPRequestReceivedCallback {
     }
 
     /**
-     * Stop automatic refreshing.
+     * Stop automatic refreshing. A running presence detection is aborted without a final result and the shared
+     * scheduler is released, so that a shut down scheduler is not kept.
      */
     public void stopAutomaticRefresh() {
         if (refreshJob != null && !refreshJob.isDone()) {
             refreshJob.cancel(true);
             refreshJob = null;
         }
+        abortDetection();
+        detectionScheduler = null;
         enableDHCPListen(false);
     }
 
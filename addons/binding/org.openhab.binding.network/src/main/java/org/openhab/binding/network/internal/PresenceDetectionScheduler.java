@@ -0,0 +1,250 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.network.internal;
+
+import java.net.InetAddress;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
+import org.openhab.binding.network.internal.utils.BatchedPing;
+import org.openhab.binding.network.internal.utils.NonBlockingServicePing;
+
+/**
+ * A binding wide singleton that executes the individual checks of all {@link PresenceDetection} instances.
+ *
+ * TCP connection attempts are performed non-blocking by a single selector thread ({@link NonBlockingServicePing}).
+ * ICMP pings with the fping utility are batched, so that many destinations are pinged by one process
+ * ({@link BatchedPing}).
+ * All other checks (native ping and arping processes, java pings) block a thread while they are running and are
+ * executed by a shared thread pool. The size of that pool is the maximum amount of concurrent checks and
+ * can be configured, further checks are queued.
+ *
+ * The results of the non-blocking checks are handed over to the "network" pool of the {@link ThreadPoolManager},
+ * so that slow result listeners never block the selector thread or the fping reader. That pool also runs the
+ * timeouts of the presence detections.
+ *
+ * @author agent - Initial contribution
+ */
+public class PresenceDetectionScheduler {
+    public static final int DEFAULT_MAX_CONCURRENT_PROBES = 32;
+    private static final String THREADPOOL_NAME = "network";
+    private static PresenceDetectionScheduler instance;
+
+    private final ThreadPoolExecutor blockingProbes;
+    private final NonBlockingServicePing servicePing = new NonBlockingServicePing();
+    private final BatchedPing batchedPing = new BatchedPing();
+    private final ScheduledExecutorService callbackScheduler = ThreadPoolManager.getScheduledPool(THREADPOOL_NAME);
+
+    // Statistics
+    private final AtomicLong completedProbes = new AtomicLong();
+    private final AtomicLong totalProbeLatencyInNS = new AtomicLong();
+    private final AtomicLong maxProbeLatencyInNS = new AtomicLong();
+
+    /**
+     * Return the singleton instance. Creates one if necessary.
+     */
+    public static synchronized PresenceDetectionScheduler getInstance() {
+        if (instance == null) {
+            instance = new PresenceDetectionScheduler(DEFAULT_MAX_CONCURRENT_PROBES);
+        }
+        return instance;
+    }
+
+    /**
+     * Shuts down the singleton instance, if there is one. A new instance will be
+     * created on the next call to {@link #getInstance()}.
+     */
+    public static synchronized void shutdownInstance() {
+        if (instance != null) {
+            instance.shutdown();
+        }
+        instance = null;
+    }
+
+    PresenceDetectionScheduler(int maxConcurrentProbes) {
+        final AtomicInteger threadCounter = new AtomicInteger();
+        ThreadFactory threadFactory = r -> {
+            Thread thread = new Thread(r, "networkBinding-presenceDetection-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        blockingProbes = new ThreadPoolExecutor(maxConcurrentProbes, maxConcurrentProbes, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), threadFactory);
+        blockingProbes.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Change the maximum amount of concurrently executed blocking checks.
+     *
+     * @param maxConcurrentProbes The new maximum. Must be greater than 0.
+     */
+    public synchronized void setMaxConcurrentProbes(int maxConcurrentProbes) {
+        if (maxConcurrentProbes <= 0) {
+            throw new IllegalArgumentException("The maximum of concurrent probes must be greater than 0");
+        }
+        // The core pool size must never exceed the maximum pool size
+        if (maxConcurrentProbes > blockingProbes.getMaximumPoolSize()) {
+            blockingProbes.setMaximumPoolSize(maxConcurrentProbes);
+            blockingProbes.setCorePoolSize(maxConcurrentProbes);
+        } else {
+            blockingProbes.setCorePoolSize(maxConcurrentProbes);
+            blockingProbes.setMaximumPoolSize(maxConcurrentProbes);
+        }
+    }
+
+    public int getMaxConcurrentProbes() {
+        return blockingProbes.getMaximumPoolSize();
+    }
+
+    /**
+     * Return the executor for blocking checks. Used by testing for injecting.
+     */
+    ThreadPoolExecutor getExecutor() {
+        return blockingProbes;
+    }
+
+    /**
+     * Queue a blocking check. The check is executed as soon as a thread of the bounded pool is available.
+     *
+     * @param probe The check
+     * @return A future to cancel the check.
+     */
+    public Future<?> submit(Runnable probe) {
+        return getExecutor().submit(() -> {
+            final long startTime = System.nanoTime();
+            try {
+                probe.run();
+            } finally {
+                recordProbe(startTime);
+            }
+        });
+    }
+
+    /**
+     * Schedule a task, for example the timeout of a presence detection.
+     *
+     * @param task The task
+     * @param delayInMS The delay in milliseconds
+     * @return A future to cancel the task.
+     */
+    public ScheduledFuture<?> schedule(Runnable task, long delayInMS) {
+        return callbackScheduler.schedule(task, delayInMS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Perform a non-blocking TCP connection attempt. The returned future completes on a thread of the
+     * callback pool, not on the selector thread.
+     *
+     * @see NonBlockingServicePing#servicePing(InetAddress, int, int)
+     */
+    public CompletableFuture<Boolean> servicePing(InetAddress address, int port, int timeoutInMS) {
+        final long startTime = System.nanoTime();
+        return servicePing.servicePing(address, port, timeoutInMS)
+                .whenCompleteAsync((reachable, e) -> recordProbe(startTime), callbackScheduler);
+    }
+
+    /**
+     * Perform an ICMP ping with the fping utility. The ping is batched with other pings. The returned future
+     * completes on a thread of the callback pool, not on the thread reading the fping output.
+     *
+     * @see BatchedPing#ping(String, int)
+     */
+    public CompletableFuture<Boolean> batchedPing(InetAddress address, int timeoutInMS) {
+        final long startTime = System.nanoTime();
+        return batchedPing.ping(address.getHostAddress(), timeoutInMS)
+                .whenCompleteAsync((reachable, e) -> recordProbe(startTime), callbackScheduler);
+    }
+
+    private void recordProbe(long startTime) {
+        final long latency = System.nanoTime() - startTime;
+        completedProbes.incrementAndGet();
+        totalProbeLatencyInNS.addAndGet(latency);
+        maxProbeLatencyInNS.accumulateAndGet(latency, Math::max);
+    }
+
+    /**
+     * Return the amount of blocking checks that wait for a free thread.
+     */
+    public int getQueueDepth() {
+        return blockingProbes.getQueue().size();
+    }
+
+    /**
+     * Return the amount of blocking checks that are executed right now.
+     */
+    public int getActiveProbes() {
+        return blockingProbes.getActiveCount();
+    }
+
+    /**
+     * Return the amount of TCP connection attempts that are in flight right now.
+     */
+    public int getPendingServicePings() {
+        return servicePing.getPendingConnects();
+    }
+
+    /**
+     * Return the amount of fping processes that have been started for batched ICMP pings.
+     */
+    public long getPingProcessesStarted() {
+        return batchedPing.getProcessesStarted();
+    }
+
+    /**
+     * Return the amount of checks that have finished since the start.
+     */
+    public long getCompletedProbes() {
+        return completedProbes.get();
+    }
+
+    /**
+     * Return the average duration of a check in milliseconds or 0 if no check has finished yet.
+     */
+    public double getAverageProbeLatencyInMS() {
+        long count = completedProbes.get();
+        if (count == 0) {
+            return 0;
+        }
+        return TimeUnit.NANOSECONDS.toMicros(totalProbeLatencyInNS.get() / count) / 1000.0;
+    }
+
+    /**
+     * Return the longest duration of a check in milliseconds.
+     */
+    public double getMaxProbeLatencyInMS() {
+        return TimeUnit.NANOSECONDS.toMicros(maxProbeLatencyInNS.get()) / 1000.0;
+    }
+
+    /**
+     * Stops the selector thread and the thread pool. Pending checks are cancelled.
+     * The callback pool is shared and managed by the {@link ThreadPoolManager}.
+     */
+    public void shutdown() {
+        blockingProbes.shutdownNow();
+        servicePing.close();
+        batchedPing.close();
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "queued=%d, active=%d, pendingTCP=%d, fpingProcesses=%d, completed=%d, avgLatency=%.1fms, maxLatency=%.1fms",
+                getQueueDepth(), getActiveProbes(), getPendingServicePings(), getPingProcessesStarted(),
+                getCompletedProbes(), getAverageProbeLatencyInMS(), getMaxProbeLatencyInMS());
+    }
+}
@@ -1,233 +1,349 @@
-/**
- * Copyright (c) 2010-2017 by the respective copyright holders.
- *
- * All rights reserved. This program and the accompanying materials
- * are made available under the terms of the Eclipse Public License v1.0
- * which accompanies this distribution, and is available at
- * http://www.eclipse.org/legal/epl-v10.html
- */
-package org.openhab.binding.network.internal.discovery;
-
-import static org.openhab.binding.network.NetworkBindingConstants.*;
-
-import java.net.UnknownHostException;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
-
-import org.eclipse.smarthome.config.core.Configuration;
-import org.eclipse.smarthome.config.discovery.AbstractDiscoveryService;
-import org.eclipse.smarthome.config.discovery.DiscoveryResultBuilder;
-import org.eclipse.smarthome.config.discovery.DiscoveryService;
-import org.eclipse.smarthome.core.thing.ThingUID;
-import org.openhab.binding.network.internal.NetworkBindingConfiguration;
-import org.openhab.binding.network.internal.PresenceDetection;
-import org.openhab.binding.network.internal.PresenceDetectionListener;
-import org.openhab.binding.network.internal.PresenceDetectionValue;
-import org.openhab.binding.network.internal.utils.NetworkUtils;
-import org.osgi.service.component.annotations.Activate;
-import org.osgi.service.component.annotations.Component;
-import org.osgi.service.component.annotations.Deactivate;
-import org.osgi.service.component.annotations.Modified;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
-import com.google.common.collect.Sets;
-
-/**
- * The {@link NetworkDiscoveryService} is responsible for discovering devices on
- * the current Network. It uses every Network Interface which is connected to a network.
- * It tries common TCP ports to connect to, ICMP pings and ARP pings.
- *
- * @author David Graeff - Rewritten
- * @author Marc Mettke - Initial contribution
- */
-@Component(immediate = true, service = DiscoveryService.class, name = "NetworkDiscovery")
-public class NetworkDiscoveryService extends AbstractDiscoveryService implements PresenceDetectionListener {
-    static final int PING_TIMEOUT_IN_MS = 500;
-    static final int MAXIMUM_IPS_PER_INTERFACE = 255;
-    private final Logger logger = LoggerFactory.getLogger(NetworkDiscoveryService.class);
-
-    // TCP port 548 (Apple Filing Protocol (AFP))
-    // TCP port 554 (Windows share / Linux samba)
-    // TCP port 1025 (XBox / MS-RPC)
-    private Set<Integer> tcp_service_ports = Sets.newHashSet(80, 548, 554, 1025);
-    private Integer scannedIPcount;
-    private ExecutorService executorService = null;
-    private final NetworkBindingConfiguration configuration = new NetworkBindingConfiguration();
-    NetworkUtils networkUtils = new NetworkUtils();
-
-    public NetworkDiscoveryService() {
-        super(SUPPORTED_THING_TYPES_UIDS, (int) Math.round(
-                new NetworkUtils().getNetworkIPs(MAXIMUM_IPS_PER_INTERFACE).size() * (PING_TIMEOUT_IN_MS / 1000.0)),
-                false);
-    }
-
-    @Override
-    @Activate
-    public void activate(Map<String, Object> config) {
-        super.activate(config);
-        modified(config);
-    };
-
-    @Override
-    @Modified
-    protected void modified(Map<String, Object> config) {
-        super.modified(config);
-        // We update instead of replace the configuration object, so that if the user updates the
-        // configuration, the values are automatically available in all handlers. Because they all
-        // share the same instance.
-        configuration.update(new Configuration(config).as(NetworkBindingConfiguration.class));
-    }
-
-    @Override
-    @Deactivate
-    protected void deactivate() {
-        super.deactivate();
-    }
-
-    @Override
-    public void partialDetectionResult(PresenceDetectionValue value) {
-        final String ip = value.getHostAddress();
-        if (value.isPingReachable()) {
-            newPingDevice(ip);
-        } else if (value.isTCPServiceReachable()) {
-            List<Integer> tcpServices = value.getReachableTCPports();
-            for (int port : tcpServices) {
-                newServiceDevice(ip, port);
-            }
-        }
-    }
-
-    @Override
-    public void finalDetectionResult(PresenceDetectionValue value) {
-    }
-
-    /**
-     * Starts the DiscoveryThread for each IP on each interface on the network
-     */
-    @Override
-    protected void startScan() {
-        if (executorService != null) {
-            return;
-        }
-        removeOlderResults(getTimestampOfLastScan(), null);
-        logger.trace("Starting Discovery");
-
-        final Set<String> networkIPs = networkUtils.getNetworkIPs(MAXIMUM_IPS_PER_INTERFACE);
-        executorService = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 2);
-        scannedIPcount = 0;
-
-        for (String ip : networkIPs) {
-            final PresenceDetection s = new PresenceDetection(this, 2000);
-            try {
-                s.setHostname(ip);
-            } catch (UnknownHostException unknownHostException) {
-                logger.trace("Skip IP that cannot be converted to a InetAddress", unknownHostException);
-                continue;
-            }
-            s.setIOSDevice(true);
-            s.setUseDhcpSniffing(false);
-            s.setTimeout(PING_TIMEOUT_IN_MS);
-            // Ping devices
-            s.setUseIcmpPing(true);
-            s.setUseArpPing(true, configuration.arpPingToolPath);
-            // TCP devices
-            s.setServicePorts(tcp_service_ports);
-
-            executorService.execute(() -> {
-                Thread.currentThread().setName("Discovery thread " + ip);
-                s.performPresenceDetection(true);
-                synchronized (scannedIPcount) {
-                    scannedIPcount += 1;
-                    if (scannedIPcount == networkIPs.size()) {
-                        logger.trace("Scan of {} IPs successful", scannedIPcount);
-                        stopScan();
-                    }
-                }
-            });
-        }
-    }
-
-    @Override
-    protected synchronized void stopScan() {
-        super.stopScan();
-        if (executorService == null) {
-            return;
-        }
-
-        try {
-            executorService.awaitTermination(PING_TIMEOUT_IN_MS, TimeUnit.MILLISECONDS);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt(); // Reset interrupt flag
-        }
-        executorService.shutdown();
-        executorService = null;
-    }
-
-    public static ThingUID createServiceUID(String ip, int tcpPort) {
-        // uid must not contains dots
-        return new ThingUID(SERVICE_DEVICE, ip.replace('.', '_') + "_" + String.valueOf(tcpPort));
-    }
-
-    /**
-     * Submit newly discovered devices. This method is called by the spawned threads in {@link startScan}.
-     *
-     * @param ip The device IP
-     * @param tcpPort The TCP port
-     */
-    public void newServiceDevice(String ip, int tcpPort) {
-        logger.trace("Found service device at {} with port", ip, tcpPort);
-
-        String label;
-        // TCP port 548 (Apple Filing Protocol (AFP))
-        // TCP port 554 (Windows share / Linux samba)
-        // TCP port 1025 (XBox / MS-RPC)
-        switch (tcpPort) {
-            case 80:
-                label = "Device with webserver";
-                break;
-            case 548:
-                label = "Apple Device";
-                break;
-            case 554:
-                label = "Windows compatible device";
-                break;
-            case 1025:
-                label = "Xbox compatible device";
-                break;
-            default:
-                label = "Computer/Laptop";
-        }
-        label += "(" + ip + ")";
-
-        Map<String, Object> properties = new HashMap<>();
-        properties.put(PARAMETER_HOSTNAME, ip);
-        properties.put(PARAMETER_PORT, tcpPort);
-        thingDiscovered(DiscoveryResultBuilder.create(createServiceUID(ip, tcpPort)).withTTL(120)
-                .withProperties(properties).withLabel(label).build());
-    }
-
-    public static ThingUID createPingUID(String ip) {
-        // uid must not contains dots
-        return new ThingUID(PING_DEVICE, ip.replace('.', '_'));
-    }
-
-    /**
-     * Submit newly discovered devices. This method is called by the spawned threads in {@link startScan}.
-     *
-     * @param ip The device IP
-     */
-    public void newPingDevice(String ip) {
-        logger.trace("Found service device at {}", ip);
-
-        Map<String, Object> properties = new HashMap<>();
-        properties.put(PARAMETER_HOSTNAME, ip);
-        thingDiscovered(DiscoveryResultBuilder.create(createPingUID(ip)).withTTL(120).withProperties(properties)
-                .withLabel("Network Device (" + ip + ")").build());
-    }
-}
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.network.internal.discovery;
+
+import static org.openhab.binding.network.NetworkBindingConstants.*;
+
+import java.net.UnknownHostException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.smarthome.config.core.Configuration;
+import org.eclipse.smarthome.config.discovery.AbstractDiscoveryService;
+import org.eclipse.smarthome.config.discovery.DiscoveryResultBuilder;
+import org.eclipse.smarthome.config.discovery.DiscoveryService;
+import org.eclipse.smarthome.core.thing.ThingUID;
+import org.openhab.binding.network.internal.NetworkBindingConfiguration;
+import org.openhab.binding.network.internal.PresenceDetection;
+import org.openhab.binding.network.internal.PresenceDetectionListener;
+import org.openhab.binding.network.internal.PresenceDetectionValue;
+import org.openhab.binding.network.internal.utils.NetworkUtils;
+import org.openhab.binding.network.internal.utils.NetworkUtils.ArpPingUtilEnum;
+import org.openhab.binding.network.internal.utils.NetworkUtils.IpPingMethodEnum;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Modified;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.Sets;
+
+/**
+ * The {@link NetworkDiscoveryService} is responsible for discovering devices on
+ * the current Network. It uses every Network Interface which is connected to a network.
+ * It tries common TCP ports to connect to, ICMP pings and ARP pings.
+ *
+ * The network is swept as a pipeline: The IPs are computed lazily and only a window of hosts is
+ * probed at the same time. The checks itself are performed by the shared
+ * {@link org.openhab.binding.network.internal.PresenceDetectionScheduler}. The window grows as long
+ * as hosts are probed in time and shrinks if host detections take considerably longer than the
+ * ping timeout (because the checks are queued). Results are published as soon as a host answers.
+ *
+ * @author David Graeff - Rewritten
+ * @author Marc Mettke - Initial contribution
+ */
+@Component(immediate = true, service = DiscoveryService.class, name = "NetworkDiscovery")
+public class NetworkDiscoveryService extends AbstractDiscoveryService implements PresenceDetectionListener {
+    static final int PING_TIMEOUT_IN_MS = 500;
+    /// The hosts of a /16 network, larger networks are only swept partially by default
+    public static final int DEFAULT_MAXIMUM_IPS_PER_INTERFACE = 65534;
+    static final int INITIAL_WINDOW = 32;
+    static final int MINIMUM_WINDOW = 4;
+    static final int MAXIMUM_WINDOW = 256;
+    private final Logger logger = LoggerFactory.getLogger(NetworkDiscoveryService.class);
+
+    // TCP port 548 (Apple Filing Protocol (AFP))
+    // TCP port 554 (Windows share / Linux samba)
+    // TCP port 1025 (XBox / MS-RPC)
+    private Set<Integer> tcp_service_ports = Sets.newHashSet(80, 548, 554, 1025);
+    private final NetworkBindingConfiguration configuration = new NetworkBindingConfiguration();
+    NetworkUtils networkUtils = new NetworkUtils();
+
+    /// Sweep state, guarded by "this"
+    private Iterator<String> pendingIPs = null;
+    private final Map<String, Long> inFlightSince = new HashMap<>();
+    private IpPingMethodEnum pingMethod;
+    private ArpPingUtilEnum arpPingMethod;
+    int window = INITIAL_WINDOW;
+
+    /// Progress and rate counters
+    private int totalIPs;
+    private final AtomicInteger scannedIPcount = new AtomicInteger();
+    private final AtomicInteger discoveredCount = new AtomicInteger();
+    private long scanStartedInNS;
+
+    public NetworkDiscoveryService() {
+        super(SUPPORTED_THING_TYPES_UIDS, (int) Math.round(new NetworkUtils()
+                .countNetworkIPs(new NetworkUtils().getInterfaceIPs(), DEFAULT_MAXIMUM_IPS_PER_INTERFACE)
+                * (PING_TIMEOUT_IN_MS / 1000.0)), false);
+    }
+
+    @Override
+    @Activate
+    public void activate(Map<String, Object> config) {
+        super.activate(config);
+        modified(config);
+    };
+
+    @Override
+    @Modified
+    protected void modified(Map<String, Object> config) {
+        super.modified(config);
+        // We update instead of replace the configuration object, so that if the user updates the
+        // configuration, the values are automatically available in all handlers. Because they all
+        // share the same instance.
+        configuration.update(new Configuration(config).as(NetworkBindingConfiguration.class));
+    }
+
+    @Override
+    @Deactivate
+    protected void deactivate() {
+        super.deactivate();
+    }
+
+    @Override
+    public void partialDetectionResult(PresenceDetectionValue value) {
+        final String ip = value.getHostAddress();
+        if (value.isPingReachable()) {
+            newPingDevice(ip);
+        } else if (value.isTCPServiceReachable()) {
+            List<Integer> tcpServices = value.getReachableTCPports();
+            for (int port : tcpServices) {
+                newServiceDevice(ip, port);
+            }
+        }
+    }
+
+    @Override
+    public void finalDetectionResult(PresenceDetectionValue value) {
+        if (value.isReachable()) {
+            discoveredCount.incrementAndGet();
+        }
+        hostFinished(value.getHostAddress());
+    }
+
+    /**
+     * Starts sweeping every IP on each interface on the network
+     */
+    @Override
+    protected void startScan() {
+        synchronized (this) {
+            if (pendingIPs != null) {
+                return;
+            }
+            removeOlderResults(getTimestampOfLastScan(), null);
+            logger.trace("Starting Discovery");
+
+            Set<String> interfaceIPs = networkUtils.getInterfaceIPs();
+            int maximumPerInterface = Math.max(configuration.maxDiscoveryIPsPerInterface.intValue(), 1);
+            totalIPs = networkUtils.countNetworkIPs(interfaceIPs, maximumPerInterface);
+            pendingIPs = networkUtils.iterateNetworkIPs(interfaceIPs, maximumPerInterface);
+            // Determine the ping methods only once and not for every single IP
+            pingMethod = networkUtils.determinePingMethod(configuration.useBatchedPing);
+            arpPingMethod = networkUtils.determineNativeARPpingMethod(configuration.arpPingToolPath);
+            window = INITIAL_WINDOW;
+            scannedIPcount.set(0);
+            discoveredCount.set(0);
+            scanStartedInNS = System.nanoTime();
+        }
+        fillWindow();
+    }
+
+    /**
+     * Start presence detections for further IPs until the window is full or there are no IPs left.
+     */
+    private void fillWindow() {
+        while (true) {
+            final PresenceDetection s;
+            synchronized (this) {
+                if (pendingIPs == null || inFlightSince.size() >= window) {
+                    return;
+                }
+                if (!pendingIPs.hasNext()) {
+                    if (inFlightSince.isEmpty()) {
+                        scanFinished();
+                    }
+                    return;
+                }
+                s = createPresenceDetection(pendingIPs.next());
+                if (s == null) {
+                    scannedIPcount.incrementAndGet();
+                    continue;
+                }
+                inFlightSince.put(s.getHostname(), System.nanoTime());
+            }
+            if (!s.performPresenceDetection(false)) {
+                hostFinished(s.getHostname());
+            }
+        }
+    }
+
+    private PresenceDetection createPresenceDetection(String ip) {
+        final PresenceDetection s = new PresenceDetection(this, 2000);
+        try {
+            s.setHostname(ip);
+        } catch (UnknownHostException unknownHostException) {
+            logger.trace("Skip IP that cannot be converted to a InetAddress", unknownHostException);
+            return null;
+        }
+        s.setIOSDevice(true);
+        s.setUseDhcpSniffing(false);
+        s.setTimeout(PING_TIMEOUT_IN_MS);
+        // Ping devices
+        s.setPingMethod(pingMethod);
+        s.setArpPingMethod(arpPingMethod, configuration.arpPingToolPath);
+        // TCP devices
+        s.setServicePorts(tcp_service_ports);
+        return s;
+    }
+
+    /**
+     * Called as soon as the presence detection of a host has finished. Adapts the window and
+     * starts further presence detections.
+     *
+     * @param ip The IP of the host
+     */
+    private void hostFinished(String ip) {
+        synchronized (this) {
+            Long startedAt = inFlightSince.remove(ip);
+            if (startedAt == null) {
+                return;
+            }
+            scannedIPcount.incrementAndGet();
+            // A detection, that takes much longer than the ping timeout, has been queued. We are probing
+            // more hosts than we can handle: Shrink multiplicatively, otherwise grow additively.
+            long durationInMS = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+            if (durationInMS > 2 * PING_TIMEOUT_IN_MS) {
+                window = Math.max(MINIMUM_WINDOW, window / 2);
+            } else if (window < MAXIMUM_WINDOW) {
+                window += 1;
+            }
+            if (scannedIPcount.get() % 100 == 0) {
+                logger.debug("Discovery progress: {}/{} IPs, {} hosts found, {} IPs/s, window {}",
+                        scannedIPcount.get(), totalIPs, discoveredCount.get(), String.format("%.1f", getScanRate()),
+                        window);
+            }
+        }
+        fillWindow();
+    }
+
+    /**
+     * Must be called with the lock held.
+     */
+    private void scanFinished() {
+        logger.trace("Scan of {} IPs successful, {} hosts found", scannedIPcount.get(), discoveredCount.get());
+        pendingIPs = null;
+        super.stopScan();
+    }
+
+    @Override
+    protected synchronized void stopScan() {
+        super.stopScan();
+        // Do not start further detections, the running ones finish on their own
+        pendingIPs = null;
+        inFlightSince.clear();
+    }
+
+    /**
+     * Return the amount of IPs that have been probed by the current or last scan.
+     */
+    public int getScannedIPCount() {
+        return scannedIPcount.get();
+    }
+
+    /**
+     * Return the amount of IPs of the current or last scan.
+     */
+    public int getTotalIPCount() {
+        return totalIPs;
+    }
+
+    /**
+     * Return the amount of reachable hosts of the current or last scan.
+     */
+    public int getDiscoveredCount() {
+        return discoveredCount.get();
+    }
+
+    /**
+     * Return the probed IPs per second of the current or last scan.
+     */
+    public double getScanRate() {
+        double seconds = (System.nanoTime() - scanStartedInNS) / 1e9;
+        return seconds > 0 ? scannedIPcount.get() / seconds : 0;
+    }
+
+    public static ThingUID createServiceUID(String ip, int tcpPort) {
+        // uid must not contains dots
+        return new ThingUID(SERVICE_DEVICE, ip.replace('.', '_') + "_" + String.valueOf(tcpPort));
+    }
+
+    /**
+     * Submit newly discovered devices. This method is called as soon as a host answers.
+     *
+     * @param ip The device IP
+     * @param tcpPort The TCP port
+     */
+    public void newServiceDevice(String ip, int tcpPort) {
+        logger.trace("Found service device at {} with port", ip, tcpPort);
+
+        String label;
+        // TCP port 548 (Apple Filing Protocol (AFP))
+        // TCP port 554 (Windows share / Linux samba)
+        // TCP port 1025 (XBox / MS-RPC)
+        switch (tcpPort) {
+            case 80:
+                label = "Device with webserver";
+                break;
+            case 548:
+                label = "Apple Device";
+                break;
+            case 554:
+                label = "Windows compatible device";
+                break;
+            case 1025:
+                label = "Xbox compatible device";
+                break;
+            default:
+                label = "Computer/Laptop";
+        }
+        label += "(" + ip + ")";
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(PARAMETER_HOSTNAME, ip);
+        properties.put(PARAMETER_PORT, tcpPort);
+        thingDiscovered(DiscoveryResultBuilder.create(createServiceUID(ip, tcpPort)).withTTL(120)
+                .withProperties(properties).withLabel(label).build());
+    }
+
+    public static ThingUID createPingUID(String ip) {
+        // uid must not contains dots
+        return new ThingUID(PING_DEVICE, ip.replace('.', '_'));
+    }
+
+    /**
+     * Submit newly discovered devices. This method is called as soon as a host answers.
+     *
+     * @param ip The device IP
+     */
+    public void newPingDevice(String ip) {
+        logger.trace("Found service device at {}", ip);
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(PARAMETER_HOSTNAME, ip);
+        thingDiscovered(DiscoveryResultBuilder.create(createPingUID(ip)).withTTL(120).withProperties(properties)
+                .withLabel("Network Device (" + ip + ")").build());
+    }
+}
@@ -0,0 +1,203 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.network.internal.utils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Performs ICMP pings for many destinations with a single process of the fping utility
+ * (https://fping.org), instead of forking a ping process for every single destination.
+ *
+ * Ping requests are collected for a short time window (or until a maximum batch size is reached).
+ * The whole batch is handed over to one fping process and the reported results are matched back
+ * to the waiting requests asynchronously. Concurrent requests for the same destination share one probe.
+ *
+ * @author agent - Initial contribution
+ */
+public class BatchedPing {
+    public static final String FPING_COMMAND = "fping";
+    static final int BATCH_WINDOW_IN_MS = 20;
+    static final int MAX_BATCH_SIZE = 128;
+
+    private final Logger logger = LoggerFactory.getLogger(BatchedPing.class);
+    private final ScheduledThreadPoolExecutor executor;
+    private final String fpingPath;
+
+    private final Set<Process> processes = ConcurrentHashMap.newKeySet();
+    private Map<String, List<CompletableFuture<Boolean>>> batch = new HashMap<>();
+    private int batchTimeoutInMS = 0;
+
+    // Statistics
+    private final AtomicLong processesStarted = new AtomicLong();
+    private final AtomicLong probesSent = new AtomicLong();
+
+    public BatchedPing() {
+        this(FPING_COMMAND);
+    }
+
+    public BatchedPing(String fpingPath) {
+        this.fpingPath = fpingPath;
+        final AtomicInteger threadCounter = new AtomicInteger();
+        executor = new ScheduledThreadPoolExecutor(2, r -> {
+            Thread thread = new Thread(r, "networkBinding-batchedPing-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queue an ICMP ping for the given destination.
+     *
+     * @param hostAddress The IPv4 or IPv6 address. Must not be null.
+     * @param timeoutInMS Timeout in milliseconds. The longest timeout of all requests of a batch is used for
+     *            the whole batch.
+     * @return A future that completes with true if the destination responded and false otherwise.
+     *         Completes exceptionally if the fping utility could not be executed or if this instance
+     *         has been closed.
+     */
+    public synchronized CompletableFuture<Boolean> ping(String hostAddress, int timeoutInMS) {
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        if (executor.isShutdown()) {
+            result.completeExceptionally(new IllegalStateException("The batched ping has been closed"));
+            return result;
+        }
+        if (batch.isEmpty()) {
+            executor.schedule(this::flush, BATCH_WINDOW_IN_MS, TimeUnit.MILLISECONDS);
+        }
+        batch.computeIfAbsent(hostAddress, k -> new ArrayList<>()).add(result);
+        batchTimeoutInMS = Math.max(batchTimeoutInMS, timeoutInMS);
+        if (batch.size() >= MAX_BATCH_SIZE) {
+            executor.execute(this::flush);
+        }
+        return result;
+    }
+
+    /**
+     * Take the current batch and execute it. Does nothing if the batch is empty (because it has been
+     * executed already by reaching the maximum batch size).
+     */
+    private void flush() {
+        final Map<String, List<CompletableFuture<Boolean>>> requests;
+        final int timeoutInMS;
+        synchronized (this) {
+            if (batch.isEmpty()) {
+                return;
+            }
+            requests = batch;
+            timeoutInMS = batchTimeoutInMS;
+            batch = new HashMap<>();
+            batchTimeoutInMS = 0;
+        }
+
+        List<String> command = new ArrayList<>(requests.size() + 5);
+        command.add(fpingPath);
+        // No retries, the presence detection is repeated periodically anyway
+        command.add("-r");
+        command.add("0");
+        command.add("-t");
+        command.add(String.valueOf(timeoutInMS));
+        command.addAll(requests.keySet());
+
+        processesStarted.incrementAndGet();
+        probesSent.addAndGet(requests.size());
+        Process proc = null;
+        try {
+            proc = new ProcessBuilder(command).redirectErrorStream(true).start();
+            processes.add(proc);
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(proc.getInputStream(), StandardCharsets.US_ASCII))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String host = parseHost(line);
+                    List<CompletableFuture<Boolean>> waiting = host != null ? requests.remove(host) : null;
+                    if (waiting != null) {
+                        boolean alive = isAlive(line);
+                        waiting.forEach(f -> f.complete(alive));
+                    }
+                }
+            }
+            proc.waitFor();
+        } catch (IOException e) {
+            logger.trace("Failed to execute fping for {} hosts", requests.size(), e);
+            requests.values().forEach(list -> list.forEach(f -> f.completeExceptionally(e)));
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            // Do not leave a running fping behind, if we stopped waiting for it
+            if (proc != null) {
+                processes.remove(proc);
+                proc.destroyForcibly();
+            }
+        }
+        // Not reported hosts are deemed to be unreachable
+        requests.values().forEach(list -> list.forEach(f -> f.complete(false)));
+    }
+
+    /**
+     * Return the host of a fping output line like "192.168.0.1 is alive (0.52 ms)"
+     * or "192.168.0.2 is unreachable", or null if the line is not a result line.
+     */
+    static String parseHost(String line) {
+        int separator = line.indexOf(" is ");
+        if (separator <= 0) {
+            return null;
+        }
+        return line.substring(0, separator);
+    }
+
+    /**
+     * Return true if the given fping output line reports a reachable host.
+     */
+    static boolean isAlive(String line) {
+        return line.contains(" is alive");
+    }
+
+    /**
+     * Return the amount of fping processes that have been started.
+     */
+    public long getProcessesStarted() {
+        return processesStarted.get();
+    }
+
+    /**
+     * Return the amount of destinations that have been pinged.
+     */
+    public long getProbesSent() {
+        return probesSent.get();
+    }
+
+    /**
+     * Stops the executor and the running fping processes. Pings that have not been executed yet complete with
+     * false, further pings complete exceptionally.
+     */
+    public synchronized void close() {
+        executor.shutdownNow();
+        processes.forEach(Process::destroyForcibly);
+        batch.values().forEach(list -> list.forEach(f -> f.complete(false)));
+        batch.clear();
+    }
+}
@@ -22,15 +22,19 @@ import java.net.Socket;
 import java.net.SocketAddress;
 import java.net.SocketException;
 import java.net.SocketTimeoutException;
+import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.SystemUtils;
 import org.apache.commons.net.util.SubnetUtils;
+import org.apache.commons.net.util.SubnetUtils.SubnetInfo;
 import org.eclipse.smarthome.io.net.exec.ExecUtil;
 
 /**
@@ -143,6 +147,83 @@ public class NetworkUtils {
         return networkIPs;
     }
 
+    /**
+     * Returns an iterator over every IP which can be assigned on the networks of the given interface IPs.
+     * In contrast to {@link #getNetworkIPs(Set, int)}, the addresses are computed lazily while iterating and
+     * not materialized. Networks that are assigned to more than one interface are only walked once.
+     *
+     * @param interfaceIPs The IPs which are assigned to the Network Interfaces in the format ip/prefix
+     * @param maximumPerInterface The maximum of IP addresses per interface or 0 to get all.
+     * @return An iterator over the IPv4 addresses in dotted notation
+     */
+    public Iterator<String> iterateNetworkIPs(Set<String> interfaceIPs, int maximumPerInterface) {
+        final List<int[]> ranges = getNetworkRanges(interfaceIPs, maximumPerInterface);
+
+        return new Iterator<String>() {
+            int range = 0;
+            int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return range < ranges.size();
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int[] current = ranges.get(range);
+                int address = current[0] + index;
+                if (++index >= current[1]) {
+                    index = 0;
+                    ++range;
+                }
+                return ((address >>> 24) & 0xFF) + "." + ((address >>> 16) & 0xFF) + "." + ((address >>> 8) & 0xFF)
+                        + "." + (address & 0xFF);
+            }
+        };
+    }
+
+    /**
+     * Returns the amount of IPs {@link #iterateNetworkIPs(Set, int)} would return, without computing the addresses.
+     *
+     * @param interfaceIPs The IPs which are assigned to the Network Interfaces in the format ip/prefix
+     * @param maximumPerInterface The maximum of IP addresses per interface or 0 to get all.
+     */
+    public int countNetworkIPs(Set<String> interfaceIPs, int maximumPerInterface) {
+        int result = 0;
+        for (int[] range : getNetworkRanges(interfaceIPs, maximumPerInterface)) {
+            result += range[1];
+        }
+        return result;
+    }
+
+    /**
+     * Returns the distinct IPv4 networks of the given interface IPs as pairs of
+     * the first assignable address (as integer) and the amount of addresses.
+     */
+    private List<int[]> getNetworkRanges(Set<String> interfaceIPs, int maximumPerInterface) {
+        final List<int[]> ranges = new ArrayList<>();
+        final Set<String> networks = new HashSet<>();
+        for (String string : interfaceIPs) {
+            try {
+                SubnetInfo info = new SubnetUtils(string).getInfo();
+                int count = info.getAddressCount();
+                if (count <= 0 || !networks.add(info.getNetworkAddress() + "/" + info.getNetmask())) {
+                    continue;
+                }
+                if (maximumPerInterface != 0 && maximumPerInterface < count) {
+                    count = maximumPerInterface;
+                }
+                ranges.add(new int[] { info.asInteger(info.getLowAddress()), count });
+            } catch (Exception ex) {
+                // Not an IPv4 network
+            }
+        }
+        return ranges;
+    }
+
     /**
      * Try to establish a tcp connection to the given port. Returns false if a timeout occurred
      * or the connection was denied.
@@ -172,8 +253,24 @@ public class NetworkUtils {
     /**
      * Return the working method for the native system ping. If no native ping
      * works JavaPing is returned.
+     *
+     * @param allowBatchedPing If true, fping is preferred if it is installed, because it can ping many
+     *            destinations with one process.
      */
-    public IpPingMethodEnum determinePingMethod() {
+    public IpPingMethodEnum determinePingMethod(boolean allowBatchedPing) {
+        if (allowBatchedPing && !SystemUtils.IS_OS_WINDOWS) {
+            try {
+                if (nativePing(IpPingMethodEnum.BATCHED_FPING, "127.0.0.1", 1000)) {
+                    return IpPingMethodEnum.BATCHED_FPING;
+                }
+            } catch (IOException ignored) {
+                // fping is not installed
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt(); // Reset interrupt flag
+                return IpPingMethodEnum.JAVA_PING;
+            }
+        }
+
         IpPingMethodEnum method;
         if (SystemUtils.IS_OS_WINDOWS) {
             method = IpPingMethodEnum.WINDOWS_PING;
@@ -220,7 +317,11 @@ public class NetworkUtils {
         JAVA_PING,
         WINDOWS_PING,
         IPUTILS_LINUX_PING,
-        MAC_OS_PING
+        MAC_OS_PING,
+        /**
+         * The fping utility. Many destinations are pinged with one process, see {@link BatchedPing}.
+         */
+        BATCHED_FPING
     }
 
     /**
@@ -235,7 +336,11 @@ public class NetworkUtils {
             throws IOException, InterruptedException {
         Process proc;
         // Yes, all supported operating systems have their own ping utility with a different command line
-        if (SystemUtils.IS_OS_WINDOWS) {
+        if (method == IpPingMethodEnum.BATCHED_FPING) {
+            // A single destination, use BatchedPing for many destinations
+            proc = new ProcessBuilder(BatchedPing.FPING_COMMAND, "-r", "0", "-t", String.valueOf(timeoutInMS), hostname)
+                    .start();
+        } else if (SystemUtils.IS_OS_WINDOWS) {
             proc = new ProcessBuilder("ping", "-w", String.valueOf(timeoutInMS), "-n", "1", hostname).start();
         } else if (SystemUtils.IS_OS_MAC) {
             proc = new ProcessBuilder("ping", "-t", String.valueOf(timeoutInMS / 1000), "-c", "1", hostname).start();
@@ -0,0 +1,261 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.network.internal.utils;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NoRouteToHostException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Performs TCP connection attempts ("service pings") without blocking a thread per attempt.
+ * All pending connects are registered on a single NIO {@link Selector} and are handled by
+ * this thread. The result has the same semantics as {@link NetworkUtils#servicePing(String, int, int)}:
+ * An established connection or a refused connection means the device is reachable, a timeout or
+ * a missing route means it is not.
+ *
+ * The thread is started lazily with the first service ping.
+ *
+ * @author agent - Initial contribution
+ */
+public class NonBlockingServicePing extends Thread {
+    private final Logger logger = LoggerFactory.getLogger(NonBlockingServicePing.class);
+    private final Queue<PendingConnect> registrations = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingConnects = new AtomicInteger();
+    private Selector selector;
+    private volatile boolean willbeclosed = false;
+
+    private static class PendingConnect {
+        final SocketChannel channel;
+        final CompletableFuture<Boolean> result;
+        final long deadline;
+
+        PendingConnect(SocketChannel channel, CompletableFuture<Boolean> result, long deadline) {
+            this.channel = channel;
+            this.result = result;
+            this.deadline = deadline;
+        }
+    }
+
+    public NonBlockingServicePing() {
+        super("networkBinding-servicePing");
+        setDaemon(true);
+    }
+
+    /**
+     * Try to establish a tcp connection to the given port. The returned future completes with false if a timeout
+     * occurred or there is no route to the host and with true if the connection was established or denied.
+     * It completes exceptionally if the connection attempt could not be started at all.
+     *
+     * @param address The destination address. Must not be null.
+     * @param port The tcp port. Must be not 0.
+     * @param timeoutInMS Timeout in milliseconds
+     * @return A future for the result.
+     */
+    public CompletableFuture<Boolean> servicePing(InetAddress address, int port, int timeoutInMS) {
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        SocketChannel channel = null;
+        try {
+            startIfNecessary();
+            channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            if (channel.connect(new InetSocketAddress(address, port))) {
+                closeQuietly(channel);
+                result.complete(true);
+                return result;
+            }
+        } catch (ConnectException e) {
+            // Connection refused, there is a device on the other end though
+            closeQuietly(channel);
+            result.complete(true);
+            return result;
+        } catch (NoRouteToHostException e) {
+            closeQuietly(channel);
+            result.complete(false);
+            return result;
+        } catch (IOException e) {
+            closeQuietly(channel);
+            result.completeExceptionally(e);
+            return result;
+        }
+
+        pendingConnects.incrementAndGet();
+        registrations.add(
+                new PendingConnect(channel, result, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutInMS)));
+        selector.wakeup();
+        return result;
+    }
+
+    /**
+     * Return the amount of connection attempts that are currently in flight.
+     */
+    public int getPendingConnects() {
+        return pendingConnects.get();
+    }
+
+    private synchronized void startIfNecessary() throws IOException {
+        if (willbeclosed) {
+            throw new IOException("The service ping selector has been closed");
+        }
+        if (selector == null) {
+            selector = Selector.open();
+            start();
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (!willbeclosed) {
+                registerPendingConnects();
+                selector.select(millisUntilNextDeadline());
+                Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                while (it.hasNext()) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    if (key.isValid() && key.isConnectable()) {
+                        finishConnect(key);
+                    }
+                }
+                expireTimedOutConnects();
+            }
+        } catch (IOException e) {
+            if (!willbeclosed) {
+                logger.warn("Service ping selector failed: {}", e.getLocalizedMessage());
+            }
+        } finally {
+            cancelAll();
+        }
+    }
+
+    private void registerPendingConnects() {
+        PendingConnect pendingConnect;
+        while ((pendingConnect = registrations.poll()) != null) {
+            try {
+                pendingConnect.channel.register(selector, SelectionKey.OP_CONNECT, pendingConnect);
+            } catch (ClosedChannelException e) {
+                complete(null, pendingConnect, false);
+            }
+        }
+    }
+
+    /**
+     * Return the time in milliseconds until the next pending connect times out, but at least 1ms.
+     * Returns 0 (wait indefinitely) if there are no pending connects.
+     */
+    private long millisUntilNextDeadline() {
+        long now = System.nanoTime();
+        long nextDeadline = Long.MAX_VALUE;
+        for (SelectionKey key : selector.keys()) {
+            PendingConnect pendingConnect = (PendingConnect) key.attachment();
+            if (pendingConnect != null && pendingConnect.deadline < nextDeadline) {
+                nextDeadline = pendingConnect.deadline;
+            }
+        }
+        if (nextDeadline == Long.MAX_VALUE) {
+            return 0;
+        }
+        return Math.max(1, TimeUnit.NANOSECONDS.toMillis(nextDeadline - now));
+    }
+
+    private void finishConnect(SelectionKey key) {
+        PendingConnect pendingConnect = (PendingConnect) key.attachment();
+        try {
+            if (pendingConnect.channel.finishConnect()) {
+                complete(key, pendingConnect, true);
+            }
+        } catch (ConnectException e) {
+            // Connection refused, there is a device on the other end though
+            complete(key, pendingConnect, true);
+        } catch (IOException e) {
+            // No route to host or any other network error
+            complete(key, pendingConnect, false);
+        }
+    }
+
+    private void expireTimedOutConnects() {
+        long now = System.nanoTime();
+        for (SelectionKey key : selector.keys()) {
+            PendingConnect pendingConnect = (PendingConnect) key.attachment();
+            if (pendingConnect != null && pendingConnect.deadline - now <= 0) {
+                complete(key, pendingConnect, false);
+            }
+        }
+    }
+
+    private void cancelAll() {
+        PendingConnect pendingConnect;
+        while ((pendingConnect = registrations.poll()) != null) {
+            complete(null, pendingConnect, false);
+        }
+        if (selector == null) {
+            return;
+        }
+        for (SelectionKey key : selector.keys()) {
+            PendingConnect p = (PendingConnect) key.attachment();
+            if (p != null) {
+                complete(key, p, false);
+            }
+        }
+        try {
+            selector.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private void complete(SelectionKey key, PendingConnect pendingConnect, boolean reachable) {
+        if (key != null) {
+            key.attach(null);
+            key.cancel();
+        }
+        closeQuietly(pendingConnect.channel);
+        pendingConnects.decrementAndGet();
+        pendingConnect.result.complete(reachable);
+    }
+
+    private static void closeQuietly(SocketChannel channel) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * Stops the selector thread. All pending connection attempts complete with false.
+     */
+    public synchronized void close() {
+        willbeclosed = true;
+        if (selector == null) {
+            return;
+        }
+        selector.wakeup();
+        try {
+            join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -8,9 +8,10 @@
  */
 package org.openhab.binding.network.toberemoved.cache;
 
-import java.util.LinkedList;
-import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
 /**
@@ -18,21 +19,36 @@ import java.util.function.Consumer;
  * of an expiring cache. Returns the cached value immediately to the callback if not expired yet, otherwise issue
  * a fetch and notify callback implementors asynchronously.
  *
+ * The cache is lock-free. All callers that request a value while a fetch is in progress share this fetch
+ * (single-flight), the cache updater is not called again. Optionally an expired value can still be served for
+ * a configurable time while a fetch is in progress (stale-while-revalidate).
+ *
  * @author David Graeff - Initial contribution
  *
  * @param <V> the type of the cached value
  */
 public class ExpiringCacheAsync<V> {
     final long expiry;
+    volatile long staleWhileRevalidate = 0;
     ExpiringCacheUpdate cacheUpdater;
-    long expiresAt = 0;
-    boolean refreshRequested = false;
-    V value;
-    final List<Consumer<V>> waitingCacheCallbacks = new LinkedList<>();
+    volatile long expiresAt = 0;
+    volatile long staleUntil = 0;
+    volatile V value;
+    final AtomicReference<CompletableFuture<V>> inFlight = new AtomicReference<>();
+    private volatile long refreshStartedAt;
+
+    // Statistics
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong staleHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong refreshes = new AtomicLong();
+    private final AtomicLong totalRefreshLatency = new AtomicLong();
 
     /**
      * Implement the requestCacheUpdate method which will be called when the cache
-     * needs an updated value. Call {@see setValue} to update the cached value.
+     * needs an updated value. Call {@see setValue} to update the cached value or {@see refreshFailed}
+     * if no value can be fetched.
      */
     public static interface ExpiringCacheUpdate {
         void requestCacheUpdate();
@@ -57,23 +73,63 @@ public class ExpiringCacheAsync<V> {
     }
 
     /**
-     * Returns the value - possibly from the cache, if it is still valid.
+     * Sets the duration for how long an expired value is still returned, while a new value is fetched.
      *
-     * @return the value
+     * @param staleWhileRevalidate The duration in milliseconds after the expiry. 0 disables serving expired values.
+     */
+    public void setStaleWhileRevalidate(long staleWhileRevalidate) {
+        this.staleWhileRevalidate = TimeUnit.MILLISECONDS.toNanos(staleWhileRevalidate);
+    }
+
+    /**
+     * Returns the value - possibly from the cache, if it is still valid. If the value is expired but still within
+     * the stale-while-revalidate duration, the expired value is returned and a new value is fetched in the background.
+     *
+     * @param callback Called with the value. Not necessarily on the calling thread. Not called at all, if a new value
+     *            was needed and the refresh failed.
      */
     public void getValue(Consumer<V> callback) {
-        if (isExpired()) {
-            refreshValue(callback);
-        } else {
+        final long now = getCurrentNanoTime();
+        if (expiresAt >= now) {
+            hits.incrementAndGet();
             callback.accept(value);
+        } else if (staleUntil >= now) {
+            staleHits.incrementAndGet();
+            callback.accept(value);
+            refresh();
+        } else {
+            misses.incrementAndGet();
+            refreshValue(callback);
+        }
+    }
+
+    /**
+     * Returns a future for the value - possibly an already completed one from the cache,
+     * if it is still valid.
+     *
+     * @see #getValue(Consumer)
+     */
+    public CompletableFuture<V> getValue() {
+        final long now = getCurrentNanoTime();
+        if (expiresAt >= now) {
+            hits.incrementAndGet();
+            return CompletableFuture.completedFuture(value);
+        } else if (staleUntil >= now) {
+            staleHits.incrementAndGet();
+            V staleValue = value;
+            refresh();
+            return CompletableFuture.completedFuture(staleValue);
         }
+        misses.incrementAndGet();
+        return refresh();
     }
 
     /**
-     * Invalidates the value in the cache.
+     * Invalidates the value in the cache. An invalidated value is not served as stale value either.
      */
     public void invalidateValue() {
         expiresAt = 0;
+        staleUntil = 0;
     }
 
     /**
@@ -83,14 +139,35 @@ public class ExpiringCacheAsync<V> {
      *            of the new value.
      */
     public void setValue(V newValue) {
-        refreshRequested = false;
+        final long now = getCurrentNanoTime();
         value = newValue;
-        expiresAt = getCurrentNanoTime() + expiry;
-        // Inform all callback handlers of the new value and clear the list
-        for (Consumer<V> callback : waitingCacheCallbacks) {
-            callback.accept(value);
+        staleUntil = staleWhileRevalidate > 0 ? now + expiry + staleWhileRevalidate : 0;
+        expiresAt = now + expiry;
+        // Inform all callback handlers of the new value
+        CompletableFuture<V> future = inFlight.getAndSet(null);
+        if (future != null) {
+            totalRefreshLatency.addAndGet(now - refreshStartedAt);
+            future.complete(newValue);
+        }
+    }
+
+    /**
+     * Ends the refresh in progress without a new value, because the cache updater could not fetch one or the fetch
+     * has been aborted. Requests waiting for the refresh are completed exceptionally, or with the cached value if it
+     * became valid in the meantime. The next request starts a new refresh.
+     *
+     * @param cause The reason why there is no new value
+     */
+    public void refreshFailed(Throwable cause) {
+        CompletableFuture<V> future = inFlight.getAndSet(null);
+        if (future == null) {
+            return;
+        }
+        if (!isExpired()) {
+            future.complete(value);
+        } else {
+            future.completeExceptionally(cause);
         }
-        waitingCacheCallbacks.clear();
     }
 
     /**
@@ -104,16 +181,37 @@ public class ExpiringCacheAsync<V> {
     /**
      * Refreshes and returns the value asynchronously.
      *
-     * @return the new value
+     * @param callback Called with the new value.
      */
     public void refreshValue(Consumer<V> callback) {
-        waitingCacheCallbacks.add(callback);
-        if (refreshRequested) {
-            return;
-        }
-        refreshRequested = true;
         expiresAt = 0;
-        cacheUpdater.requestCacheUpdate();
+        refresh().thenAccept(callback);
+    }
+
+    /**
+     * Request a new value, if there is no request in progress already.
+     *
+     * @return The future of the request in progress.
+     */
+    private CompletableFuture<V> refresh() {
+        while (true) {
+            CompletableFuture<V> current = inFlight.get();
+            if (current != null) {
+                coalesced.incrementAndGet();
+                return current;
+            }
+            CompletableFuture<V> future = new CompletableFuture<>();
+            if (inFlight.compareAndSet(null, future)) {
+                refreshes.incrementAndGet();
+                refreshStartedAt = getCurrentNanoTime();
+                try {
+                    cacheUpdater.requestCacheUpdate();
+                } catch (RuntimeException e) {
+                    refreshFailed(e);
+                }
+                return future;
+            }
+        }
     }
 
     /**
@@ -125,6 +223,13 @@ public class ExpiringCacheAsync<V> {
         return expiresAt < getCurrentNanoTime();
     }
 
+    /**
+     * Return true if a new value has been requested and is not there yet.
+     */
+    public boolean isRefreshing() {
+        return inFlight.get() != null;
+    }
+
     /**
      * Return the raw value, no matter if it is already
      * expired or still valid.
@@ -132,4 +237,58 @@ public class ExpiringCacheAsync<V> {
     public V getExpiredValue() {
         return value;
     }
+
+    /**
+     * Return how often a valid value was returned.
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Return how often an expired value was returned while a new value was fetched.
+     */
+    public long getStaleHitCount() {
+        return staleHits.get();
+    }
+
+    /**
+     * Return how often no value could be returned immediately.
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Return how often a request joined a fetch that was already in progress.
+     */
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    /**
+     * Return how often the cache updater has been called.
+     */
+    public long getRefreshCount() {
+        return refreshes.get();
+    }
+
+    /**
+     * Return the average time in milliseconds between requesting and receiving a new value
+     * or 0 if there was no refresh yet.
+     */
+    public double getAverageRefreshLatencyInMS() {
+        long count = refreshes.get();
+        if (count == 0) {
+            return 0;
+        }
+        return TimeUnit.NANOSECONDS.toMicros(totalRefreshLatency.get() / count) / 1000.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("hits=%d, staleHits=%d, misses=%d, coalesced=%d, refreshes=%d, avgRefreshLatency=%.1fms",
+                getHitCount(), getStaleHitCount(), getMissCount(), getCoalescedCount(), getRefreshCount(),
+                getAverageRefreshLatencyInMS());
+    }
 }
@@ -0,0 +1,227 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.plugwise.internal;
+
+import static java.time.ZoneOffset.UTC;
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.SortedMap;
+import java.util.SortedSet;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.openhab.binding.plugwise.internal.protocol.PowerBufferResponseMessage;
+import org.openhab.binding.plugwise.internal.protocol.field.MACAddress;
+import org.openhab.binding.plugwise.internal.protocol.field.PowerCalibration;
+
+/**
+ * Tests the cursor, the wrap-around handling and the persistence of the {@link PlugwiseEnergyHistory}.
+ *
+ * @author agent - Initial contribution
+ */
+public class PlugwiseEnergyHistoryTest {
+    private static final String MAC_ADDRESS = "000D6F0000A1B2C3";
+    private static final Duration INTERVAL = Duration.ofHours(1);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File file;
+    private ZonedDateTime utcHour;
+
+    @Before
+    public void setUp() {
+        file = new File(folder.getRoot(), "plugwise/" + MAC_ADDRESS + ".energy");
+        utcHour = ZonedDateTime.now(UTC).truncatedTo(ChronoUnit.HOURS);
+    }
+
+    @Test
+    public void firstUpdateReadsOneWeek() {
+        PlugwiseEnergyHistory history = newHistory();
+        SortedSet<Integer> missing = history.getMissingLogAddresses(100);
+        assertThat(missing.size(), is(42));
+        assertThat(missing.first(), is(58));
+        assertThat(missing.last(), is(99));
+    }
+
+    @Test
+    public void firstUpdateOfNewDeviceReadsWholeBuffer() {
+        SortedSet<Integer> missing = newHistory().getMissingLogAddresses(10);
+        assertThat(missing.size(), is(10));
+        assertThat(missing.first(), is(0));
+        assertThat(missing.last(), is(9));
+    }
+
+    @Test
+    public void cursorAdvancesWhenAllPreviousPagesAreRead() {
+        PlugwiseEnergyHistory history = newHistory();
+        history.getMissingLogAddresses(10);
+
+        // a page after a missing page does not move the cursor
+        history.add(page(1), 10);
+        SortedSet<Integer> missing = history.getMissingLogAddresses(10);
+        assertThat(missing.first(), is(0));
+        assertThat(missing.contains(1), is(false));
+        assertThat(missing.size(), is(9));
+
+        history.add(page(0), 10);
+        missing = history.getMissingLogAddresses(10);
+        assertThat(missing.first(), is(2));
+        assertThat(missing.size(), is(8));
+    }
+
+    @Test
+    public void recentPageIsReadAgain() {
+        PlugwiseEnergyHistory history = newHistory();
+        history.getMissingLogAddresses(2);
+        history.add(page(0), 2);
+        history.add(page(1), 2);
+        // the device is still writing the page at the recent log address
+        history.add(page(2), 2);
+        assertThat(history.getMissingLogAddresses(2).isEmpty(), is(true));
+
+        SortedSet<Integer> missing = history.getMissingLogAddresses(3);
+        assertThat(missing.size(), is(1));
+        assertThat(missing.first(), is(2));
+    }
+
+    @Test
+    public void requestedPagesAreLimited() {
+        PlugwiseEnergyHistory history = newHistory();
+        history.getMissingLogAddresses(1);
+        history.add(page(0), 1);
+
+        SortedSet<Integer> missing = history.getMissingLogAddresses(200);
+        assertThat(missing.size(), is(42));
+        assertThat(missing.first(), is(1));
+        assertThat(missing.last(), is(42));
+    }
+
+    @Test
+    public void cursorIsResetWhenBufferWrapsAround() {
+        PlugwiseEnergyHistory history = newHistory();
+        history.getMissingLogAddresses(100);
+        for (int logAddress = 58; logAddress < 100; logAddress++) {
+            history.add(page(logAddress), 100);
+        }
+        assertThat(history.getMissingLogAddresses(100).isEmpty(), is(true));
+
+        // the device has wrapped around to the start of its buffer
+        SortedSet<Integer> missing = history.getMissingLogAddresses(5);
+        assertThat(missing.size(), is(5));
+        assertThat(missing.first(), is(0));
+        assertThat(missing.last(), is(4));
+    }
+
+    @Test
+    public void pagesOfOldBufferAreIgnoredAfterWrapAround() {
+        PlugwiseEnergyHistory history = newHistory();
+        history.getMissingLogAddresses(100);
+        history.add(page(99), 100);
+
+        history.getMissingLogAddresses(5);
+        // a late answer to a request for the old buffer position
+        history.add(page(99), 5);
+        history.add(page(0), 5);
+        SortedSet<Integer> missing = history.getMissingLogAddresses(5);
+        assertThat(missing.first(), is(1));
+        assertThat(missing.size(), is(4));
+    }
+
+    @Test
+    public void cursorAndDatapointsArePersisted() {
+        PlugwiseEnergyHistory history = newHistory();
+        history.getMissingLogAddresses(3);
+        history.add(page(0), 3);
+        history.add(page(1), 3);
+        history.save();
+        assertTrue(file.exists());
+
+        PlugwiseEnergyHistory loaded = newHistory();
+        SortedSet<Integer> missing = loaded.getMissingLogAddresses(3);
+        assertThat(missing.size(), is(1));
+        assertThat(missing.first(), is(2));
+        assertThat(loaded.getEnergy(calibration(), INTERVAL).size(), is(8));
+    }
+
+    @Test
+    public void energyIsKeyedByIntervalStart() {
+        PlugwiseEnergyHistory history = newHistory();
+        history.add(page(0), 1);
+
+        SortedMap<LocalDateTime, Double> energy = history.getEnergy(calibration(), INTERVAL);
+        assertThat(energy.size(), is(4));
+        ZonedDateTime firstStart = end(0, 0).minus(INTERVAL);
+        assertThat(energy.firstKey(), is(firstStart.withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime()));
+        // 3600 seconds * 1 kW
+        assertEquals(1.0, energy.get(energy.firstKey()), 0.001);
+    }
+
+    @Test
+    public void energySinceContainsOnlyLaterIntervals() {
+        PlugwiseEnergyHistory history = newHistory();
+        history.add(page(0), 1);
+
+        LocalDateTime secondStart = end(0, 1).minus(INTERVAL).withZoneSameInstant(ZoneId.systemDefault())
+                .toLocalDateTime();
+        SortedMap<LocalDateTime, Double> energy = history.getEnergySince(secondStart, calibration(), INTERVAL);
+        assertThat(energy.size(), is(3));
+        assertThat(energy.firstKey(), is(secondStart));
+        assertEquals(1.0, energy.get(secondStart), 0.001);
+    }
+
+    @Test
+    public void invalidFileIsIgnored() throws Exception {
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), "garbage\n".getBytes(StandardCharsets.UTF_8));
+
+        SortedSet<Integer> missing = newHistory().getMissingLogAddresses(10);
+        assertThat(missing.size(), is(10));
+    }
+
+    private PlugwiseEnergyHistory newHistory() {
+        return new PlugwiseEnergyHistory(new MACAddress(MAC_ADDRESS), file);
+    }
+
+    private static PowerCalibration calibration() {
+        return new PowerCalibration(1, 0, 0, 0);
+    }
+
+    /**
+     * Returns the end of a datapoint, the pages are written one after another with four hourly datapoints each.
+     */
+    private ZonedDateTime end(int logAddress, int index) {
+        return utcHour.minusHours(4 * 100 - 4 * logAddress - index);
+    }
+
+    private PowerBufferResponseMessage page(int logAddress) {
+        StringBuilder payload = new StringBuilder(MAC_ADDRESS);
+        for (int index = 0; index < 4; index++) {
+            ZonedDateTime end = end(logAddress, index);
+            long minutes = ChronoUnit.MINUTES.between(end.withDayOfMonth(1).truncatedTo(ChronoUnit.DAYS), end);
+            // one kW during an hour
+            long pulses = Math.round(468.9385193 * 3600);
+            payload.append(String.format("%02X%02X%04X%08X", end.getYear() - 2000, end.getMonthValue(), minutes,
+                    pulses));
+        }
+        payload.append(String.format("%08X", logAddress * 32 + 278528));
+        return new PowerBufferResponseMessage(0, payload.toString());
+    }
+}
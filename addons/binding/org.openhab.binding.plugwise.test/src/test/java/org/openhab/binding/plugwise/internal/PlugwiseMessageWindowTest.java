@@ -0,0 +1,206 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.plugwise.internal;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import static org.openhab.binding.plugwise.internal.PlugwiseMessageWindow.WINDOW_SIZE;
+
+import java.util.Comparator;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.plugwise.internal.protocol.AcknowledgementMessage;
+import org.openhab.binding.plugwise.internal.protocol.Message;
+import org.openhab.binding.plugwise.internal.protocol.PingRequestMessage;
+import org.openhab.binding.plugwise.internal.protocol.field.MACAddress;
+import org.openhab.binding.plugwise.internal.protocol.field.MessageType;
+
+/**
+ * Tests the matching of acknowledgements and responses and the expiry of the messages in the
+ * {@link PlugwiseMessageWindow}.
+ *
+ * @author agent - Initial contribution
+ */
+public class PlugwiseMessageWindowTest {
+    private static final String SUCCESS = "00C1";
+    private static final String ERROR = "00C2";
+
+    private final PriorityBlockingQueue<PlugwiseQueuedMessage> sendQueue = new PriorityBlockingQueue<>(10,
+            Comparator.comparing(PlugwiseQueuedMessage::getDateTime));
+    private long now;
+    private PlugwiseMessageWindow window;
+
+    @Before
+    public void setUp() {
+        now = 1000;
+        window = new PlugwiseMessageWindow(sendQueue, () -> now);
+    }
+
+    @Test
+    public void acknowledgedMessageIsRemovedOnResponse() throws Exception {
+        PlugwiseQueuedMessage message = send();
+
+        window.acknowledged(ack(5, SUCCESS));
+        assertThat(message.getMessage().getSequenceNumber(), is(5));
+        assertThat(window.size(), is(1));
+        assertThat(window.availablePermits(), is(WINDOW_SIZE - 1));
+
+        // a response with another sequence number belongs to another message
+        window.responded(response(6));
+        assertThat(window.size(), is(1));
+
+        window.responded(response(5));
+        assertThat(window.size(), is(0));
+        assertThat(window.availablePermits(), is(WINDOW_SIZE));
+    }
+
+    @Test
+    public void acknowledgementsAreMatchedInSentOrder() throws Exception {
+        PlugwiseQueuedMessage first = send();
+        PlugwiseQueuedMessage second = send();
+
+        window.acknowledged(ack(5, SUCCESS));
+        window.acknowledged(ack(6, SUCCESS));
+        assertThat(first.getMessage().getSequenceNumber(), is(5));
+        assertThat(second.getMessage().getSequenceNumber(), is(6));
+    }
+
+    @Test
+    public void negativeAcknowledgementRetriesMessage() throws Exception {
+        PlugwiseQueuedMessage message = send();
+
+        window.acknowledged(ack(5, ERROR));
+        assertThat(window.size(), is(0));
+        assertThat(window.availablePermits(), is(WINDOW_SIZE));
+        assertThat(sendQueue.poll(), is(sameInstance(message)));
+    }
+
+    @Test
+    public void unacknowledgedMessageExpires() throws Exception {
+        PlugwiseQueuedMessage message = send();
+
+        now += 1000;
+        window.expire();
+        assertThat(window.size(), is(1));
+
+        now += 1;
+        window.expire();
+        assertThat(window.size(), is(0));
+        assertThat(window.availablePermits(), is(WINDOW_SIZE));
+        assertThat(sendQueue.poll(), is(sameInstance(message)));
+    }
+
+    @Test
+    public void messageIsGivenUpAfterLastAttempt() throws Exception {
+        PlugwiseQueuedMessage message = send();
+        message.increaseAttempts();
+
+        now += 1001;
+        window.expire();
+        assertThat(window.size(), is(0));
+        assertThat(window.availablePermits(), is(WINDOW_SIZE));
+        assertThat(sendQueue.isEmpty(), is(true));
+    }
+
+    @Test
+    public void unansweredMessageIsFlushed() throws Exception {
+        send();
+        window.acknowledged(ack(5, SUCCESS));
+
+        now += 5001;
+        window.expire();
+        assertThat(window.size(), is(0));
+        assertThat(window.availablePermits(), is(WINDOW_SIZE));
+        assertThat(sendQueue.isEmpty(), is(true));
+    }
+
+    @Test
+    public void lateAcknowledgementIsDropped() throws Exception {
+        send();
+        now += 600;
+        PlugwiseQueuedMessage second = send();
+
+        now += 401;
+        window.expire();
+        assertThat(window.size(), is(1));
+
+        // the late acknowledgement of the first message must not be matched with the second message
+        window.acknowledged(ack(5, SUCCESS));
+        assertThat(window.size(), is(1));
+        assertThat(window.availablePermits(), is(WINDOW_SIZE - 1));
+
+        window.acknowledged(ack(6, SUCCESS));
+        assertThat(second.getMessage().getSequenceNumber(), is(6));
+        window.responded(response(6));
+        assertThat(window.size(), is(0));
+        assertThat(window.availablePermits(), is(WINDOW_SIZE));
+    }
+
+    @Test
+    public void lostAcknowledgementIsNotExpectedForever() throws Exception {
+        send();
+        now += 1001;
+        window.expire();
+
+        now += 2001;
+        PlugwiseQueuedMessage message = send();
+        window.acknowledged(ack(7, SUCCESS));
+        assertThat(message.getMessage().getSequenceNumber(), is(7));
+    }
+
+    @Test
+    public void clearKeepsPlacesOfMessagesNotSentYet() throws Exception {
+        send();
+        send();
+        window.acknowledged(ack(5, SUCCESS));
+        // the sender acquired a place for the next message but has not sent it yet
+        assertTrue(window.acquire(0, TimeUnit.MILLISECONDS));
+        assertThat(window.availablePermits(), is(WINDOW_SIZE - 3));
+
+        window.clear();
+        assertThat(window.size(), is(0));
+        assertThat(window.availablePermits(), is(WINDOW_SIZE - 1));
+
+        window.release();
+        assertThat(window.availablePermits(), is(WINDOW_SIZE));
+    }
+
+    @Test
+    public void clearDropsExpectedLateAcknowledgements() throws Exception {
+        send();
+        now += 1001;
+        window.expire();
+        window.clear();
+
+        PlugwiseQueuedMessage message = send();
+        window.acknowledged(ack(5, SUCCESS));
+        assertThat(message.getMessage().getSequenceNumber(), is(5));
+    }
+
+    private PlugwiseQueuedMessage send() throws InterruptedException {
+        assertTrue(window.acquire(0, TimeUnit.MILLISECONDS));
+        PlugwiseQueuedMessage queuedMessage = new PlugwiseQueuedMessage(
+                new PingRequestMessage(new MACAddress("000D6F0000A1B2C3")), PlugwiseMessagePriority.COMMAND);
+        queuedMessage.increaseAttempts();
+        window.sent(queuedMessage);
+        return queuedMessage;
+    }
+
+    private static AcknowledgementMessage ack(int sequenceNumber, String payload) {
+        return new AcknowledgementMessage(MessageType.ACKNOWLEDGEMENT_V1, sequenceNumber, payload);
+    }
+
+    private static Message response(int sequenceNumber) {
+        return new Message(MessageType.PING_RESPONSE, sequenceNumber, null) {
+        };
+    }
+}
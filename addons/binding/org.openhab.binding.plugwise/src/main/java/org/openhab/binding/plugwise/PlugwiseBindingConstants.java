@@ -27,6 +27,7 @@ public class PlugwiseBindingConstants {
     public static final String CHANNEL_CLOCK = "clock";
     public static final String CHANNEL_ENERGY = "energy";
     public static final String CHANNEL_ENERGY_STAMP = "energystamp";
+    public static final String CHANNEL_ENERGY_TODAY = "energytoday";
     public static final String CHANNEL_HUMIDITY = "humidity";
     public static final String CHANNEL_LAST_SEEN = "lastseen";
     public static final String CHANNEL_LEFT_BUTTON_STATE = "leftbuttonstate";
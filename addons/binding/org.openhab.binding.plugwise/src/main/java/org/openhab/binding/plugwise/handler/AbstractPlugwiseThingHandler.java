@@ -184,6 +184,12 @@ public abstract class AbstractPlugwiseThingHandler extends BaseThingHandler impl
         }
     }
 
+    protected void sendHistoryMessage(Message message) {
+        if (stickHandler != null) {
+            stickHandler.sendMessage(message, PlugwiseMessagePriority.HISTORY);
+        }
+    }
+
     protected void sendMessage(Message message) {
         if (stickHandler != null) {
             stickHandler.sendMessage(message, PlugwiseMessagePriority.UPDATE_AND_DISCOVERY);
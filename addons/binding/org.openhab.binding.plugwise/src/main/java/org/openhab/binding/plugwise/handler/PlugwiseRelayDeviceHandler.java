@@ -11,11 +11,16 @@ package org.openhab.binding.plugwise.handler;
 import static org.eclipse.smarthome.core.thing.ThingStatus.*;
 import static org.openhab.binding.plugwise.PlugwiseBindingConstants.*;
 
+import java.io.File;
 import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.concurrent.TimeUnit;
 
+import org.eclipse.smarthome.config.core.ConfigConstants;
 import org.eclipse.smarthome.config.core.Configuration;
 import org.eclipse.smarthome.core.library.types.DecimalType;
 import org.eclipse.smarthome.core.library.types.OnOffType;
@@ -26,6 +31,7 @@ import org.eclipse.smarthome.core.thing.ThingStatus;
 import org.eclipse.smarthome.core.thing.ThingStatusDetail;
 import org.eclipse.smarthome.core.types.Command;
 import org.openhab.binding.plugwise.internal.PlugwiseDeviceTask;
+import org.openhab.binding.plugwise.internal.PlugwiseEnergyHistory;
 import org.openhab.binding.plugwise.internal.PlugwiseUtils;
 import org.openhab.binding.plugwise.internal.config.PlugwiseRelayConfig;
 import org.openhab.binding.plugwise.internal.config.PlugwiseRelayConfig.PowerStateChanging;
@@ -69,6 +75,11 @@ import com.google.common.collect.Lists;
  * class with {@link PowerCalibration} data.
  * </p>
  * <p>
+ * The hourly energy usage in the buffer is read in the background by the energy history update task. Only the buffer
+ * pages written since the previous update are requested, with the lowest message priority. The energy usage since
+ * midnight is calculated from the read energy usage.
+ * </p>
+ * <p>
  * A Circle+ is a special Circle. There is one Circle+ in a Plugwise network. The Circle+ serves as a master controller
  * in a Plugwise network. It also provides clock data to the other devices and sends messages from and to the Stick.
  * </p>
@@ -83,6 +94,7 @@ public class PlugwiseRelayDeviceHandler extends AbstractPlugwiseThingHandler {
 
     private static final int INVALID_WATT_THRESHOLD = 10000;
     private static final int POWER_STATE_RETRIES = 3;
+    private static final Duration ENERGY_HISTORY_UPDATE_INTERVAL = Duration.ofHours(1);
 
     private class PendingPowerStateChange {
         final OnOffType onOff;
@@ -146,7 +158,30 @@ public class PlugwiseRelayDeviceHandler extends AbstractPlugwiseThingHandler {
 
         @Override
         public boolean shouldBeScheduled() {
-            return thing.getStatus() == ONLINE && isLinked(CHANNEL_ENERGY);
+            return thing.getStatus() == ONLINE && (isLinked(CHANNEL_ENERGY) || isLinked(CHANNEL_ENERGY_TODAY));
+        }
+    };
+
+    private final PlugwiseDeviceTask energyHistoryUpdateTask = new PlugwiseDeviceTask("Energy history update",
+            scheduler) {
+        @Override
+        public Duration getConfiguredInterval() {
+            return ENERGY_HISTORY_UPDATE_INTERVAL;
+        }
+
+        @Override
+        public void runTask() {
+            if (isRecentLogAddressKnown()) {
+                energyHistory.save();
+                for (int logAddress : energyHistory.getMissingLogAddresses(recentLogAddress)) {
+                    sendHistoryMessage(new PowerBufferRequestMessage(macAddress, logAddress));
+                }
+            }
+        }
+
+        @Override
+        public boolean shouldBeScheduled() {
+            return thing.getStatus() == ONLINE && isLinked(CHANNEL_ENERGY_TODAY);
         }
     };
 
@@ -164,7 +199,8 @@ public class PlugwiseRelayDeviceHandler extends AbstractPlugwiseThingHandler {
 
         @Override
         public boolean shouldBeScheduled() {
-            return thing.getStatus() == ONLINE && (isLinked(CHANNEL_STATE) || isLinked(CHANNEL_ENERGY));
+            return thing.getStatus() == ONLINE
+                    && (isLinked(CHANNEL_STATE) || isLinked(CHANNEL_ENERGY) || isLinked(CHANNEL_ENERGY_TODAY));
         }
     };
 
@@ -216,7 +252,7 @@ public class PlugwiseRelayDeviceHandler extends AbstractPlugwiseThingHandler {
     };
 
     private final List<PlugwiseDeviceTask> recurringTasks = Lists.newArrayList(clockUpdateTask, currentPowerUpdateTask,
-            energyUpdateTask, informationUpdateTask, realTimeClockUpdateTask, setClockTask);
+            energyUpdateTask, energyHistoryUpdateTask, informationUpdateTask, realTimeClockUpdateTask, setClockTask);
 
     private final Logger logger = LoggerFactory.getLogger(PlugwiseRelayDeviceHandler.class);
 
@@ -226,7 +262,15 @@ public class PlugwiseRelayDeviceHandler extends AbstractPlugwiseThingHandler {
 
     private PowerCalibration calibration;
     private Energy energy;
+    private PlugwiseEnergyHistory energyHistory;
     private int recentLogAddress = -1;
+
+    // The energy of the measurement intervals of today, keyed by interval start. It is taken from the energy history
+    // once a day and then updated with the received buffer pages.
+    private final SortedMap<LocalDateTime, Double> energyTodayIntervals = new TreeMap<>();
+    private LocalDate energyTodayDate;
+    private Duration energyTodayInterval;
+    private double energyToday;
     private PendingPowerStateChange pendingPowerStateChange;
 
     // Flag that keeps track of the pending "measurement interval" device configuration update. When the corresponding
@@ -271,6 +315,9 @@ public class PlugwiseRelayDeviceHandler extends AbstractPlugwiseThingHandler {
     @Override
     public void dispose() {
         stopTasks(recurringTasks);
+        if (energyHistory != null) {
+            energyHistory.save();
+        }
         super.dispose();
     }
 
@@ -330,6 +377,8 @@ public class PlugwiseRelayDeviceHandler extends AbstractPlugwiseThingHandler {
         boolean wasCalibrated = isCalibrated();
         calibration = message.getCalibration();
         logger.debug("{} ({}) calibrated: {}", deviceType, macAddress, calibration);
+        // the energy of today is converted again with the new calibration
+        energyTodayDate = null;
         if (!wasCalibrated) {
             if (isRecentLogAddressKnown()) {
                 updateEnergy();
@@ -407,11 +456,17 @@ public class PlugwiseRelayDeviceHandler extends AbstractPlugwiseThingHandler {
     }
 
     private void handlePowerBufferResponse(PowerBufferResponseMessage message) {
+        if (isRecentLogAddressKnown()) {
+            energyHistory.add(message, recentLogAddress);
+        }
+
         if (!isCalibrated()) {
             calibrate();
             return;
         }
 
+        updateEnergyToday(message);
+
         Energy mostRecentEnergy = message.getMostRecentDatapoint();
 
         if (mostRecentEnergy != null) {
@@ -435,6 +490,41 @@ public class PlugwiseRelayDeviceHandler extends AbstractPlugwiseThingHandler {
         }
     }
 
+    private void updateEnergyToday(PowerBufferResponseMessage message) {
+        if (!isLinked(CHANNEL_ENERGY_TODAY)) {
+            // pages received meanwhile are taken from the energy history when the channel is linked again
+            energyTodayDate = null;
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        LocalDateTime midnight = today.atStartOfDay();
+        Duration interval = configuration.getMeasurementInterval();
+        if (!today.equals(energyTodayDate) || !interval.equals(energyTodayInterval)) {
+            energyTodayDate = today;
+            energyTodayInterval = interval;
+            energyTodayIntervals.clear();
+            energyTodayIntervals.putAll(energyHistory.getEnergySince(midnight, calibration, interval));
+            energyToday = 0;
+            for (double intervalEnergy : energyTodayIntervals.values()) {
+                energyToday += intervalEnergy;
+            }
+        } else {
+            // a page is read again while the device is writing it, so an interval replaces its previous energy
+            for (Energy datapoint : message.getDatapoints()) {
+                if (datapoint != null) {
+                    Energy intervalEnergy = new Energy(datapoint.getUtcEnd(), datapoint.getPulses(), interval);
+                    if (!intervalEnergy.getStart().isBefore(midnight)) {
+                        double kWh = intervalEnergy.tokWh(calibration);
+                        Double previouskWh = energyTodayIntervals.put(intervalEnergy.getStart(), kWh);
+                        energyToday += kWh - (previouskWh != null ? previouskWh : 0);
+                    }
+                }
+            }
+        }
+        logger.trace("Updating {} ({}) energy today with: {} kWh", deviceType, macAddress, energyToday);
+        updateState(CHANNEL_ENERGY_TODAY, new DecimalType(correctSign(energyToday)));
+    }
+
     private void handlePowerInformationResponse(PowerInformationResponseMessage message) {
         if (!isCalibrated()) {
             calibrate();
@@ -493,6 +583,11 @@ public class PlugwiseRelayDeviceHandler extends AbstractPlugwiseThingHandler {
     public void initialize() {
         configuration = getConfigAs(PlugwiseRelayConfig.class);
         macAddress = configuration.getMACAddress();
+        if (energyHistory != null) {
+            energyHistory.save();
+        }
+        energyHistory = new PlugwiseEnergyHistory(macAddress, new File(
+                ConfigConstants.getUserDataFolder() + File.separator + "plugwise", macAddress + ".energy"));
         if (!isInitialized()) {
             setUpdateCommandFlags(null, configuration);
         }
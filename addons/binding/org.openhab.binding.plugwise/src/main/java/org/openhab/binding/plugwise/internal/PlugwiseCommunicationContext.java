@@ -14,11 +14,9 @@ import java.util.Enumeration;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.PriorityBlockingQueue;
-import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.commons.io.IOUtils;
 import org.openhab.binding.plugwise.internal.config.PlugwiseStickConfig;
-import org.openhab.binding.plugwise.internal.protocol.AcknowledgementMessage;
 import org.openhab.binding.plugwise.internal.protocol.Message;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -31,6 +29,7 @@ import gnu.io.UnsupportedCommOperationException;
 /**
  * The communication context used by the {@link PlugwiseMessageSender} and {@link PlugwiseMessageProcessor} for sending
  * and receiving messages.
+ * The messages which have been sent and are not answered yet are tracked by the {@link PlugwiseMessageWindow}.
  *
  * @author Karel Goderis
  * @author Wouter Born - Initial contribution
@@ -63,23 +62,19 @@ public class PlugwiseCommunicationContext {
     };
 
     private final Logger logger = LoggerFactory.getLogger(PlugwiseCommunicationContext.class);
-    private final BlockingQueue<AcknowledgementMessage> acknowledgedQueue = new ArrayBlockingQueue<>(MAX_BUFFER_SIZE,
-            true);
     private final BlockingQueue<Message> receivedQueue = new ArrayBlockingQueue<>(MAX_BUFFER_SIZE, true);
     private final PriorityBlockingQueue<PlugwiseQueuedMessage> sendQueue = new PriorityBlockingQueue<>(MAX_BUFFER_SIZE,
             QUEUED_MESSAGE_COMPERATOR);
-    private final BlockingQueue<PlugwiseQueuedMessage> sentQueue = new ArrayBlockingQueue<>(MAX_BUFFER_SIZE, true);
-    private final ReentrantLock sentQueueLock = new ReentrantLock();
+    private final PlugwiseMessageWindow messageWindow = new PlugwiseMessageWindow(sendQueue);
     private final PlugwiseFilteredMessageListenerList filteredListeners = new PlugwiseFilteredMessageListenerList();
 
     private PlugwiseStickConfig configuration;
     private SerialPort serialPort;
 
     public void clearQueues() {
-        acknowledgedQueue.clear();
         receivedQueue.clear();
         sendQueue.clear();
-        sentQueue.clear();
+        messageWindow.clear();
     }
 
     public void closeSerialPort() {
@@ -120,10 +115,6 @@ public class PlugwiseCommunicationContext {
                 "Serial port '%s' could not be found. Available ports are:%n%s", configuration.getSerialPort(), sb));
     }
 
-    public BlockingQueue<AcknowledgementMessage> getAcknowledgedQueue() {
-        return acknowledgedQueue;
-    }
-
     public PlugwiseStickConfig getConfiguration() {
         return configuration;
     }
@@ -132,6 +123,10 @@ public class PlugwiseCommunicationContext {
         return filteredListeners;
     }
 
+    public PlugwiseMessageWindow getMessageWindow() {
+        return messageWindow;
+    }
+
     public BlockingQueue<Message> getReceivedQueue() {
         return receivedQueue;
     }
@@ -140,14 +135,6 @@ public class PlugwiseCommunicationContext {
         return sendQueue;
     }
 
-    public BlockingQueue<PlugwiseQueuedMessage> getSentQueue() {
-        return sentQueue;
-    }
-
-    public ReentrantLock getSentQueueLock() {
-        return sentQueueLock;
-    }
-
     public SerialPort getSerialPort() {
         return serialPort;
     }
@@ -0,0 +1,238 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.plugwise.internal;
+
+import static java.time.ZoneOffset.UTC;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.openhab.binding.plugwise.internal.protocol.PowerBufferResponseMessage;
+import org.openhab.binding.plugwise.internal.protocol.field.Energy;
+import org.openhab.binding.plugwise.internal.protocol.field.MACAddress;
+import org.openhab.binding.plugwise.internal.protocol.field.PowerCalibration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The energy history of a device with a relay (Circle, Circle+, Stealth), read from the log buffer of the device.
+ *
+ * The log address up to which all buffer pages have been read is kept as cursor, so only the pages that are written
+ * after the cursor need to be requested. The cursor and the datapoints are stored in a file, so the buffer is not read
+ * again after a restart.
+ *
+ * @author agent - Initial contribution
+ */
+public class PlugwiseEnergyHistory {
+
+    /** The number of pages that are read when the history of a device is not known yet (one week of hourly data) */
+    private static final int INITIAL_PAGES = 42;
+
+    /** The maximum number of pages that are requested at once */
+    private static final int MAX_REQUESTED_PAGES = 42;
+
+    /** The maximum age of the datapoints that are kept */
+    private static final Duration MAX_AGE = Duration.ofDays(90);
+
+    private final Logger logger = LoggerFactory.getLogger(PlugwiseEnergyHistory.class);
+
+    private final MACAddress macAddress;
+    private final File file;
+    private final NavigableMap<ZonedDateTime, Long> datapoints = new TreeMap<>();
+    private final SortedSet<Integer> receivedLogAddresses = new TreeSet<>();
+
+    private int cursor = -1;
+    private boolean loaded;
+    private boolean changed;
+
+    public PlugwiseEnergyHistory(MACAddress macAddress, File file) {
+        this.macAddress = macAddress;
+        this.file = file;
+    }
+
+    /**
+     * Adds the datapoints of a buffer page and moves the cursor when all pages before the page have been read.
+     *
+     * @param message the received buffer page
+     * @param recentLogAddress the log address that is currently written by the device
+     */
+    public synchronized void add(PowerBufferResponseMessage message, int recentLogAddress) {
+        load();
+        for (Energy datapoint : message.getDatapoints()) {
+            if (datapoint != null) {
+                datapoints.put(datapoint.getUtcEnd(), datapoint.getPulses());
+                changed = true;
+            }
+        }
+
+        // The page at the recent log address is still being written and is read again later
+        int logAddress = message.getLogAddress();
+        if (logAddress > cursor && logAddress < recentLogAddress) {
+            receivedLogAddresses.add(logAddress);
+            advanceCursor();
+        }
+    }
+
+    private void advanceCursor() {
+        receivedLogAddresses.headSet(cursor + 1).clear();
+        while (receivedLogAddresses.remove(cursor + 1)) {
+            cursor++;
+            changed = true;
+        }
+    }
+
+    /**
+     * Returns the log addresses of the buffer pages which have not been read yet, oldest first.
+     *
+     * @param recentLogAddress the log address that is currently written by the device
+     */
+    public synchronized SortedSet<Integer> getMissingLogAddresses(int recentLogAddress) {
+        load();
+        if (cursor >= recentLogAddress) {
+            // The buffer of the device has been reset or has wrapped around
+            logger.debug("Resetting energy history cursor of {} from {} to the recent log address {}", macAddress,
+                    cursor, recentLogAddress);
+            cursor = -1;
+            receivedLogAddresses.clear();
+        }
+        if (cursor < 0) {
+            cursor = Math.max(recentLogAddress - INITIAL_PAGES, 0) - 1;
+            changed = true;
+            advanceCursor();
+        }
+
+        SortedSet<Integer> missingLogAddresses = new TreeSet<>();
+        for (int logAddress = cursor + 1; logAddress < recentLogAddress
+                && missingLogAddresses.size() < MAX_REQUESTED_PAGES; logAddress++) {
+            if (!receivedLogAddresses.contains(logAddress)) {
+                missingLogAddresses.add(logAddress);
+            }
+        }
+        return missingLogAddresses;
+    }
+
+    /**
+     * Returns the consumed/produced energy (kWh) of each measurement interval, keyed by the start of the interval.
+     */
+    public synchronized SortedMap<LocalDateTime, Double> getEnergy(PowerCalibration calibration, Duration interval) {
+        load();
+        return toEnergy(datapoints, calibration, interval);
+    }
+
+    /**
+     * Returns the consumed/produced energy (kWh) of each measurement interval that starts at or after the given time,
+     * keyed by the start of the interval. Only the datapoints of these intervals are converted.
+     */
+    public synchronized SortedMap<LocalDateTime, Double> getEnergySince(LocalDateTime start,
+            PowerCalibration calibration, Duration interval) {
+        load();
+        ZonedDateTime utcEnd = start.atZone(ZoneId.systemDefault()).withZoneSameInstant(UTC).plus(interval);
+        return toEnergy(datapoints.tailMap(utcEnd, true), calibration, interval);
+    }
+
+    private SortedMap<LocalDateTime, Double> toEnergy(NavigableMap<ZonedDateTime, Long> datapoints,
+            PowerCalibration calibration, Duration interval) {
+        SortedMap<LocalDateTime, Double> result = new TreeMap<>();
+        for (Entry<ZonedDateTime, Long> datapoint : datapoints.entrySet()) {
+            Energy energy = new Energy(datapoint.getKey(), datapoint.getValue(), interval);
+            result.put(energy.getStart(), energy.tokWh(calibration));
+        }
+        return result;
+    }
+
+    /**
+     * Stores the cursor and the datapoints, if they have changed since they were stored.
+     */
+    public synchronized void save() {
+        if (!changed) {
+            return;
+        }
+        changed = false;
+        datapoints.headMap(ZonedDateTime.now(UTC).minus(MAX_AGE)).clear();
+
+        File folder = file.getParentFile();
+        if (folder != null && !folder.exists() && !folder.mkdirs()) {
+            logger.debug("Can't create folder for energy history of {}: {}", macAddress, folder);
+            return;
+        }
+        File tempFile = new File(file.getPath() + ".tmp");
+        try (BufferedWriter writer = new BufferedWriter(
+                new OutputStreamWriter(new FileOutputStream(tempFile), StandardCharsets.UTF_8))) {
+            writer.write(Integer.toString(cursor));
+            writer.newLine();
+            for (Entry<ZonedDateTime, Long> datapoint : datapoints.entrySet()) {
+                writer.write(datapoint.getKey().toEpochSecond() + " " + datapoint.getValue());
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            logger.debug("Error writing energy history of {} to {}: {}", macAddress, file, e.getMessage());
+            tempFile.delete();
+            return;
+        }
+        if (file.exists() && !file.delete() || !tempFile.renameTo(file)) {
+            logger.debug("Can't replace energy history of {}: {}", macAddress, file);
+        }
+    }
+
+    /**
+     * Loads the stored cursor and datapoints once. The first line contains the cursor, followed by a line with the
+     * UTC end (epoch seconds) and pulses of each datapoint.
+     */
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        if (!file.exists()) {
+            return;
+        }
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String line = reader.readLine();
+            if (line == null) {
+                return;
+            }
+            int storedCursor = Integer.parseInt(line.trim());
+            NavigableMap<ZonedDateTime, Long> storedDatapoints = new TreeMap<>();
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.trim().split(" ");
+                if (fields.length == 2) {
+                    ZonedDateTime utcEnd = ZonedDateTime.ofInstant(Instant.ofEpochSecond(Long.parseLong(fields[0])),
+                            UTC);
+                    storedDatapoints.put(utcEnd, Long.parseLong(fields[1]));
+                }
+            }
+            cursor = storedCursor;
+            datapoints.putAll(storedDatapoints);
+            logger.debug("Loaded energy history of {} with {} datapoints up to log address {}", macAddress,
+                    storedDatapoints.size(), cursor);
+        } catch (IOException | NumberFormatException e) {
+            logger.debug("Ignoring invalid energy history of {} in {}: {}", macAddress, file, e.getMessage());
+        }
+    }
+
+}
@@ -29,6 +29,11 @@ public enum PlugwiseMessagePriority {
      * Messages for normal state updates and Thing discovery. E.g. scheduled tasks that update the state of a
      * channel.
      */
-    UPDATE_AND_DISCOVERY;
+    UPDATE_AND_DISCOVERY,
+
+    /**
+     * Messages that retrieve historical data in the background, e.g. the energy log buffer of a Circle.
+     */
+    HISTORY;
 
 }
@@ -12,7 +12,6 @@ import static org.openhab.binding.plugwise.internal.PlugwiseCommunicationContext
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
-import java.util.Iterator;
 import java.util.TooManyListenersException;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -115,8 +114,10 @@ public class PlugwiseMessageProcessor implements SerialPortEventListener {
 
                             if (message instanceof AcknowledgementMessage
                                     && !((AcknowledgementMessage) message).isExtended()) {
-                                logger.debug("Adding to acknowledgedQueue: {}", message);
-                                context.getAcknowledgedQueue().put((AcknowledgementMessage) message);
+                                // Acknowledgements are matched right away, so they are known before the responses
+                                // that follow them are processed
+                                logger.debug("Matching acknowledgement: {}", message);
+                                context.getMessageWindow().acknowledged((AcknowledgementMessage) message);
                             } else {
                                 logger.debug("Adding to receivedQueue: {}", message);
                                 context.getReceivedQueue().put(message);
@@ -142,26 +143,11 @@ public class PlugwiseMessageProcessor implements SerialPortEventListener {
     private void processMessage(Message message) {
         context.getFilteredListeners().notifyListeners(message);
 
-        // After processing the response to a message, we remove any reference to the original request
-        // stored in the sentQueue
+        // After processing the response to a message, we remove the original request from the message window
+        // so the next message can be sent
         // WARNING: We assume that each request sent out can only be followed bye EXACTLY ONE response - so
         // far it seems that the Plugwise protocol is operating in that way
-
-        try {
-            context.getSentQueueLock().lock();
-
-            Iterator<PlugwiseQueuedMessage> messageIterator = context.getSentQueue().iterator();
-            while (messageIterator.hasNext()) {
-                PlugwiseQueuedMessage queuedSentMessage = messageIterator.next();
-                if (queuedSentMessage.getMessage().getSequenceNumber() == message.getSequenceNumber()) {
-                    logger.debug("Removing from sentQueue: {}", queuedSentMessage.getMessage());
-                    context.getSentQueue().remove(queuedSentMessage);
-                    break;
-                }
-            }
-        } finally {
-            context.getSentQueueLock().unlock();
-        }
+        context.getMessageWindow().responded(message);
     }
 
     @Override
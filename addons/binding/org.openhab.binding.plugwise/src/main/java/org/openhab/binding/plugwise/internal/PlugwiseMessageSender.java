@@ -16,7 +16,6 @@ import java.nio.channels.Channels;
 import java.nio.channels.WritableByteChannel;
 import java.util.concurrent.TimeUnit;
 
-import org.openhab.binding.plugwise.internal.protocol.AcknowledgementMessage;
 import org.openhab.binding.plugwise.internal.protocol.Message;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -38,13 +37,27 @@ public class PlugwiseMessageSender {
 
         @Override
         public void run() {
+            PlugwiseMessageWindow window = context.getMessageWindow();
             while (!interrupted()) {
                 try {
-                    PlugwiseQueuedMessage queuedMessage = context.getSendQueue().take();
-                    logger.debug("Took message from sendQueue (length={})", context.getSendQueue().size());
+                    window.expire();
+                    if (!window.acquire(POLL_INTERVAL, TimeUnit.MILLISECONDS)) {
+                        continue;
+                    }
+                    PlugwiseQueuedMessage queuedMessage = null;
+                    try {
+                        queuedMessage = context.getSendQueue().poll(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+                    } finally {
+                        // The place in the window is only kept for a message, also when the poll is interrupted
+                        if (queuedMessage == null) {
+                            window.release();
+                        }
+                    }
                     if (queuedMessage == null) {
                         continue;
                     }
+                    logger.debug("Took message from sendQueue (length={}, in flight={})",
+                            context.getSendQueue().size(), window.size());
                     sendMessage(queuedMessage);
                     sleep(context.getConfiguration().getMessageWaitTime());
                 } catch (InterruptedException e) {
@@ -58,8 +71,8 @@ public class PlugwiseMessageSender {
 
     }
 
-    /** Default maximum number of attempts to send a message */
-    private static final int MAX_RETRIES = 1;
+    /** Interval for checking the timeouts of the messages in flight (in ms) */
+    private static final long POLL_INTERVAL = 100;
 
     /** After exceeding this threshold the Stick is set offline */
     private static final int MAX_SEQUENTIAL_WRITE_ERRORS = 15;
@@ -87,62 +100,32 @@ public class PlugwiseMessageSender {
         }
     }
 
-    private void sendMessage(PlugwiseQueuedMessage queuedMessage) throws InterruptedException {
-        if (queuedMessage.getAttempts() < MAX_RETRIES) {
-            queuedMessage.increaseAttempts();
-
-            Message message = queuedMessage.getMessage();
-
-            String messageHexString = message.toHexString();
-            String packetString = PROTOCOL_HEADER + messageHexString + PROTOCOL_TRAILER;
-            ByteBuffer bytebuffer = ByteBuffer.allocate(packetString.length());
-            bytebuffer.put(packetString.getBytes());
-            bytebuffer.rewind();
-
-            try {
-                logger.debug("Sending: {} as {}", message, messageHexString);
-                outputChannel.write(bytebuffer);
-                sequentialWriteErrors = 0;
-            } catch (IOException e) {
-                logger.warn("Error writing '{}' to serial port {}: {}", packetString,
-                        context.getConfiguration().getSerialPort(), e.getMessage());
-                sequentialWriteErrors++;
-                return;
-            }
+    /**
+     * Writes the message to the Stick. The acknowledgement and response are handled asynchronously by the
+     * {@link PlugwiseMessageWindow}, so more messages can be sent while waiting for them.
+     */
+    private void sendMessage(PlugwiseQueuedMessage queuedMessage) {
+        queuedMessage.increaseAttempts();
 
-            // Poll the acknowledgement message for at most 1 second, normally it is received within 75ms
-            AcknowledgementMessage ack = context.getAcknowledgedQueue().poll(1, TimeUnit.SECONDS);
-            logger.debug("Removing from acknowledgedQueue: {}", ack);
+        Message message = queuedMessage.getMessage();
 
-            if (ack == null) {
-                logger.warn("Error sending: No ACK received after 1 second: {}", packetString);
-            } else if (!ack.isSuccess()) {
-                if (ack.isError()) {
-                    logger.warn("Error sending: Negative ACK: {}", packetString);
-                }
-            } else {
-                // Update the sent message with the new sequence number
-                message.setSequenceNumber(ack.getSequenceNumber());
+        String messageHexString = message.toHexString();
+        String packetString = PROTOCOL_HEADER + messageHexString + PROTOCOL_TRAILER;
+        ByteBuffer bytebuffer = ByteBuffer.allocate(packetString.length());
+        bytebuffer.put(packetString.getBytes());
+        bytebuffer.rewind();
 
-                // Place the sent message in the sent queue
-                logger.debug("Adding to sentQueue: {}", message);
-                context.getSentQueueLock().lock();
-                try {
-                    if (context.getSentQueue().size() == PlugwiseCommunicationContext.MAX_BUFFER_SIZE) {
-                        // For some reason Plugwise devices, or the Stick, does not send responses to Requests.
-                        // They clog the sent queue. Let's flush some part of the queue
-                        PlugwiseQueuedMessage someMessage = context.getSentQueue().poll();
-                        logger.debug("Flushing from sentQueue: {}", someMessage);
-                    }
-                    context.getSentQueue().put(queuedMessage);
-                } finally {
-                    context.getSentQueueLock().unlock();
-                }
-            }
-        } else {
-            // Max attempts reached. We give up, and to a network reset
-            logger.warn("Giving up on Plugwise message after {} attempts: {}", queuedMessage.getAttempts(),
-                    queuedMessage.getMessage());
+        try {
+            logger.debug("Sending: {} as {}", message, messageHexString);
+            // Add the message before writing it, so its acknowledgement can always be matched
+            context.getMessageWindow().sent(queuedMessage);
+            outputChannel.write(bytebuffer);
+            sequentialWriteErrors = 0;
+        } catch (IOException e) {
+            logger.warn("Error writing '{}' to serial port {}: {}", packetString,
+                    context.getConfiguration().getSerialPort(), e.getMessage());
+            sequentialWriteErrors++;
+            context.getMessageWindow().unsent(queuedMessage);
         }
     }
 
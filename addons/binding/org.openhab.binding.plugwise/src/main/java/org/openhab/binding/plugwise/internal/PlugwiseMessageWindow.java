@@ -0,0 +1,229 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.plugwise.internal;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.openhab.binding.plugwise.internal.protocol.AcknowledgementMessage;
+import org.openhab.binding.plugwise.internal.protocol.Message;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps track of the messages that have been sent to the Stick and are not answered yet, so several messages can be
+ * in flight at the same time.
+ *
+ * The Stick acknowledges the messages in the order they are written and assigns a sequence number to each message in
+ * its acknowledgement. The response of a node carries the same sequence number, so it is matched with the sent
+ * message by a lookup of this number. Each message times out independently of the other messages in flight, messages
+ * which are not acknowledged in time are sent again. Because the acknowledgements are matched by their order, the late
+ * acknowledgement of an expired message is dropped instead of being matched with the next message.
+ *
+ * @author agent - Initial contribution
+ */
+public class PlugwiseMessageWindow {
+
+    /** Maximum number of messages in flight */
+    public static final int WINDOW_SIZE = 4;
+
+    /** Maximum number of attempts to send a message */
+    private static final int MAX_ATTEMPTS = 2;
+
+    /** Time to wait for an acknowledgement, normally it is received within 75ms */
+    private static final long ACKNOWLEDGEMENT_TIMEOUT = TimeUnit.SECONDS.toMillis(1);
+
+    /** Time to wait for the response to an acknowledged message */
+    private static final long RESPONSE_TIMEOUT = TimeUnit.SECONDS.toMillis(5);
+
+    /** Time after the expiry of an unacknowledged message in which its acknowledgement is still expected */
+    private static final long LATE_ACKNOWLEDGEMENT_TIMEOUT = TimeUnit.SECONDS.toMillis(2);
+
+    private final Logger logger = LoggerFactory.getLogger(PlugwiseMessageWindow.class);
+    private final PriorityBlockingQueue<PlugwiseQueuedMessage> sendQueue;
+    private final Semaphore permits = new Semaphore(WINDOW_SIZE);
+    private final Queue<PlugwiseQueuedMessage> unacknowledgedMessages = new LinkedList<>();
+    private final Map<Integer, PlugwiseQueuedMessage> acknowledgedMessages = new HashMap<>();
+    private final Queue<Long> lateAcknowledgementDeadlines = new LinkedList<>();
+    private final LongSupplier clock;
+
+    public PlugwiseMessageWindow(PriorityBlockingQueue<PlugwiseQueuedMessage> sendQueue) {
+        this(sendQueue, System::currentTimeMillis);
+    }
+
+    PlugwiseMessageWindow(PriorityBlockingQueue<PlugwiseQueuedMessage> sendQueue, LongSupplier clock) {
+        this.sendQueue = sendQueue;
+        this.clock = clock;
+    }
+
+    /**
+     * Waits until another message can be sent.
+     *
+     * @return true if a message can be sent, false if the window is still full after the timeout
+     */
+    public boolean acquire(long timeout, TimeUnit unit) throws InterruptedException {
+        return permits.tryAcquire(timeout, unit);
+    }
+
+    /**
+     * Releases an acquired place in the window without sending a message.
+     */
+    public void release() {
+        permits.release();
+    }
+
+    /**
+     * Adds a message that has just been written to the Stick and waits for its acknowledgement.
+     */
+    public synchronized void sent(PlugwiseQueuedMessage queuedMessage) {
+        queuedMessage.setSentTime(clock.getAsLong());
+        unacknowledgedMessages.add(queuedMessage);
+    }
+
+    /**
+     * Removes a message that could not be written to the Stick, it will not be acknowledged.
+     */
+    public synchronized void unsent(PlugwiseQueuedMessage queuedMessage) {
+        if (unacknowledgedMessages.remove(queuedMessage)) {
+            permits.release();
+        }
+    }
+
+    /**
+     * Matches the acknowledgement of the Stick with the oldest unacknowledged message, unless it is the late
+     * acknowledgement of an expired message.
+     */
+    public synchronized void acknowledged(AcknowledgementMessage ack) {
+        long now = clock.getAsLong();
+        Long deadline = lateAcknowledgementDeadlines.peek();
+        while (deadline != null && now > deadline) {
+            lateAcknowledgementDeadlines.remove();
+            deadline = lateAcknowledgementDeadlines.peek();
+        }
+        if (lateAcknowledgementDeadlines.poll() != null) {
+            // The expired message has already been sent again or given up
+            logger.debug("Ignoring late acknowledgement of an expired message: {}", ack);
+            return;
+        }
+
+        PlugwiseQueuedMessage queuedMessage = unacknowledgedMessages.poll();
+        if (queuedMessage == null) {
+            logger.debug("Ignoring acknowledgement without unacknowledged message: {}", ack);
+            return;
+        }
+
+        if (ack.isSuccess()) {
+            // Update the sent message with the new sequence number
+            queuedMessage.getMessage().setSequenceNumber(ack.getSequenceNumber());
+            queuedMessage.setSentTime(now);
+
+            logger.debug("Adding to acknowledged messages: {}", queuedMessage.getMessage());
+            PlugwiseQueuedMessage previousMessage = acknowledgedMessages.put(ack.getSequenceNumber(), queuedMessage);
+            if (previousMessage != null) {
+                // The sequence number is reused by the Stick, so the previous message will not get a response
+                logger.debug("Flushing from acknowledged messages: {}", previousMessage.getMessage());
+                permits.release();
+            }
+        } else if (ack.isError()) {
+            logger.warn("Error sending: Negative ACK: {}", queuedMessage.getMessage());
+            retry(queuedMessage);
+        } else {
+            logger.debug("Removing message without successful ACK: {}", queuedMessage.getMessage());
+            permits.release();
+        }
+    }
+
+    /**
+     * Removes the acknowledged message the response belongs to.
+     */
+    public synchronized void responded(Message response) {
+        PlugwiseQueuedMessage queuedMessage = acknowledgedMessages.remove(response.getSequenceNumber());
+        if (queuedMessage != null) {
+            logger.debug("Removing from acknowledged messages: {}", queuedMessage.getMessage());
+            permits.release();
+        }
+    }
+
+    /**
+     * Retries or gives up the messages which have not been acknowledged or answered in time.
+     */
+    public synchronized void expire() {
+        long now = clock.getAsLong();
+
+        // Messages are acknowledged in the order they are sent, so only the oldest messages can be expired
+        PlugwiseQueuedMessage queuedMessage = unacknowledgedMessages.peek();
+        while (queuedMessage != null && now - queuedMessage.getSentTime() > ACKNOWLEDGEMENT_TIMEOUT) {
+            unacknowledgedMessages.remove();
+            lateAcknowledgementDeadlines.add(now + LATE_ACKNOWLEDGEMENT_TIMEOUT);
+            logger.warn("Error sending: No ACK received after {}ms: {}", ACKNOWLEDGEMENT_TIMEOUT,
+                    queuedMessage.getMessage());
+            retry(queuedMessage);
+            queuedMessage = unacknowledgedMessages.peek();
+        }
+
+        Iterator<PlugwiseQueuedMessage> iterator = acknowledgedMessages.values().iterator();
+        while (iterator.hasNext()) {
+            queuedMessage = iterator.next();
+            if (now - queuedMessage.getSentTime() > RESPONSE_TIMEOUT) {
+                // For some reason Plugwise devices, or the Stick, do not send responses to all requests. These
+                // requests are flushed instead of retried, so they do not clog the window
+                iterator.remove();
+                logger.debug("Flushing from acknowledged messages, no response received after {}ms: {}",
+                        RESPONSE_TIMEOUT, queuedMessage.getMessage());
+                permits.release();
+            }
+        }
+    }
+
+    private void retry(PlugwiseQueuedMessage queuedMessage) {
+        permits.release();
+        if (queuedMessage.getAttempts() < MAX_ATTEMPTS) {
+            logger.debug("Adding {} message to sendQueue for retry: {}", queuedMessage.getPriority(),
+                    queuedMessage.getMessage());
+            sendQueue.put(queuedMessage);
+        } else {
+            logger.warn("Giving up on Plugwise message after {} attempts: {}", queuedMessage.getAttempts(),
+                    queuedMessage.getMessage());
+        }
+    }
+
+    /**
+     * Removes all messages in flight. Only their places in the window are released, a place that has been acquired for
+     * a message which is not sent yet stays acquired.
+     */
+    public synchronized void clear() {
+        int removedMessages = size();
+        unacknowledgedMessages.clear();
+        acknowledgedMessages.clear();
+        lateAcknowledgementDeadlines.clear();
+        permits.release(removedMessages);
+    }
+
+    /**
+     * Returns the number of messages which can be sent before the window is full.
+     */
+    int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    /**
+     * Returns the number of messages which have been sent and are not answered yet.
+     */
+    public synchronized int size() {
+        return unacknowledgedMessages.size() + acknowledgedMessages.size();
+    }
+
+}
@@ -23,6 +23,7 @@ public class PlugwiseQueuedMessage {
     private final LocalDateTime dateTime = LocalDateTime.now();
     private final Message message;
     private int attempts;
+    private long sentTime;
 
     public PlugwiseQueuedMessage(Message message, PlugwiseMessagePriority priority) {
         this.message = message;
@@ -45,7 +46,15 @@ public class PlugwiseQueuedMessage {
         return priority;
     }
 
+    public long getSentTime() {
+        return sentTime;
+    }
+
     public void increaseAttempts() {
         attempts++;
     }
+
+    public void setSentTime(long sentTime) {
+        this.sentTime = sentTime;
+    }
 }
@@ -65,6 +65,10 @@ public class Energy {
         return interval;
     }
 
+    public ZonedDateTime getUtcEnd() {
+        return utcEnd;
+    }
+
     public long getPulses() {
         return pulses;
     }
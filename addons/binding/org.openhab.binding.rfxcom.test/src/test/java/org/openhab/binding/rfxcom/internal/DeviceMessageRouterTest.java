@@ -0,0 +1,94 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.rfxcom.internal;
+
+import static org.junit.Assert.*;
+import static org.openhab.binding.rfxcom.RFXComBindingConstants.PACKET_TYPE_THING_TYPE_UID_MAP;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.xml.bind.DatatypeConverter;
+
+import org.eclipse.smarthome.core.thing.ThingTypeUID;
+import org.eclipse.smarthome.core.thing.ThingUID;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.rfxcom.internal.exceptions.RFXComException;
+import org.openhab.binding.rfxcom.internal.messages.RFXComBaseMessage.PacketType;
+import org.openhab.binding.rfxcom.internal.messages.RFXComMessage;
+import org.openhab.binding.rfxcom.internal.messages.RFXComMessageFactory;
+
+/**
+ * Test for the routing of device messages.
+ *
+ * @author agent - Initial contribution
+ */
+public class DeviceMessageRouterTest {
+    private static final ThingUID BRIDGE = new ThingUID("rfxcom:bridge:test");
+    private static final ThingTypeUID TEMPERATURE = PACKET_TYPE_THING_TYPE_UID_MAP.get(PacketType.TEMPERATURE);
+    private static final ThingTypeUID HUMIDITY = PACKET_TYPE_THING_TYPE_UID_MAP.get(PacketType.HUMIDITY);
+
+    private DeviceMessageRouter router;
+    private AtomicInteger discoveryCalls;
+    private DeviceMessageListener discovery;
+    private RFXComMessage message;
+
+    @Before
+    public void setUp() throws RFXComException {
+        router = new DeviceMessageRouter();
+        discoveryCalls = new AtomicInteger();
+        discovery = (bridge, msg) -> discoveryCalls.incrementAndGet();
+        router.register(discovery);
+        // temperature sensor with id 1
+        message = RFXComMessageFactory.createMessage(DatatypeConverter.parseHexBinary("08500110000180BC69"));
+    }
+
+    @Test
+    public void unknownDeviceIsRoutedToDiscovery() throws RFXComException {
+        AtomicInteger otherCalls = new AtomicInteger();
+        router.register(TEMPERATURE, "2", (bridge, msg) -> otherCalls.incrementAndGet());
+        router.register(HUMIDITY, "1", (bridge, msg) -> otherCalls.incrementAndGet());
+
+        assertEquals(1, router.route(BRIDGE, message));
+        assertEquals(1, discoveryCalls.get());
+        assertEquals(0, otherCalls.get());
+    }
+
+    @Test
+    public void knownDeviceIsRoutedOnlyToItsListener() throws RFXComException {
+        AtomicInteger matchingCalls = new AtomicInteger();
+        AtomicInteger otherCalls = new AtomicInteger();
+        for (int i = 2; i < 150; i++) {
+            router.register(TEMPERATURE, String.valueOf(i), (bridge, msg) -> otherCalls.incrementAndGet());
+        }
+        router.register(TEMPERATURE, "1", (bridge, msg) -> matchingCalls.incrementAndGet());
+
+        assertEquals(1, router.route(BRIDGE, message));
+        assertEquals(1, matchingCalls.get());
+        assertEquals(0, otherCalls.get());
+        assertEquals(0, discoveryCalls.get());
+    }
+
+    @Test
+    public void reregistrationMovesListener() throws RFXComException {
+        AtomicInteger calls = new AtomicInteger();
+        DeviceMessageListener listener = (bridge, msg) -> calls.incrementAndGet();
+        assertTrue(router.register(TEMPERATURE, "1", listener));
+        assertFalse(router.register(TEMPERATURE, "1", listener));
+        assertTrue(router.register(TEMPERATURE, "3", listener));
+
+        router.route(BRIDGE, message);
+        assertEquals(0, calls.get());
+        assertEquals(1, discoveryCalls.get());
+
+        assertTrue(router.unregister(listener));
+        assertFalse(router.unregister(listener));
+        assertEquals(1, router.getListeners().size());
+    }
+}
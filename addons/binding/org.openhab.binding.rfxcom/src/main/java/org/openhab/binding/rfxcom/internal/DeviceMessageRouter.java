@@ -0,0 +1,143 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.rfxcom.internal;
+
+import static org.openhab.binding.rfxcom.RFXComBindingConstants.PACKET_TYPE_THING_TYPE_UID_MAP;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.eclipse.smarthome.core.thing.ThingTypeUID;
+import org.eclipse.smarthome.core.thing.ThingUID;
+import org.openhab.binding.rfxcom.internal.exceptions.RFXComException;
+import org.openhab.binding.rfxcom.internal.messages.RFXComBaseMessage;
+import org.openhab.binding.rfxcom.internal.messages.RFXComMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link DeviceMessageRouter} dispatches received device messages to the {@link DeviceMessageListener}s.
+ *
+ * Listeners of a specific device are indexed by thing type and device id, so that a message is only passed to the
+ * listeners of its device. Messages of devices without a registered listener are passed to the listeners which are
+ * registered without a device (e.g. the discovery service).
+ *
+ * @author agent - Initial contribution
+ */
+public class DeviceMessageRouter {
+    private final Logger logger = LoggerFactory.getLogger(DeviceMessageRouter.class);
+
+    private final Map<String, List<DeviceMessageListener>> deviceListeners = new ConcurrentHashMap<>();
+    private final Map<DeviceMessageListener, String> deviceKeys = new ConcurrentHashMap<>();
+    private final List<DeviceMessageListener> unknownDeviceListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Registers a listener for the messages of all devices, which have no listener of their own.
+     *
+     * @return false if the listener has been registered already
+     */
+    public boolean register(DeviceMessageListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("It's not allowed to pass a null deviceStatusListener.");
+        }
+        return unknownDeviceListeners.contains(listener) ? false : unknownDeviceListeners.add(listener);
+    }
+
+    /**
+     * Registers a listener for the messages of one device. A previous registration of the listener for another
+     * device is removed.
+     *
+     * @return false if the listener has been registered for this device already
+     */
+    public synchronized boolean register(ThingTypeUID thingTypeUID, String deviceId, DeviceMessageListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("It's not allowed to pass a null deviceStatusListener.");
+        }
+        String key = getKey(thingTypeUID, deviceId);
+        String previousKey = deviceKeys.get(listener);
+        if (key.equals(previousKey)) {
+            return false;
+        }
+        if (previousKey != null) {
+            removeDeviceListener(previousKey, listener);
+        }
+        deviceKeys.put(listener, key);
+        deviceListeners.computeIfAbsent(key, k -> new CopyOnWriteArrayList<>()).add(listener);
+        return true;
+    }
+
+    /**
+     * Removes all registrations of the listener.
+     *
+     * @return false if the listener was not registered
+     */
+    public synchronized boolean unregister(DeviceMessageListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("It's not allowed to pass a null deviceStatusListener.");
+        }
+        boolean removed = unknownDeviceListeners.remove(listener);
+        String key = deviceKeys.remove(listener);
+        if (key != null) {
+            removeDeviceListener(key, listener);
+            removed = true;
+        }
+        return removed;
+    }
+
+    private void removeDeviceListener(String key, DeviceMessageListener listener) {
+        List<DeviceMessageListener> listeners = deviceListeners.get(key);
+        if (listeners != null) {
+            listeners.remove(listener);
+            if (listeners.isEmpty()) {
+                deviceListeners.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Returns all registered listeners.
+     */
+    public List<DeviceMessageListener> getListeners() {
+        List<DeviceMessageListener> listeners = new ArrayList<>(unknownDeviceListeners);
+        listeners.addAll(deviceKeys.keySet());
+        return listeners;
+    }
+
+    /**
+     * Passes the message to the listeners of its device, or to the listeners for unknown devices if there are none.
+     *
+     * @return the number of notified listeners
+     */
+    public int route(ThingUID bridge, RFXComMessage message) throws RFXComException {
+        List<DeviceMessageListener> listeners = null;
+        ThingTypeUID thingTypeUID = PACKET_TYPE_THING_TYPE_UID_MAP.get(((RFXComBaseMessage) message).packetType);
+        if (thingTypeUID != null) {
+            listeners = deviceListeners.get(getKey(thingTypeUID, message.getDeviceId()));
+        }
+        if (listeners == null || listeners.isEmpty()) {
+            listeners = unknownDeviceListeners;
+        }
+
+        for (DeviceMessageListener listener : listeners) {
+            try {
+                listener.onDeviceMessageReceived(bridge, message);
+            } catch (Exception e) {
+                logger.error("An exception occurred while calling the DeviceStatusListener", e);
+            }
+        }
+        return listeners.size();
+    }
+
+    private static String getKey(ThingTypeUID thingTypeUID, String deviceId) {
+        return thingTypeUID.getId() + ":" + deviceId;
+    }
+}
@@ -75,6 +75,14 @@ public abstract class RFXComBaseMessage implements RFXComMessage {
         FS20(114),
         IO_LINES(128);
 
+        private static final PacketType[] PACKET_TYPES = new PacketType[256];
+
+        static {
+            for (PacketType packetType : values()) {
+                PACKET_TYPES[packetType.packetType] = packetType;
+            }
+        }
+
         private final int packetType;
 
         PacketType(int packetType) {
@@ -86,10 +94,8 @@ public abstract class RFXComBaseMessage implements RFXComMessage {
         }
 
         public static PacketType fromByte(int input) throws RFXComUnsupportedValueException {
-            for (PacketType packetType : PacketType.values()) {
-                if (packetType.packetType == input) {
-                    return packetType;
-                }
+            if (input >= 0 && input < PACKET_TYPES.length && PACKET_TYPES[input] != null) {
+                return PACKET_TYPES[input];
             }
 
             throw new RFXComUnsupportedValueException(PacketType.class, input);
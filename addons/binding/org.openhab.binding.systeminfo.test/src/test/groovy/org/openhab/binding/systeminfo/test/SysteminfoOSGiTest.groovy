@@ -798,6 +798,60 @@ class SysteminfoOSGiTest extends OSGiTest{
         assertItemState(acceptedItemType, DEFAULT_TEST_ITEM_NAME, DEFAULT_CHANNEL_TEST_PRIORITY)
     }
 
+    @Test
+    public void 'assert channel jvm#heapUsed is updated' () {
+        String channnelID = SysteminfoBindingConstants.CHANNEL_JVM_HEAP_USED
+        String acceptedItemType = "Number";
+
+        initializeThingWithChannel(channnelID,acceptedItemType);
+        assertItemState(acceptedItemType,DEFAULT_TEST_ITEM_NAME,DEFAULT_CHANNEL_TEST_PRIORITY);
+    }
+
+    @Test
+    public void 'assert channel jvm#gcTime is updated' () {
+        String channnelID = SysteminfoBindingConstants.CHANNEL_JVM_GC_TIME
+        String acceptedItemType = "Number";
+
+        initializeThingWithChannel(channnelID,acceptedItemType);
+        assertItemState(acceptedItemType,DEFAULT_TEST_ITEM_NAME,DEFAULT_CHANNEL_TEST_PRIORITY);
+    }
+
+    @Test
+    public void 'assert channel jvm#threadsRunnable is updated' () {
+        String channnelID = SysteminfoBindingConstants.CHANNEL_JVM_THREADS_RUNNABLE
+        String acceptedItemType = "Number";
+
+        initializeThingWithChannel(channnelID,acceptedItemType);
+        assertItemState(acceptedItemType,DEFAULT_TEST_ITEM_NAME,DEFAULT_CHANNEL_TEST_PRIORITY);
+    }
+
+    @Test
+    public void 'assert channel jvm#poolThreads is updated' () {
+        String channnelID = SysteminfoBindingConstants.CHANNEL_JVM_POOL_THREADS
+        String acceptedItemType = "Number";
+
+        initializeThingWithChannel(channnelID,acceptedItemType);
+        assertItemState(acceptedItemType,DEFAULT_TEST_ITEM_NAME,DEFAULT_CHANNEL_TEST_PRIORITY);
+    }
+
+    @Test
+    public void 'assert channel jvm#poolQueuedTasks is updated' () {
+        String channnelID = SysteminfoBindingConstants.CHANNEL_JVM_POOL_QUEUED_TASKS
+        String acceptedItemType = "Number";
+
+        initializeThingWithChannel(channnelID,acceptedItemType);
+        assertItemState(acceptedItemType,DEFAULT_TEST_ITEM_NAME,DEFAULT_CHANNEL_TEST_PRIORITY);
+    }
+
+    @Test
+    public void 'assert channel jvm#eventRate is updated' () {
+        String channnelID = SysteminfoBindingConstants.CHANNEL_JVM_EVENT_RATE
+        String acceptedItemType = "Number";
+
+        initializeThingWithChannel(channnelID,acceptedItemType);
+        assertItemState(acceptedItemType,DEFAULT_TEST_ITEM_NAME,DEFAULT_CHANNEL_TEST_PRIORITY);
+    }
+
     @Test
     public void 'test thing handles channel priority change' () {
         def priorityKey = "priority"
@@ -301,6 +301,76 @@ public class SysteminfoBindingConstants {
      */
     public static final String CHANNEL_PROCESS_PATH = "process#path";
 
+    /**
+     * Size of the heap memory used by the Java virtual machine in MB
+     */
+    public static final String CHANNEL_JVM_HEAP_USED = "jvm#heapUsed";
+
+    /**
+     * Maximum size of the heap memory of the Java virtual machine in MB
+     */
+    public static final String CHANNEL_JVM_HEAP_MAX = "jvm#heapMax";
+
+    /**
+     * Size of the non-heap memory used by the Java virtual machine in MB
+     */
+    public static final String CHANNEL_JVM_NON_HEAP_USED = "jvm#nonHeapUsed";
+
+    /**
+     * Size of the memory used by direct and mapped buffers in MB
+     */
+    public static final String CHANNEL_JVM_BUFFER_USED = "jvm#bufferUsed";
+
+    /**
+     * Number of garbage collections
+     */
+    public static final String CHANNEL_JVM_GC_COUNT = "jvm#gcCount";
+
+    /**
+     * Accumulated garbage collection time in milliseconds
+     */
+    public static final String CHANNEL_JVM_GC_TIME = "jvm#gcTime";
+
+    /**
+     * Number of live threads of the Java virtual machine
+     */
+    public static final String CHANNEL_JVM_THREADS = "jvm#threads";
+
+    /**
+     * Number of threads in state RUNNABLE
+     */
+    public static final String CHANNEL_JVM_THREADS_RUNNABLE = "jvm#threadsRunnable";
+
+    /**
+     * Number of threads in state BLOCKED
+     */
+    public static final String CHANNEL_JVM_THREADS_BLOCKED = "jvm#threadsBlocked";
+
+    /**
+     * Number of threads in state WAITING or TIMED_WAITING
+     */
+    public static final String CHANNEL_JVM_THREADS_WAITING = "jvm#threadsWaiting";
+
+    /**
+     * Number of threads of a thread pool
+     */
+    public static final String CHANNEL_JVM_POOL_THREADS = "jvm#poolThreads";
+
+    /**
+     * Number of threads of a thread pool, which are executing a task
+     */
+    public static final String CHANNEL_JVM_POOL_ACTIVE_THREADS = "jvm#poolActiveThreads";
+
+    /**
+     * Number of tasks waiting in the queue of a thread pool
+     */
+    public static final String CHANNEL_JVM_POOL_QUEUED_TASKS = "jvm#poolQueuedTasks";
+
+    /**
+     * Number of events per second posted on the event bus
+     */
+    public static final String CHANNEL_JVM_EVENT_RATE = "jvm#eventRate";
+
     // Thing configuraion
     /**
      * Name of the configuration parameter of the thing that defines refresh time for High priority channels
@@ -325,4 +395,9 @@ public class SysteminfoBindingConstants {
      */
     public static final String PID_PARAM = "pid";
 
+    /**
+     * Name of the channel configuration parameter pool
+     */
+    public static final String POOL_PARAM = "pool";
+
 }
@@ -20,6 +20,7 @@ import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 import org.eclipse.smarthome.config.core.Configuration;
+import org.eclipse.smarthome.core.events.EventSubscriber;
 import org.eclipse.smarthome.core.thing.Channel;
 import org.eclipse.smarthome.core.thing.ChannelUID;
 import org.eclipse.smarthome.core.thing.Thing;
@@ -31,8 +32,10 @@ import org.eclipse.smarthome.core.types.RefreshType;
 import org.eclipse.smarthome.core.types.State;
 import org.eclipse.smarthome.core.types.UnDefType;
 import org.openhab.binding.systeminfo.internal.model.DeviceNotFoundException;
+import org.openhab.binding.systeminfo.internal.model.EventRateCounter;
 import org.openhab.binding.systeminfo.internal.model.OshiSysteminfo;
 import org.openhab.binding.systeminfo.internal.model.SysteminfoInterface;
+import org.osgi.framework.ServiceRegistration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -81,11 +84,25 @@ public class SysteminfoHandler extends BaseThingHandler {
      */
     private static final int WAIT_TIME_CHANNEL_ITEM_LINK_INIT = 1;
 
+    /**
+     * Default value of the channel configuration parameter pool - the thread pool of the thing handlers.
+     */
+    private static final String DEFAULT_POOL = "thingHandler";
+
     private OshiSysteminfo systeminfo;
 
+    private EventRateCounter eventRateCounter;
+    private ServiceRegistration<?> eventRateCounterRegistration;
+
     ScheduledFuture<?> highPriorityTasks;
     ScheduledFuture<?> mediumPriorityTasks;
 
+    /**
+     * Guards the sampling and the publishing of a refresh cycle, so a cycle never publishes values of the sample that
+     * another cycle has started in the meantime.
+     */
+    private final Object refreshLock = new Object();
+
     private Logger logger = LoggerFactory.getLogger(SysteminfoHandler.class);
 
     public SysteminfoHandler(Thing thing) {
@@ -97,6 +114,7 @@ public class SysteminfoHandler extends BaseThingHandler {
         logger.debug("Start initializing!");
 
         if (instantiateSysteminfoLibrary() && isConfigurationValid() && updateProperties()) {
+            registerEventRateCounter();
             groupChannelsByPriority();
             scheduleUpdates();
             logger.debug("Thing is successfully initialized!");
@@ -119,6 +137,23 @@ public class SysteminfoHandler extends BaseThingHandler {
         }
     }
 
+    private void registerEventRateCounter() {
+        if (eventRateCounterRegistration == null) {
+            eventRateCounter = new EventRateCounter();
+            eventRateCounterRegistration = bundleContext.registerService(EventSubscriber.class.getName(),
+                    eventRateCounter, null);
+            logger.debug("Event rate counter is registered!");
+        }
+    }
+
+    private void unregisterEventRateCounter() {
+        if (eventRateCounterRegistration != null) {
+            eventRateCounterRegistration.unregister();
+            eventRateCounterRegistration = null;
+            logger.debug("Event rate counter is unregistered!");
+        }
+    }
+
     private boolean isConfigurationValid() {
         logger.debug("Start reading Thing configuration.");
         try {
@@ -214,7 +249,12 @@ public class SysteminfoHandler extends BaseThingHandler {
         highPriorityTasks = scheduler.scheduleWithFixedDelay(new Runnable() {
             @Override
             public void run() {
-                publishData(highPriorityChannels);
+                synchronized (refreshLock) {
+                    long start = System.nanoTime();
+                    systeminfo.updateSnapshot();
+                    publishData(highPriorityChannels);
+                    logSamplingTime("high", start);
+                }
             }
         }, WAIT_TIME_CHANNEL_ITEM_LINK_INIT, refreshIntervalHighPriority.intValue(), TimeUnit.SECONDS);
 
@@ -222,8 +262,13 @@ public class SysteminfoHandler extends BaseThingHandler {
         mediumPriorityTasks = scheduler.scheduleWithFixedDelay(new Runnable() {
             @Override
             public void run() {
-                systeminfo.updateStaticObjects();
-                publishData(mediumPriorityChannels);
+                synchronized (refreshLock) {
+                    long start = System.nanoTime();
+                    systeminfo.updateStaticObjects();
+                    systeminfo.updateSnapshot();
+                    publishData(mediumPriorityChannels);
+                    logSamplingTime("medium", start);
+                }
             }
         }, WAIT_TIME_CHANNEL_ITEM_LINK_INIT, refreshIntervalMediumPriority.intValue(), TimeUnit.SECONDS);
 
@@ -231,12 +276,19 @@ public class SysteminfoHandler extends BaseThingHandler {
         scheduler.schedule(new Runnable() {
             @Override
             public void run() {
-                publishData(lowPriorityChannels);
+                synchronized (refreshLock) {
+                    publishData(lowPriorityChannels);
+                }
             }
         }, WAIT_TIME_CHANNEL_ITEM_LINK_INIT, TimeUnit.SECONDS);
 
     }
 
+    private void logSamplingTime(String priority, long startNanos) {
+        logger.debug("Sampled system information for {} priority channels in {} ms.", priority,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+    }
+
     private void publishData(Set<ChannelUID> channels) {
         if (channels != null) {
             Iterator<ChannelUID> iter = channels.iterator();
@@ -430,6 +482,48 @@ public class SysteminfoHandler extends BaseThingHandler {
                 case CHANNEL_PROCESS_THREADS:
                     state = systeminfo.getProcessThreads(deviceIndex);
                     break;
+                case CHANNEL_JVM_HEAP_USED:
+                    state = systeminfo.getJvmHeapUsed();
+                    break;
+                case CHANNEL_JVM_HEAP_MAX:
+                    state = systeminfo.getJvmHeapMax();
+                    break;
+                case CHANNEL_JVM_NON_HEAP_USED:
+                    state = systeminfo.getJvmNonHeapUsed();
+                    break;
+                case CHANNEL_JVM_BUFFER_USED:
+                    state = systeminfo.getJvmBufferUsed();
+                    break;
+                case CHANNEL_JVM_GC_COUNT:
+                    state = systeminfo.getJvmGcCount();
+                    break;
+                case CHANNEL_JVM_GC_TIME:
+                    state = systeminfo.getJvmGcTime();
+                    break;
+                case CHANNEL_JVM_THREADS:
+                    state = systeminfo.getJvmThreads();
+                    break;
+                case CHANNEL_JVM_THREADS_RUNNABLE:
+                    state = systeminfo.getJvmThreads(Thread.State.RUNNABLE);
+                    break;
+                case CHANNEL_JVM_THREADS_BLOCKED:
+                    state = systeminfo.getJvmThreads(Thread.State.BLOCKED);
+                    break;
+                case CHANNEL_JVM_THREADS_WAITING:
+                    state = systeminfo.getJvmThreads(Thread.State.WAITING, Thread.State.TIMED_WAITING);
+                    break;
+                case CHANNEL_JVM_POOL_THREADS:
+                    state = systeminfo.getJvmPoolThreads(getPoolName(channelUID));
+                    break;
+                case CHANNEL_JVM_POOL_ACTIVE_THREADS:
+                    state = systeminfo.getJvmPoolActiveThreads(getPoolName(channelUID));
+                    break;
+                case CHANNEL_JVM_POOL_QUEUED_TASKS:
+                    state = systeminfo.getJvmPoolQueuedTasks(getPoolName(channelUID));
+                    break;
+                case CHANNEL_JVM_EVENT_RATE:
+                    state = eventRateCounter != null ? eventRateCounter.getEventRate() : null;
+                    break;
                 default:
                     logger.error("Channel with unknown ID: {} !", channelID);
             }
@@ -496,6 +590,22 @@ public class SysteminfoHandler extends BaseThingHandler {
         return pid;
     }
 
+    /**
+     * This method gets the name of the thread pool, which is tracked by a channel
+     *
+     * @param channelUID - channel unique identifier
+     * @return name of the thread pool
+     */
+    private String getPoolName(ChannelUID channelUID) {
+        Configuration channelProperties = this.thing.getChannel(channelUID.getId()).getConfiguration();
+        Object poolName = channelProperties.get(POOL_PARAM);
+        if (poolName instanceof String && !((String) poolName).isEmpty()) {
+            return (String) poolName;
+        }
+        logger.debug("Channel configuration can not be read ! Fall back to default value {}.", DEFAULT_POOL);
+        return DEFAULT_POOL;
+    }
+
     @Override
     public void handleCommand(ChannelUID channelUID, Command command) {
         if (thing.getStatus().equals(ThingStatus.ONLINE)) {
@@ -555,6 +665,11 @@ public class SysteminfoHandler extends BaseThingHandler {
                 isChannelConfigChanged = true;
                 handleChannelConfigurationChange(oldChannel, newChannelConfig, PID_PARAM);
             }
+
+            if (isConfigurationKeyChanged(currentChannelConfig, newChannelConfig, POOL_PARAM)) {
+                isChannelConfigChanged = true;
+                handleChannelConfigurationChange(oldChannel, newChannelConfig, POOL_PARAM);
+            }
         }
 
         if (!(isInitialized() && isChannelConfigChanged)) {
@@ -588,6 +703,7 @@ public class SysteminfoHandler extends BaseThingHandler {
     @Override
     public void dispose() {
         stopScheduledUpdates();
+        unregisterEventRateCounter();
     }
 
 }
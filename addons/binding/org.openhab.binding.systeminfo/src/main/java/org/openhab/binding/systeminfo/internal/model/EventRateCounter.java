@@ -0,0 +1,73 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.systeminfo.internal.model;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.smarthome.core.events.Event;
+import org.eclipse.smarthome.core.events.EventFilter;
+import org.eclipse.smarthome.core.events.EventSubscriber;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+
+/**
+ * The {@link EventRateCounter} counts the events posted on the event bus, in order to provide the throughput of the
+ * event bus. Receiving an event only increments a counter, the rate is calculated when it is requested.
+ *
+ * @author agent - Initial contribution
+ *
+ */
+public class EventRateCounter implements EventSubscriber {
+
+    /**
+     * Minimum time between two calculations of the rate, a request within this time returns the last rate
+     */
+    private static final long MIN_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong eventCount = new AtomicLong();
+
+    private long lastEventCount;
+    private long lastTime = System.nanoTime();
+    private BigDecimal rate = BigDecimal.ZERO;
+
+    @Override
+    public Set<String> getSubscribedEventTypes() {
+        return Collections.singleton(EventSubscriber.ALL_EVENT_TYPES);
+    }
+
+    @Override
+    public EventFilter getEventFilter() {
+        return null;
+    }
+
+    @Override
+    public void receive(Event event) {
+        eventCount.incrementAndGet();
+    }
+
+    /**
+     * Returns the average number of events per second since the last calculation of the rate.
+     */
+    public synchronized DecimalType getEventRate() {
+        long now = System.nanoTime();
+        long elapsedTime = now - lastTime;
+        if (elapsedTime >= MIN_INTERVAL) {
+            long count = eventCount.get();
+            double eventsPerSecond = (count - lastEventCount) * (double) TimeUnit.SECONDS.toNanos(1) / elapsedTime;
+            rate = new BigDecimal(eventsPerSecond).setScale(OshiSysteminfo.PRECISION_AFTER_DECIMAl_SIGN,
+                    BigDecimal.ROUND_HALF_UP);
+            lastEventCount = count;
+            lastTime = now;
+        }
+        return new DecimalType(rate);
+    }
+}
@@ -8,9 +8,24 @@
  */
 package org.openhab.binding.systeminfo.internal.model;
 
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
 import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
 
 import org.apache.commons.lang.ArrayUtils;
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.eclipse.smarthome.core.library.types.DecimalType;
 import org.eclipse.smarthome.core.library.types.StringType;
 
@@ -31,6 +46,7 @@ import oshi.util.EdidUtil;
 /**
  * This implementation of {@link SysteminfoInterface} is using the open source library OSHI to provide system
  * information. OSHI is a free JNA-based (native) Operating System and Hardware Information library for Java.
+ * The information about the Java virtual machine is provided by its platform MXBeans.
  *
  * @author Svilen Valkanov
  *
@@ -54,6 +70,15 @@ public class OshiSysteminfo implements SysteminfoInterface {
     private PowerSource[] powerSources;
     private HWDiskStore[] drives;
 
+    // Management interfaces of the Java virtual machine
+    private MemoryMXBean memoryBean;
+    private ThreadMXBean threadBean;
+    private List<GarbageCollectorMXBean> garbageCollectorBeans;
+    private List<BufferPoolMXBean> bufferPoolBeans;
+
+    // Sample of the dynamic information, replaced on each refresh cycle
+    private volatile Snapshot snapshot = new Snapshot();
+
     public static final int PRECISION_AFTER_DECIMAl_SIGN = 1;
 
     /**
@@ -72,6 +97,11 @@ public class OshiSysteminfo implements SysteminfoInterface {
         operatingSystem = systemInfo.getOperatingSystem();
         displays = hal.getDisplays();
 
+        memoryBean = ManagementFactory.getMemoryMXBean();
+        threadBean = ManagementFactory.getThreadMXBean();
+        garbageCollectorBeans = ManagementFactory.getGarbageCollectorMXBeans();
+        bufferPoolBeans = ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class);
+
         updateStaticObjects();
     }
 
@@ -83,6 +113,11 @@ public class OshiSysteminfo implements SysteminfoInterface {
         drives = hal.getDiskStores();
     }
 
+    @Override
+    public void updateSnapshot() {
+        snapshot = new Snapshot();
+    }
+
     @SuppressWarnings("null")
     private Object getDevice(Object[] devices, int index) throws DeviceNotFoundException {
         if ((devices != null) && (devices.length <= index)) {
@@ -92,7 +127,7 @@ public class OshiSysteminfo implements SysteminfoInterface {
     }
 
     private OSProcess getProcess(int pid) throws DeviceNotFoundException {
-        OSProcess process = operatingSystem.getProcess(pid);
+        OSProcess process = snapshot.getProcess(pid);
         if (process == null) {
             throw new DeviceNotFoundException("Error while getting information for process with PID " + pid);
         }
@@ -152,29 +187,29 @@ public class OshiSysteminfo implements SysteminfoInterface {
 
     @Override
     public DecimalType getCpuLoad() {
-        double processorLoad = cpu.getSystemCpuLoad();
+        double processorLoad = snapshot.getCpuLoad();
         BigDecimal processorLoadPercent = getPercentsValue(processorLoad);
         return new DecimalType(processorLoadPercent);
     }
 
     @Override
     public DecimalType getMemoryTotal() {
-        long totalMemory = memory.getTotal();
+        long totalMemory = snapshot.getMemoryTotal();
         totalMemory = getSizeInMB(totalMemory);
         return new DecimalType(totalMemory);
     }
 
     @Override
     public DecimalType getMemoryAvailable() {
-        long availableMemory = memory.getAvailable();
+        long availableMemory = snapshot.getMemoryAvailable();
         availableMemory = getSizeInMB(availableMemory);
         return new DecimalType(availableMemory);
     }
 
     @Override
     public DecimalType getMemoryUsed() {
-        long totalMemory = memory.getTotal();
-        long availableMemory = memory.getAvailable();
+        long totalMemory = snapshot.getMemoryTotal();
+        long availableMemory = snapshot.getMemoryAvailable();
         long usedMemory = totalMemory - availableMemory;
         usedMemory = getSizeInMB(usedMemory);
         return new DecimalType(usedMemory);
@@ -296,21 +331,21 @@ public class OshiSysteminfo implements SysteminfoInterface {
 
     @Override
     public DecimalType getSensorsCpuTemperature() {
-        BigDecimal cpuTemp = new BigDecimal(sensors.getCpuTemperature());
+        BigDecimal cpuTemp = new BigDecimal(snapshot.getCpuTemperature());
         cpuTemp = cpuTemp.setScale(PRECISION_AFTER_DECIMAl_SIGN, BigDecimal.ROUND_HALF_UP);
         return cpuTemp.signum() == 1 ? new DecimalType(cpuTemp) : null;
     }
 
     @Override
     public DecimalType getSensorsCpuVoltage() {
-        BigDecimal cpuVoltage = new BigDecimal(sensors.getCpuVoltage());
+        BigDecimal cpuVoltage = new BigDecimal(snapshot.getCpuVoltage());
         cpuVoltage = cpuVoltage.setScale(PRECISION_AFTER_DECIMAl_SIGN, BigDecimal.ROUND_HALF_UP);
         return cpuVoltage.signum() == 1 ? new DecimalType(cpuVoltage) : null;
     }
 
     @Override
     public DecimalType getSensorsFanSpeed(int index) throws DeviceNotFoundException {
-        int[] fanSpeeds = sensors.getFanSpeeds();
+        int[] fanSpeeds = snapshot.getFanSpeeds();
         int speed = (int) getDevice(ArrayUtils.toObject(fanSpeeds), index);
         return speed > 0 ? new DecimalType(speed) : null;
     }
@@ -341,8 +376,8 @@ public class OshiSysteminfo implements SysteminfoInterface {
 
     @Override
     public DecimalType getMemoryAvailablePercent() {
-        long availableMemory = memory.getAvailable();
-        long totalMemory = memory.getTotal();
+        long availableMemory = snapshot.getMemoryAvailable();
+        long totalMemory = snapshot.getMemoryTotal();
         if (totalMemory > 0) {
             double freePercentDecimal = (double) availableMemory / (double) totalMemory;
             BigDecimal freePercent = getPercentsValue(freePercentDecimal);
@@ -354,8 +389,8 @@ public class OshiSysteminfo implements SysteminfoInterface {
 
     @Override
     public DecimalType getMemoryUsedPercent() {
-        long availableMemory = memory.getAvailable();
-        long totalMemory = memory.getTotal();
+        long availableMemory = snapshot.getMemoryAvailable();
+        long totalMemory = snapshot.getMemoryTotal();
         long usedMemory = totalMemory - availableMemory;
         if (totalMemory > 0) {
             double usedPercentDecimal = (double) usedMemory / (double) totalMemory;
@@ -389,15 +424,15 @@ public class OshiSysteminfo implements SysteminfoInterface {
 
     @Override
     public DecimalType getSwapTotal() {
-        long swapTotal = memory.getSwapTotal();
+        long swapTotal = snapshot.getSwapTotal();
         swapTotal = getSizeInMB(swapTotal);
         return swapTotal > 0 ? new DecimalType(swapTotal) : null;
     }
 
     @Override
     public DecimalType getSwapAvailable() {
-        long swapTotal = memory.getSwapTotal();
-        long swapUsed = memory.getSwapUsed();
+        long swapTotal = snapshot.getSwapTotal();
+        long swapUsed = snapshot.getSwapUsed();
         long swapAvaialble = swapTotal - swapUsed;
         swapAvaialble = getSizeInMB(swapAvaialble);
         return swapAvaialble > 0 ? new DecimalType(swapAvaialble) : null;
@@ -405,15 +440,15 @@ public class OshiSysteminfo implements SysteminfoInterface {
 
     @Override
     public DecimalType getSwapUsed() {
-        long swapTotal = memory.getSwapUsed();
+        long swapTotal = snapshot.getSwapUsed();
         swapTotal = getSizeInMB(swapTotal);
         return swapTotal > 0 ? new DecimalType(swapTotal) : null;
     }
 
     @Override
     public DecimalType getSwapAvailablePercent() {
-        long usedSwap = memory.getSwapUsed();
-        long totalSwap = memory.getSwapTotal();
+        long usedSwap = snapshot.getSwapUsed();
+        long totalSwap = snapshot.getSwapTotal();
         long freeSwap = totalSwap - usedSwap;
         if (totalSwap > 0) {
             double freePercentDecimal = (double) freeSwap / (double) totalSwap;
@@ -426,8 +461,8 @@ public class OshiSysteminfo implements SysteminfoInterface {
 
     @Override
     public DecimalType getSwapUsedPercent() {
-        long usedSwap = memory.getSwapUsed();
-        long totalSwap = memory.getSwapTotal();
+        long usedSwap = snapshot.getSwapUsed();
+        long totalSwap = snapshot.getSwapTotal();
         if (totalSwap > 0) {
             double usedPercentDecimal = (double) usedSwap / (double) totalSwap;
             BigDecimal usedPercent = getPercentsValue(usedPercentDecimal);
@@ -502,7 +537,7 @@ public class OshiSysteminfo implements SysteminfoInterface {
             default:
                 index = 2;
         }
-        double processorLoads[] = cpu.getSystemLoadAverage(index + 1);
+        double processorLoads[] = snapshot.getCpuLoadAverage();
         BigDecimal result = new BigDecimal(processorLoads[index]);
         result = result.setScale(PRECISION_AFTER_DECIMAl_SIGN, BigDecimal.ROUND_HALF_UP);
         return result;
@@ -510,13 +545,13 @@ public class OshiSysteminfo implements SysteminfoInterface {
 
     @Override
     public DecimalType getCpuUptime() {
-        long seconds = cpu.getSystemUptime();
+        long seconds = snapshot.getCpuUptime();
         return new DecimalType(getTimeInMinutes(seconds));
     }
 
     @Override
     public DecimalType getCpuThreads() {
-        int threadCount = operatingSystem.getThreadCount();
+        int threadCount = snapshot.getThreadCount();
         return new DecimalType(threadCount);
     }
 
@@ -530,7 +565,7 @@ public class OshiSysteminfo implements SysteminfoInterface {
     @Override
     public DecimalType getNetworkPacketsReceived(int networkIndex) throws DeviceNotFoundException {
         NetworkIF network = (NetworkIF) getDevice(networks, networkIndex);
-        network.updateNetworkStats();
+        snapshot.updateNetworkStats(network);
         long packRecv = network.getPacketsRecv();
         return new DecimalType(packRecv);
     }
@@ -538,7 +573,7 @@ public class OshiSysteminfo implements SysteminfoInterface {
     @Override
     public DecimalType getNetworkPacketsSent(int networkIndex) throws DeviceNotFoundException {
         NetworkIF network = (NetworkIF) getDevice(networks, networkIndex);
-        network.updateNetworkStats();
+        snapshot.updateNetworkStats(network);
         long packSent = network.getPacketsSent();
         return new DecimalType(packSent);
     }
@@ -546,7 +581,7 @@ public class OshiSysteminfo implements SysteminfoInterface {
     @Override
     public DecimalType getNetworkDataSent(int networkIndex) throws DeviceNotFoundException {
         NetworkIF network = (NetworkIF) getDevice(networks, networkIndex);
-        network.updateNetworkStats();
+        snapshot.updateNetworkStats(network);
         long bytesSent = network.getBytesSent();
         return new DecimalType(getSizeInMB(bytesSent));
     }
@@ -554,7 +589,7 @@ public class OshiSysteminfo implements SysteminfoInterface {
     @Override
     public DecimalType getNetworkDataReceived(int networkIndex) throws DeviceNotFoundException {
         NetworkIF network = (NetworkIF) getDevice(networks, networkIndex);
-        network.updateNetworkStats();
+        snapshot.updateNetworkStats(network);
         long bytesRecv = network.getBytesRecv();
         return new DecimalType(getSizeInMB(bytesRecv));
     }
@@ -616,4 +651,284 @@ public class OshiSysteminfo implements SysteminfoInterface {
         }
     }
 
+    @Override
+    public DecimalType getJvmHeapUsed() {
+        long heapUsed = snapshot.getHeapUsage().getUsed();
+        return new DecimalType(getSizeInMB(heapUsed));
+    }
+
+    @Override
+    public DecimalType getJvmHeapMax() {
+        // The maximum is (-1) if it is undefined
+        long heapMax = snapshot.getHeapUsage().getMax();
+        return heapMax > 0 ? new DecimalType(getSizeInMB(heapMax)) : null;
+    }
+
+    @Override
+    public DecimalType getJvmNonHeapUsed() {
+        long nonHeapUsed = snapshot.getNonHeapUsage().getUsed();
+        return new DecimalType(getSizeInMB(nonHeapUsed));
+    }
+
+    @Override
+    public DecimalType getJvmBufferUsed() {
+        long bufferUsed = snapshot.getBufferUsed();
+        return new DecimalType(getSizeInMB(bufferUsed));
+    }
+
+    @Override
+    public DecimalType getJvmGcCount() {
+        long collectionCount = snapshot.getGarbageCollection()[0];
+        return new DecimalType(collectionCount);
+    }
+
+    @Override
+    public DecimalType getJvmGcTime() {
+        long collectionTime = snapshot.getGarbageCollection()[1];
+        return new DecimalType(collectionTime);
+    }
+
+    @Override
+    public DecimalType getJvmThreads() {
+        int threadCount = snapshot.getJvmThreadCount();
+        return new DecimalType(threadCount);
+    }
+
+    @Override
+    public DecimalType getJvmThreads(Thread.State... states) {
+        int threadCount = 0;
+        for (ThreadInfo threadInfo : snapshot.getThreadInfos()) {
+            // The thread info is null if the thread is not alive anymore
+            if (threadInfo != null && ArrayUtils.contains(states, threadInfo.getThreadState())) {
+                threadCount++;
+            }
+        }
+        return new DecimalType(threadCount);
+    }
+
+    @Override
+    public DecimalType getJvmPoolThreads(String poolName) {
+        int[] poolStats = snapshot.getPoolStats(poolName);
+        return poolStats != null ? new DecimalType(poolStats[0]) : null;
+    }
+
+    @Override
+    public DecimalType getJvmPoolActiveThreads(String poolName) {
+        int[] poolStats = snapshot.getPoolStats(poolName);
+        return poolStats != null ? new DecimalType(poolStats[1]) : null;
+    }
+
+    @Override
+    public DecimalType getJvmPoolQueuedTasks(String poolName) {
+        int[] poolStats = snapshot.getPoolStats(poolName);
+        return poolStats != null ? new DecimalType(poolStats[2]) : null;
+    }
+
+    /**
+     * A sample of the dynamic system information. Each kind of information is read from the system when it is
+     * requested for the first time and then kept, so all channels refreshed in one cycle get consistent values and the
+     * system is not read again for every channel.
+     *
+     * The storage information is not part of the sample, as OSHI reads it together with the file stores in
+     * {@link OshiSysteminfo#updateStaticObjects()}.
+     */
+    private class Snapshot {
+        private Double cpuLoad;
+        private double[] cpuLoadAverage;
+        private Long cpuUptime;
+        private Integer threadCount;
+
+        private boolean memoryRead;
+        private long memoryTotal;
+        private long memoryAvailable;
+        private long swapTotal;
+        private long swapUsed;
+
+        private Double cpuTemperature;
+        private Double cpuVoltage;
+        private int[] fanSpeeds;
+
+        private final Set<NetworkIF> updatedNetworks = new HashSet<>();
+        private final Map<Integer, OSProcess> processes = new HashMap<>();
+
+        private MemoryUsage heapUsage;
+        private MemoryUsage nonHeapUsage;
+        private Long bufferUsed;
+        private long[] garbageCollection;
+        private Integer jvmThreadCount;
+        private ThreadInfo[] threadInfos;
+        private final Map<String, int[]> poolStats = new HashMap<>();
+
+        synchronized double getCpuLoad() {
+            if (cpuLoad == null) {
+                cpuLoad = cpu.getSystemCpuLoad();
+            }
+            return cpuLoad;
+        }
+
+        synchronized double[] getCpuLoadAverage() {
+            if (cpuLoadAverage == null) {
+                // The 1, 5 and 15 minutes averages
+                cpuLoadAverage = cpu.getSystemLoadAverage(3);
+            }
+            return cpuLoadAverage;
+        }
+
+        synchronized long getCpuUptime() {
+            if (cpuUptime == null) {
+                cpuUptime = cpu.getSystemUptime();
+            }
+            return cpuUptime;
+        }
+
+        synchronized int getThreadCount() {
+            if (threadCount == null) {
+                threadCount = operatingSystem.getThreadCount();
+            }
+            return threadCount;
+        }
+
+        private void readMemory() {
+            if (!memoryRead) {
+                memoryTotal = memory.getTotal();
+                memoryAvailable = memory.getAvailable();
+                swapTotal = memory.getSwapTotal();
+                swapUsed = memory.getSwapUsed();
+                memoryRead = true;
+            }
+        }
+
+        synchronized long getMemoryTotal() {
+            readMemory();
+            return memoryTotal;
+        }
+
+        synchronized long getMemoryAvailable() {
+            readMemory();
+            return memoryAvailable;
+        }
+
+        synchronized long getSwapTotal() {
+            readMemory();
+            return swapTotal;
+        }
+
+        synchronized long getSwapUsed() {
+            readMemory();
+            return swapUsed;
+        }
+
+        synchronized double getCpuTemperature() {
+            if (cpuTemperature == null) {
+                cpuTemperature = sensors.getCpuTemperature();
+            }
+            return cpuTemperature;
+        }
+
+        synchronized double getCpuVoltage() {
+            if (cpuVoltage == null) {
+                cpuVoltage = sensors.getCpuVoltage();
+            }
+            return cpuVoltage;
+        }
+
+        synchronized int[] getFanSpeeds() {
+            if (fanSpeeds == null) {
+                fanSpeeds = sensors.getFanSpeeds();
+            }
+            return fanSpeeds;
+        }
+
+        synchronized void updateNetworkStats(NetworkIF network) {
+            if (updatedNetworks.add(network)) {
+                network.updateNetworkStats();
+            }
+        }
+
+        synchronized OSProcess getProcess(int pid) {
+            if (!processes.containsKey(pid)) {
+                processes.put(pid, operatingSystem.getProcess(pid));
+            }
+            return processes.get(pid);
+        }
+
+        synchronized MemoryUsage getHeapUsage() {
+            if (heapUsage == null) {
+                heapUsage = memoryBean.getHeapMemoryUsage();
+            }
+            return heapUsage;
+        }
+
+        synchronized MemoryUsage getNonHeapUsage() {
+            if (nonHeapUsage == null) {
+                nonHeapUsage = memoryBean.getNonHeapMemoryUsage();
+            }
+            return nonHeapUsage;
+        }
+
+        synchronized long getBufferUsed() {
+            if (bufferUsed == null) {
+                long used = 0;
+                for (BufferPoolMXBean bufferPool : bufferPoolBeans) {
+                    used += bufferPool.getMemoryUsed();
+                }
+                bufferUsed = used;
+            }
+            return bufferUsed;
+        }
+
+        /**
+         * @return the collection count and the collection time in milliseconds of all garbage collectors
+         */
+        synchronized long[] getGarbageCollection() {
+            if (garbageCollection == null) {
+                long count = 0;
+                long time = 0;
+                for (GarbageCollectorMXBean garbageCollector : garbageCollectorBeans) {
+                    // The values are (-1) if they are not supported by the collector
+                    count += Math.max(garbageCollector.getCollectionCount(), 0);
+                    time += Math.max(garbageCollector.getCollectionTime(), 0);
+                }
+                garbageCollection = new long[] { count, time };
+            }
+            return garbageCollection;
+        }
+
+        synchronized int getJvmThreadCount() {
+            if (jvmThreadCount == null) {
+                jvmThreadCount = threadBean.getThreadCount();
+            }
+            return jvmThreadCount;
+        }
+
+        synchronized ThreadInfo[] getThreadInfos() {
+            if (threadInfos == null) {
+                // Without stack traces, only the names and states are needed
+                threadInfos = threadBean.getThreadInfo(threadBean.getAllThreadIds());
+            }
+            return threadInfos;
+        }
+
+        /**
+         * The pool is returned by the {@link ThreadPoolManager}, which creates it if it is not used yet. A new pool
+         * does not start any thread before its first task.
+         *
+         * @return the number of threads, the number of threads executing a task and the number of queued tasks of the
+         *         pool, or null if the pool does not expose its executor
+         */
+        synchronized int[] getPoolStats(String poolName) {
+            if (!poolStats.containsKey(poolName)) {
+                ExecutorService pool = ThreadPoolManager.getPool(poolName);
+                if (pool instanceof ThreadPoolExecutor) {
+                    ThreadPoolExecutor executor = (ThreadPoolExecutor) pool;
+                    poolStats.put(poolName, new int[] { executor.getPoolSize(), executor.getActiveCount(),
+                            executor.getQueue().size() });
+                } else {
+                    poolStats.put(poolName, null);
+                }
+            }
+            return poolStats.get(poolName);
+        }
+    }
+
 }
@@ -19,6 +19,14 @@ import org.eclipse.smarthome.core.library.types.StringType;
  */
 public interface SysteminfoInterface {
 
+    // Sampling
+    /**
+     * Starts a new sample of the dynamic system information (CPU load, memory, sensors, network traffic, processes
+     * and the Java virtual machine). Until the next call all methods return values of the same sample, each kind of
+     * information is read from the system at most once.
+     */
+    public void updateSnapshot();
+
     // Operating system info
     /**
      * Get the Family of the operating system /e.g. Windows,Unix,.../
@@ -433,4 +441,78 @@ public interface SysteminfoInterface {
      */
     public DecimalType getProcessThreads(int pid) throws DeviceNotFoundException;
 
+    // Java virtual machine info
+    /**
+     * Returns the size of the heap memory used by the Java virtual machine.
+     *
+     * @return memory size in MB
+     */
+    public DecimalType getJvmHeapUsed();
+
+    /**
+     * Returns the maximum size of the heap memory of the Java virtual machine.
+     *
+     * @return memory size in MB or null, if no limit is defined
+     */
+    public DecimalType getJvmHeapMax();
+
+    /**
+     * Returns the size of the non-heap memory (e.g. metaspace and code cache) used by the Java virtual machine.
+     *
+     * @return memory size in MB
+     */
+    public DecimalType getJvmNonHeapUsed();
+
+    /**
+     * Returns the size of the memory used by the direct and mapped buffers, which are allocated outside of the heap.
+     *
+     * @return memory size in MB
+     */
+    public DecimalType getJvmBufferUsed();
+
+    /**
+     * Returns the number of garbage collections since the start of the Java virtual machine.
+     */
+    public DecimalType getJvmGcCount();
+
+    /**
+     * Returns the accumulated garbage collection time since the start of the Java virtual machine.
+     *
+     * @return time in milliseconds
+     */
+    public DecimalType getJvmGcTime();
+
+    /**
+     * Returns the number of live threads of the Java virtual machine.
+     */
+    public DecimalType getJvmThreads();
+
+    /**
+     * Returns the number of threads of the Java virtual machine in the given states.
+     *
+     * @param states - the states of the counted threads
+     */
+    public DecimalType getJvmThreads(Thread.State... states);
+
+    /**
+     * Returns the number of threads of a named thread pool of the runtime.
+     *
+     * @param poolName - the name of the thread pool
+     */
+    public DecimalType getJvmPoolThreads(String poolName);
+
+    /**
+     * Returns the number of threads of a named thread pool of the runtime, which are executing a task.
+     *
+     * @param poolName - the name of the thread pool
+     */
+    public DecimalType getJvmPoolActiveThreads(String poolName);
+
+    /**
+     * Returns the number of tasks waiting in the queue of a named thread pool of the runtime.
+     *
+     * @param poolName - the name of the thread pool
+     */
+    public DecimalType getJvmPoolQueuedTasks(String poolName);
+
 }
@@ -83,4 +83,10 @@ public class TeslaBindingConstants {
     // List of all Channels
     public static final String CHANNEL_CHARGE = "charge";
 
+    // Properties with the counters of the request throttler of a vehicle
+    public static final String PROPERTY_THROTTLER_QUEUED = "throttlerQueued";
+    public static final String PROPERTY_THROTTLER_THROTTLED = "throttlerThrottled";
+    public static final String PROPERTY_THROTTLER_DROPPED = "throttlerDropped";
+    public static final String PROPERTY_THROTTLER_DEDUPLICATED = "throttlerDeduplicated";
+
 }
\ No newline at end of file
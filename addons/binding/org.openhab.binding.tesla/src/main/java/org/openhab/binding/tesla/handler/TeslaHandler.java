@@ -22,6 +22,7 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
@@ -69,7 +70,7 @@ import org.openhab.binding.tesla.internal.protocol.TokenRequestRefreshToken;
 import org.openhab.binding.tesla.internal.protocol.TokenResponse;
 import org.openhab.binding.tesla.internal.protocol.Vehicle;
 import org.openhab.binding.tesla.internal.protocol.VehicleState;
-import org.openhab.binding.tesla.internal.throttler.QueueChannelThrottler;
+import org.openhab.binding.tesla.internal.throttler.AccountChannelThrottler;
 import org.openhab.binding.tesla.internal.throttler.Rate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -125,7 +126,10 @@ public class TeslaHandler extends BaseThingHandler {
     protected Thread eventThread;
     protected ScheduledFuture<?> fastStateJob;
     protected ScheduledFuture<?> slowStateJob;
-    protected QueueChannelThrottler stateThrottler;
+    protected AccountChannelThrottler stateThrottler;
+    protected Map<Object, Rate> throttlerChannels;
+    protected String dataThrottleKey;
+    protected String commandThrottleKey;
 
     protected long lastTimeStamp;
     protected long intervalTimestamp = 0;
@@ -135,6 +139,7 @@ public class TeslaHandler extends BaseThingHandler {
     private StorageService storageService;
     protected Gson gson = new Gson();
     protected TeslaChannelSelectorProxy teslaChannelSelectorProxy = new TeslaChannelSelectorProxy();
+    protected final Map<String, State> channelStates = new ConcurrentHashMap<String, State>();
     private TokenResponse logonToken;
 
     public TeslaHandler(Thing thing, StorageService storageService) {
@@ -150,6 +155,7 @@ public class TeslaHandler extends BaseThingHandler {
         updateStatus(ThingStatus.UNKNOWN);
 
         lock = new ReentrantLock();
+        channelStates.clear();
 
         lock.lock();
         try {
@@ -161,14 +167,18 @@ public class TeslaHandler extends BaseThingHandler {
             eventThread = new Thread(eventRunnable, "ESH-Tesla-Event Stream-" + getThing().getUID());
             eventThread.start();
 
-            Map<Object, Rate> channels = new HashMap<Object, Rate>();
-            channels.put(TESLA_DATA_THROTTLE, new Rate(1, 1, TimeUnit.SECONDS));
-            channels.put(TESLA_COMMAND_THROTTLE, new Rate(20, 1, TimeUnit.MINUTES));
+            // the rates of the data and command channels apply to this vehicle, the overall rates are shared by all
+            // vehicles of the account
+            dataThrottleKey = getThing().getUID() + ":" + TESLA_DATA_THROTTLE;
+            commandThrottleKey = getThing().getUID() + ":" + TESLA_COMMAND_THROTTLE;
+            throttlerChannels = new HashMap<Object, Rate>();
+            throttlerChannels.put(dataThrottleKey, new Rate(1, 1, TimeUnit.SECONDS));
+            throttlerChannels.put(commandThrottleKey, new Rate(20, 1, TimeUnit.MINUTES));
 
             Rate firstRate = new Rate(20, 1, TimeUnit.MINUTES);
             Rate secondRate = new Rate(200, 10, TimeUnit.MINUTES);
-            stateThrottler = new QueueChannelThrottler(firstRate, scheduler, channels);
-            stateThrottler.addRate(secondRate);
+            stateThrottler = AccountChannelThrottler.addVehicle(getAccount(), throttlerChannels, firstRate,
+                    secondRate);
 
             if (fastStateJob == null || fastStateJob.isCancelled()) {
                 fastStateJob = scheduler.scheduleWithFixedDelay(fastStateRunnable, 0, FAST_STATUS_REFRESH_INTERVAL,
@@ -210,6 +220,12 @@ public class TeslaHandler extends BaseThingHandler {
                 connectJob.cancel(true);
                 connectJob = null;
             }
+
+            if (stateThrottler != null) {
+                stateThrottler.removeVehicle(throttlerChannels.keySet());
+                logger.debug("Request throttler of {}", stateThrottler);
+                stateThrottler = null;
+            }
         } finally {
             lock.unlock();
         }
@@ -222,6 +238,9 @@ public class TeslaHandler extends BaseThingHandler {
         String channelID = channelUID.getId();
         TeslaChannelSelector selector = TeslaChannelSelector.getValueSelectorFromChannelID(channelID);
 
+        // A command changes the item state without the vehicle confirming it, so the next polled state is posted
+        channelStates.remove(channelID);
+
         if (command instanceof RefreshType) {
             if (isAwake()) {
                 // Request the state of all known variables. This is sub-optimal, but the requests get scheduled and
@@ -367,7 +386,7 @@ public class TeslaHandler extends BaseThingHandler {
     public void sendCommand(String command, String payLoad, WebTarget target) {
         Request request = new Request(command, payLoad, target);
         if (stateThrottler != null) {
-            stateThrottler.submit(TESLA_COMMAND_THROTTLE, request);
+            stateThrottler.submit(commandThrottleKey, null, true, request);
         }
     }
 
@@ -378,21 +397,22 @@ public class TeslaHandler extends BaseThingHandler {
     public void sendCommand(String command, String payLoad) {
         Request request = new Request(command, payLoad, commandTarget);
         if (stateThrottler != null) {
-            stateThrottler.submit(TESLA_COMMAND_THROTTLE, request);
+            stateThrottler.submit(commandThrottleKey, null, true, request);
         }
     }
 
     public void sendCommand(String command, WebTarget target) {
         Request request = new Request(command, "{}", target);
         if (stateThrottler != null) {
-            stateThrottler.submit(TESLA_COMMAND_THROTTLE, request);
+            stateThrottler.submit(commandThrottleKey, null, true, request);
         }
     }
 
     public void requestData(String command, String payLoad) {
         Request request = new Request(command, payLoad, dataRequestTarget);
         if (stateThrottler != null) {
-            stateThrottler.submit(TESLA_DATA_THROTTLE, request);
+            // identical state requests of a vehicle which are still pending are only executed once
+            stateThrottler.submit(dataThrottleKey, dataThrottleKey + ":" + command + ":" + payLoad, false, request);
         }
     }
 
@@ -480,46 +500,46 @@ public class TeslaHandler extends BaseThingHandler {
 
         try {
             if (request != null && result != null && !"null".equals(result)) {
-                // first, update state objects
+                // first, reformat the response string to a JSON compliant
+                // object for some specific non-JSON compatible requests
+                switch (request) {
+                    case TESLA_MOBILE_ENABLED_STATE: {
+                        jsonObject = new JsonObject();
+                        jsonObject.addProperty(TESLA_MOBILE_ENABLED_STATE, result);
+                        break;
+                    }
+                    default: {
+                        jsonObject = parser.parse(result).getAsJsonObject();
+                        break;
+                    }
+                }
+
+                // secondly, update state objects from the already parsed object
                 switch (request) {
                     case TESLA_DRIVE_STATE: {
-                        driveState = gson.fromJson(result, DriveState.class);
+                        driveState = gson.fromJson(jsonObject, DriveState.class);
                         break;
                     }
                     case TESLA_GUI_STATE: {
-                        guiState = gson.fromJson(result, GUIState.class);
+                        guiState = gson.fromJson(jsonObject, GUIState.class);
                         break;
                     }
                     case TESLA_VEHICLE_STATE: {
-                        vehicleState = gson.fromJson(result, VehicleState.class);
+                        vehicleState = gson.fromJson(jsonObject, VehicleState.class);
                         break;
                     }
                     case TESLA_CHARGE_STATE: {
-                        chargeState = gson.fromJson(result, ChargeState.class);
+                        chargeState = gson.fromJson(jsonObject, ChargeState.class);
                         if (chargeState.charging_state != null && "Charging".equals(chargeState.charging_state)) {
-                            updateState(CHANNEL_CHARGE, OnOffType.ON);
+                            updateChannelState(CHANNEL_CHARGE, OnOffType.ON);
                         } else {
-                            updateState(CHANNEL_CHARGE, OnOffType.OFF);
+                            updateChannelState(CHANNEL_CHARGE, OnOffType.OFF);
                         }
 
                         break;
                     }
                     case TESLA_CLIMATE_STATE: {
-                        climateState = gson.fromJson(result, ClimateState.class);
-                        break;
-                    }
-                }
-
-                // secondly, reformat the response string to a JSON compliant
-                // object for some specific non-JSON compatible requests
-                switch (request) {
-                    case TESLA_MOBILE_ENABLED_STATE: {
-                        jsonObject = new JsonObject();
-                        jsonObject.addProperty(TESLA_MOBILE_ENABLED_STATE, result);
-                        break;
-                    }
-                    default: {
-                        jsonObject = parser.parse(result).getAsJsonObject();
+                        climateState = gson.fromJson(jsonObject, ClimateState.class);
                         break;
                     }
                 }
@@ -559,22 +579,25 @@ public class TeslaHandler extends BaseThingHandler {
                         }
 
                         if (proceed) {
+                            Map<String, String> properties = editProperties();
+                            boolean propertiesChanged = false;
                             for (Map.Entry<String, JsonElement> entry : entrySet) {
                                 try {
                                     TeslaChannelSelector selector = TeslaChannelSelector
                                             .getValueSelectorFromRESTID(entry.getKey());
                                     if (!selector.isProperty()) {
                                         if (!entry.getValue().isJsonNull()) {
-                                            updateState(selector.getChannelID(), teslaChannelSelectorProxy.getState(
-                                                    entry.getValue().getAsString(), selector, editProperties()));
+                                            updateChannelState(selector.getChannelID(), teslaChannelSelectorProxy
+                                                    .getState(entry.getValue().getAsString(), selector, properties));
                                         } else {
-                                            updateState(selector.getChannelID(), UnDefType.UNDEF);
+                                            updateChannelState(selector.getChannelID(), UnDefType.UNDEF);
                                         }
                                     } else {
                                         if (!entry.getValue().isJsonNull()) {
-                                            Map<String, String> properties = editProperties();
-                                            properties.put(selector.getChannelID(), entry.getValue().getAsString());
-                                            updateProperties(properties);
+                                            String value = entry.getValue().getAsString();
+                                            if (!value.equals(properties.put(selector.getChannelID(), value))) {
+                                                propertiesChanged = true;
+                                            }
                                         }
                                     }
                                 } catch (IllegalArgumentException e) {
@@ -585,6 +608,9 @@ public class TeslaHandler extends BaseThingHandler {
                                             e.getMessage(), e);
                                 }
                             }
+                            if (propertiesChanged) {
+                                updateProperties(properties);
+                            }
                         } else {
                             logger.warn("The result for request '{}' is discarded due to an out of sync timestamp",
                                     request);
@@ -599,6 +625,31 @@ public class TeslaHandler extends BaseThingHandler {
         }
     }
 
+    /**
+     * Updates the state of a channel, unless the channel already has this state.
+     *
+     * @param channelID the id of the channel
+     * @param state the new state of the channel
+     */
+    protected void updateChannelState(String channelID, State state) {
+        if (state == null) {
+            updateState(channelID, state);
+            return;
+        }
+        State previousState = channelStates.put(channelID, state);
+        if (!state.equals(previousState)) {
+            updateState(channelID, state);
+        }
+    }
+
+    /**
+     * Returns the account of the vehicle, which shares its request throttler with the other vehicles of the account.
+     */
+    protected String getAccount() {
+        String username = (String) getConfig().get(USERNAME);
+        return StringUtils.isEmpty(username) ? getThing().getUID().toString() : username;
+    }
+
     protected boolean isAwake() {
         return (vehicle != null) ? (!"asleep".equals(vehicle.state) && vehicle.vehicle_id != null) : false;
     }
@@ -858,6 +909,7 @@ public class TeslaHandler extends BaseThingHandler {
 
         @Override
         public void run() {
+            updateThrottlerProperties();
             if (getThing().getStatus() == ThingStatus.ONLINE) {
                 if (isAwake()) {
                     requestData(TESLA_CHARGE_STATE);
@@ -876,6 +928,25 @@ public class TeslaHandler extends BaseThingHandler {
         }
     };
 
+    /**
+     * Publishes the counters of the requests of this vehicle as properties of the thing.
+     */
+    protected void updateThrottlerProperties() {
+        AccountChannelThrottler throttler = stateThrottler;
+        if (throttler == null) {
+            return;
+        }
+        Map<String, String> properties = editProperties();
+        properties.put(PROPERTY_THROTTLER_QUEUED, Long.toString(throttler.getQueuedTasks(dataThrottleKey)));
+        properties.put(PROPERTY_THROTTLER_THROTTLED, Long.toString(throttler.getThrottledTasks(dataThrottleKey)));
+        properties.put(PROPERTY_THROTTLER_DROPPED, Long.toString(throttler.getDroppedTasks(dataThrottleKey)));
+        properties.put(PROPERTY_THROTTLER_DEDUPLICATED,
+                Long.toString(throttler.getDeduplicatedTasks(dataThrottleKey)));
+        if (!properties.equals(getThing().getProperties())) {
+            updateProperties(properties);
+        }
+    }
+
     protected Runnable connectRunnable = new Runnable() {
 
         @Override
@@ -1003,24 +1074,30 @@ public class TeslaHandler extends BaseThingHandler {
                                                 logger.debug("Event Stream : Event stamp is {}",
                                                         dateFormatter.format(new Date(lastTimeStamp)));
                                             }
-                                            for (int i = 0; i < EventKeys.values().length; i++) {
+                                            Map<String, String> properties = editProperties();
+                                            boolean propertiesChanged = false;
+                                            EventKeys[] eventKeys = EventKeys.values();
+                                            for (int i = 0; i < eventKeys.length; i++) {
                                                 TeslaChannelSelector selector = TeslaChannelSelector
-                                                        .getValueSelectorFromRESTID((EventKeys.values()[i]).toString());
+                                                        .getValueSelectorFromRESTID(eventKeys[i].toString());
                                                 if (!selector.isProperty()) {
                                                     State newState = teslaChannelSelectorProxy.getState(vals[i],
-                                                            selector, editProperties());
+                                                            selector, properties);
                                                     if (newState != null && !"".equals(vals[i])) {
-                                                        updateState(selector.getChannelID(), newState);
+                                                        updateChannelState(selector.getChannelID(), newState);
                                                     } else {
-                                                        updateState(selector.getChannelID(), UnDefType.UNDEF);
+                                                        updateChannelState(selector.getChannelID(), UnDefType.UNDEF);
                                                     }
                                                 } else {
-                                                    Map<String, String> properties = editProperties();
-                                                    properties.put(selector.getChannelID(),
-                                                            (selector.getState(vals[i])).toString());
-                                                    updateProperties(properties);
+                                                    String value = (selector.getState(vals[i])).toString();
+                                                    if (!value.equals(properties.put(selector.getChannelID(), value))) {
+                                                        propertiesChanged = true;
+                                                    }
                                                 }
                                             }
+                                            if (propertiesChanged) {
+                                                updateProperties(properties);
+                                            }
                                         } else {
                                             if (logger.isDebugEnabled()) {
                                                 SimpleDateFormat dateFormatter = new SimpleDateFormat(
@@ -31,6 +31,7 @@ import org.openhab.binding.tesla.TeslaBindingConstants;
 import org.openhab.binding.tesla.internal.protocol.TokenRequest;
 import org.openhab.binding.tesla.internal.protocol.TokenRequestPassword;
 import org.openhab.binding.tesla.internal.protocol.TokenResponse;
+import org.openhab.binding.tesla.internal.throttler.AccountChannelThrottler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -44,6 +45,7 @@ import com.google.gson.Gson;
 public class TeslaCommandExtension extends AbstractConsoleCommandExtension {
 
     private static final String CMD_LOGON = "logon";
+    private static final String CMD_THROTTLERS = "throttlers";
 
     private final Logger logger = LoggerFactory.getLogger(TeslaCommandExtension.class);
 
@@ -85,6 +87,12 @@ public class TeslaCommandExtension extends AbstractConsoleCommandExtension {
                     }
                     break;
 
+                case CMD_THROTTLERS:
+                    for (AccountChannelThrottler throttler : AccountChannelThrottler.getThrottlers()) {
+                        console.println(throttler.toString());
+                    }
+                    break;
+
                 default:
                     console.println("Unknown command '" + subCommand + "'");
                     printUsage(console);
@@ -95,8 +103,11 @@ public class TeslaCommandExtension extends AbstractConsoleCommandExtension {
 
     @Override
     public List<String> getUsages() {
-        return Arrays.asList(new String[] { buildCommandUsage(CMD_LOGON + " <thingid> [<user email>] [<password>]",
-                "Authenticates and stores the access and refresh token. Does not store the username/password."), });
+        return Arrays.asList(new String[] {
+                buildCommandUsage(CMD_LOGON + " <thingid> [<user email>] [<password>]",
+                        "Authenticates and stores the access and refresh token. Does not store the username/password."),
+                buildCommandUsage(CMD_THROTTLERS,
+                        "Lists the pending, queued, throttled, dropped and deduplicated requests of each account."), });
     }
 
     public void setStorageService(StorageService storageService) {
@@ -41,7 +41,6 @@ abstract class AbstractMultiRateChannelThrottler implements ChannelThrottler {
 
     protected synchronized long callTime(Rate channel) {
         long maxCallTime = 0;
-        long finalCallTime = 0;
         long now = timeProvider.getCurrentTimeInMillis();
         Iterator<Rate> iterator = rates.iterator();
         while (iterator.hasNext()) {
@@ -49,6 +48,7 @@ abstract class AbstractMultiRateChannelThrottler implements ChannelThrottler {
             maxCallTime = Math.max(maxCallTime, someRate.callTime(now));
         }
 
+        long finalCallTime = maxCallTime;
         if (channel != null) {
             finalCallTime = Math.max(maxCallTime, channel.callTime(now));
             channel.addCall(finalCallTime);
@@ -0,0 +1,376 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.tesla.internal.throttler;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link AccountChannelThrottler} implements a throttler that is shared by
+ * all vehicles of a Tesla account. The rates of the throttler limit the calls
+ * of the whole account, the channel rates limit the calls of a single vehicle.
+ *
+ * Each vehicle has its own queue. The tasks of a queue are taken one after
+ * another by priority and then in the order of submission, and each task is
+ * charged to the rates of its own channel when it is taken. A task submitted
+ * with the request key of a pending task is not queued again.
+ *
+ * @author agent - Initial contribution
+ */
+public final class AccountChannelThrottler extends AbstractMultiRateChannelThrottler {
+
+    private static final String THROTTLER_POOL_NAME = "teslaThrottler";
+    private static final int MAX_QUEUE_LENGTH = 150;
+    private static final Map<String, AccountChannelThrottler> THROTTLERS = new HashMap<>();
+
+    private Logger logger = LoggerFactory.getLogger(AccountChannelThrottler.class);
+
+    private final String account;
+    private final int queueLength;
+    private final Map<Object, TaskQueue> queues = new HashMap<Object, TaskQueue>();
+    private final TaskQueue accountQueue = new TaskQueue();
+    private final Map<Object, ThrottledTask> pendingRequests = new ConcurrentHashMap<Object, ThrottledTask>();
+    private int vehicles;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong queuedTasks = new AtomicLong();
+    private final AtomicLong throttledTasks = new AtomicLong();
+    private final AtomicLong droppedTasks = new AtomicLong();
+    private final AtomicLong deduplicatedTasks = new AtomicLong();
+
+    /**
+     * A task waiting in the queue of the throttler.
+     */
+    private static class ThrottledTask extends FutureTask<Void> implements Comparable<ThrottledTask> {
+        private final Object channelKey;
+        private final Object requestKey;
+        private final boolean priority;
+        private final long sequence;
+
+        public ThrottledTask(Runnable task, Object channelKey, Object requestKey, boolean priority, long sequence) {
+            super(task, null);
+            this.channelKey = channelKey;
+            this.requestKey = requestKey;
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(ThrottledTask other) {
+            if (priority != other.priority) {
+                return priority ? -1 : 1;
+            }
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+
+    /**
+     * The queue of a vehicle, or of the tasks without a vehicle channel. Only
+     * the next task of the queue gets a slot of the rates, so a task with
+     * priority always overtakes the waiting tasks without priority. The queue
+     * is guarded by the lock of the throttler.
+     */
+    private class TaskQueue implements Runnable {
+        private final PriorityQueue<ThrottledTask> tasks = new PriorityQueue<ThrottledTask>();
+        private final AtomicLong queuedTasks = new AtomicLong();
+        private final AtomicLong throttledTasks = new AtomicLong();
+        private final AtomicLong droppedTasks = new AtomicLong();
+        private final AtomicLong deduplicatedTasks = new AtomicLong();
+        private ThrottledTask slotTask;
+        private ScheduledFuture<?> dispatchJob;
+        private boolean dispatching;
+        private boolean removed;
+
+        private void add(ThrottledTask task) {
+            tasks.add(task);
+            if (!dispatching) {
+                dispatching = true;
+                dispatchJob = scheduler.schedule(this, 0, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        @Override
+        public void run() {
+            ThrottledTask task;
+            synchronized (AccountChannelThrottler.this) {
+                dispatchJob = null;
+                if (removed) {
+                    return;
+                }
+                task = slotTask;
+                slotTask = null;
+                if (task == null) {
+                    task = tasks.poll();
+                    while (task != null && task.isCancelled()) {
+                        task = tasks.poll();
+                    }
+                    if (task == null) {
+                        dispatching = false;
+                        return;
+                    }
+                    long delay = callTime(channels.get(task.channelKey)) - timeProvider.getCurrentTimeInMillis();
+                    if (delay > 0) {
+                        throttledTasks.incrementAndGet();
+                        AccountChannelThrottler.this.throttledTasks.incrementAndGet();
+                        slotTask = task;
+                        dispatchJob = scheduler.schedule(this, delay, TimeUnit.MILLISECONDS);
+                        return;
+                    }
+                }
+                if (task.requestKey != null) {
+                    pendingRequests.remove(task.requestKey, task);
+                }
+            }
+            try {
+                task.run();
+            } finally {
+                // the next task of the queue is taken after this one, also if the queue is empty by now
+                synchronized (AccountChannelThrottler.this) {
+                    if (!removed) {
+                        dispatchJob = scheduler.schedule(this, 0, TimeUnit.MILLISECONDS);
+                    }
+                }
+            }
+        }
+
+        private void remove() {
+            removed = true;
+            if (dispatchJob != null) {
+                dispatchJob.cancel(false);
+                dispatchJob = null;
+            }
+            if (slotTask != null) {
+                tasks.add(slotTask);
+                slotTask = null;
+            }
+            for (ThrottledTask task : tasks) {
+                task.cancel(false);
+                if (task.requestKey != null) {
+                    pendingRequests.remove(task.requestKey, task);
+                }
+            }
+            tasks.clear();
+        }
+    }
+
+    private AccountChannelThrottler(String account, Rate someRate, ScheduledExecutorService scheduler,
+            TimeProvider timeProvider, int queueLength) {
+        super(someRate, scheduler, new HashMap<Object, Rate>(), timeProvider);
+        this.account = account;
+        this.queueLength = queueLength;
+    }
+
+    /**
+     * Adds the channel rates of a vehicle to the throttler of its account. The
+     * account rates are only used if the throttler does not exist yet.
+     *
+     * @return the throttler of the account
+     */
+    public static synchronized AccountChannelThrottler addVehicle(String account, Map<Object, Rate> vehicleChannels,
+            Rate someRate, Rate... otherRates) {
+        AccountChannelThrottler throttler = THROTTLERS.get(account);
+        if (throttler == null) {
+            throttler = new AccountChannelThrottler(account, someRate,
+                    ThreadPoolManager.getScheduledPool(THROTTLER_POOL_NAME), TimeProvider.SYSTEM_PROVIDER,
+                    MAX_QUEUE_LENGTH);
+            for (Rate rate : otherRates) {
+                throttler.addRate(rate);
+            }
+            THROTTLERS.put(account, throttler);
+        }
+        synchronized (throttler) {
+            throttler.channels.putAll(vehicleChannels);
+            TaskQueue queue = throttler.new TaskQueue();
+            for (Object channelKey : vehicleChannels.keySet()) {
+                throttler.queues.put(channelKey, queue);
+            }
+            throttler.vehicles++;
+        }
+        return throttler;
+    }
+
+    /**
+     * Returns the throttlers of all accounts.
+     */
+    public static synchronized Collection<AccountChannelThrottler> getThrottlers() {
+        return new ArrayList<AccountChannelThrottler>(THROTTLERS.values());
+    }
+
+    /**
+     * Removes the channel rates of a vehicle and cancels its pending tasks. The
+     * throttler of the account is discarded with its last vehicle.
+     */
+    public void removeVehicle(Collection<Object> vehicleChannels) {
+        synchronized (AccountChannelThrottler.class) {
+            synchronized (this) {
+                for (Object channelKey : vehicleChannels) {
+                    TaskQueue queue = queues.remove(channelKey);
+                    if (queue != null) {
+                        queue.remove();
+                    }
+                }
+                channels.keySet().removeAll(vehicleChannels);
+                if (--vehicles <= 0 && THROTTLERS.get(account) == this) {
+                    THROTTLERS.remove(account);
+                }
+            }
+        }
+    }
+
+    @Override
+    public Future<?> submit(Runnable task) {
+        return submit(null, null, false, task);
+    }
+
+    @Override
+    public Future<?> submit(Object channelKey, Runnable task) {
+        return submit(channelKey, null, false, task);
+    }
+
+    /**
+     * Submits a task to the throttler.
+     *
+     * @param channelKey the key of the channel rate, or null
+     * @param requestKey the key of the request, a request with the key of a pending request is not queued again
+     * @param priority true if the task has to be executed before the pending tasks without priority
+     * @param task the task to execute
+     * @return the future of the task, or null if the queue is full
+     */
+    public synchronized Future<?> submit(Object channelKey, Object requestKey, boolean priority, Runnable task) {
+        TaskQueue queue = getQueue(channelKey);
+        if (requestKey != null) {
+            ThrottledTask pendingTask = pendingRequests.get(requestKey);
+            if (pendingTask != null && !pendingTask.isDone()) {
+                queue.deduplicatedTasks.incrementAndGet();
+                deduplicatedTasks.incrementAndGet();
+                return pendingTask;
+            }
+        }
+
+        if (queue.tasks.size() >= queueLength) {
+            queue.droppedTasks.incrementAndGet();
+            droppedTasks.incrementAndGet();
+            logger.warn("The throttler of account '{}' can not take the task '{}' at this point in time", account,
+                    task);
+            return null;
+        }
+
+        ThrottledTask runTask = new ThrottledTask(task, channelKey, requestKey, priority,
+                sequence.getAndIncrement());
+        if (requestKey != null) {
+            pendingRequests.put(requestKey, runTask);
+        }
+        queue.queuedTasks.incrementAndGet();
+        queuedTasks.incrementAndGet();
+        queue.add(runTask);
+        return runTask;
+    }
+
+    private synchronized TaskQueue getQueue(Object channelKey) {
+        TaskQueue queue = channelKey == null ? null : queues.get(channelKey);
+        return queue == null ? accountQueue : queue;
+    }
+
+    public String getAccount() {
+        return account;
+    }
+
+    /**
+     * Returns the number of tasks waiting for their execution.
+     */
+    public synchronized int getPendingTasks() {
+        Set<TaskQueue> allQueues = new HashSet<TaskQueue>(queues.values());
+        allQueues.add(accountQueue);
+        int pendingTasks = 0;
+        for (TaskQueue queue : allQueues) {
+            pendingTasks += queue.tasks.size() + (queue.slotTask != null ? 1 : 0);
+        }
+        return pendingTasks;
+    }
+
+    /**
+     * Returns the number of tasks which have been queued.
+     */
+    public long getQueuedTasks() {
+        return queuedTasks.get();
+    }
+
+    /**
+     * Returns the number of queued tasks which had to wait for a rate.
+     */
+    public long getThrottledTasks() {
+        return throttledTasks.get();
+    }
+
+    /**
+     * Returns the number of tasks which have been dropped because the queue was full.
+     */
+    public long getDroppedTasks() {
+        return droppedTasks.get();
+    }
+
+    /**
+     * Returns the number of tasks which have not been queued because the same request was pending.
+     */
+    public long getDeduplicatedTasks() {
+        return deduplicatedTasks.get();
+    }
+
+    /**
+     * Returns the number of tasks of the vehicle with the given channel, which have been queued.
+     */
+    public long getQueuedTasks(Object channelKey) {
+        return getQueue(channelKey).queuedTasks.get();
+    }
+
+    /**
+     * Returns the number of queued tasks of the vehicle with the given channel, which had to wait for a rate.
+     */
+    public long getThrottledTasks(Object channelKey) {
+        return getQueue(channelKey).throttledTasks.get();
+    }
+
+    /**
+     * Returns the number of tasks of the vehicle with the given channel, which have been dropped because its queue
+     * was full.
+     */
+    public long getDroppedTasks(Object channelKey) {
+        return getQueue(channelKey).droppedTasks.get();
+    }
+
+    /**
+     * Returns the number of tasks of the vehicle with the given channel, which have not been queued because the same
+     * request was pending.
+     */
+    public long getDeduplicatedTasks(Object channelKey) {
+        return getQueue(channelKey).deduplicatedTasks.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: pending=%d, queued=%d, throttled=%d, dropped=%d, deduplicated=%d", account,
+                getPendingTasks(), getQueuedTasks(), getThrottledTasks(), getDroppedTasks(), getDeduplicatedTasks());
+    }
+}
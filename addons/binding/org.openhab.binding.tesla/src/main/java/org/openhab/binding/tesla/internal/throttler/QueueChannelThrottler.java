@@ -11,13 +11,13 @@ package org.openhab.binding.tesla.internal.throttler;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -31,6 +31,7 @@ public final class QueueChannelThrottler extends AbstractMultiRateChannelThrottl
 
     private Logger logger = LoggerFactory.getLogger(QueueChannelThrottler.class);
 
+    private static final String THROTTLER_POOL_NAME = "teslaThrottler";
     private static final int MAX_QUEUE_LENGTH = 150;
     private BlockingQueue<FutureTask<?>> tasks;
     private final Rate overallRate;
@@ -46,8 +47,8 @@ public final class QueueChannelThrottler extends AbstractMultiRateChannelThrottl
     };
 
     public QueueChannelThrottler(Rate someRate) {
-        this(someRate, Executors.newScheduledThreadPool(1), new HashMap<Object, Rate>(), TimeProvider.SYSTEM_PROVIDER,
-                MAX_QUEUE_LENGTH);
+        this(someRate, ThreadPoolManager.getScheduledPool(THROTTLER_POOL_NAME), new HashMap<Object, Rate>(),
+                TimeProvider.SYSTEM_PROVIDER, MAX_QUEUE_LENGTH);
     }
 
     public QueueChannelThrottler(Rate someRate, ScheduledExecutorService scheduler) {
@@ -59,7 +60,8 @@ public final class QueueChannelThrottler extends AbstractMultiRateChannelThrottl
     }
 
     public QueueChannelThrottler(Rate someRate, Map<Object, Rate> channels, int queueLength) {
-        this(someRate, Executors.newScheduledThreadPool(1), channels, TimeProvider.SYSTEM_PROVIDER, queueLength);
+        this(someRate, ThreadPoolManager.getScheduledPool(THROTTLER_POOL_NAME), channels, TimeProvider.SYSTEM_PROVIDER,
+                queueLength);
     }
 
     public QueueChannelThrottler(Rate someRate, ScheduledExecutorService scheduler, Map<Object, Rate> channels,
@@ -10,11 +10,12 @@ package org.openhab.binding.tesla.internal.throttler;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
+
 /**
  * The {@link ScheduledChannelThrottler} implements a throttler that maintains a
  * single execution rates, and does not maintains order of calls (thus have to
@@ -24,13 +25,16 @@ import java.util.concurrent.TimeUnit;
  */
 public final class ScheduledChannelThrottler extends AbstractChannelThrottler {
 
+    private static final String THROTTLER_POOL_NAME = "teslaThrottler";
+
     public ScheduledChannelThrottler(Rate totalRate) {
-        this(totalRate, Executors.newSingleThreadScheduledExecutor(), new HashMap<Object, Rate>(),
+        this(totalRate, ThreadPoolManager.getScheduledPool(THROTTLER_POOL_NAME), new HashMap<Object, Rate>(),
                 TimeProvider.SYSTEM_PROVIDER);
     }
 
     public ScheduledChannelThrottler(Rate totalRate, Map<Object, Rate> channels) {
-        this(totalRate, Executors.newSingleThreadScheduledExecutor(), channels, TimeProvider.SYSTEM_PROVIDER);
+        this(totalRate, ThreadPoolManager.getScheduledPool(THROTTLER_POOL_NAME), channels,
+                TimeProvider.SYSTEM_PROVIDER);
     }
 
     public ScheduledChannelThrottler(Rate totalRate, ScheduledExecutorService scheduler, Map<Object, Rate> channels,
@@ -135,6 +135,12 @@ public abstract class ZoneMinderBaseThingHandler extends BaseThingHandler implem
 
         logger.info("[MONITOR-{}]: Starting High Priority Refresh", getZoneMinderId());
         _refreshPriority = DataRefreshPriorityEnum.HIGH_PRIORITY;
+
+        // The bridge refreshes all monitors in alarm together
+        ZoneMinderServerBridgeHandler bridge = getZoneMinderBridgeHandler();
+        if (bridge != null) {
+            bridge.schedulePriorityRefresh();
+        }
         return true;
     }
 
@@ -160,7 +166,13 @@ public abstract class ZoneMinderBaseThingHandler extends BaseThingHandler implem
         return ch.getUID();
     }
 
-    protected abstract void onFetchData();
+    /**
+     * Fetches the data of the thing.
+     *
+     * @param refreshPriority priority of the refresh, data which does not change with an alarm may be skipped on a
+     *            high priority refresh
+     */
+    protected abstract void onFetchData(DataRefreshPriorityEnum refreshPriority);
 
     /**
      * Method to Refresh Thing Handler.
@@ -183,7 +195,7 @@ public abstract class ZoneMinderBaseThingHandler extends BaseThingHandler implem
                 logger.debug("{}: refreshThing(): Bridge '{}' Found for Thing '{}'!", getLogIdentifier(),
                         getThing().getUID(), this.getThing().getUID());
 
-                onFetchData();
+                onFetchData(refreshPriority);
             }
         }
 
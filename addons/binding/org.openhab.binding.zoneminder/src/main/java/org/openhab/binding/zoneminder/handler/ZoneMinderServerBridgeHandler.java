@@ -16,6 +16,7 @@ import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
@@ -130,6 +131,17 @@ public class ZoneMinderServerBridgeHandler extends BaseBridgeHandler implements
 
     private ScheduledFuture<?> taskRefreshData = null;
     private ScheduledFuture<?> taskPriorityRefreshData = null;
+    private final Object priorityRefreshLock = new Object();
+
+    /**
+     * Interval in seconds of the priority refresh while a monitor is in alarm
+     */
+    private static final int PRIORITY_REFRESH_INTERVAL = 1;
+
+    /**
+     * Data of all monitors, fetched in one request per refresh cycle and shared by the monitor handlers
+     */
+    private final Map<String, IZoneMinderMonitorData> monitorData = new ConcurrentHashMap<>();
 
     private Runnable refreshDataRunnable = new Runnable() {
         @Override
@@ -186,52 +198,48 @@ public class ZoneMinderServerBridgeHandler extends BaseBridgeHandler implements
         }
     };
 
+    /**
+     * Refreshes the monitors in alarm. The task reschedules itself as long as a monitor is in alarm, so nothing is
+     * polled in between the scheduled refreshes while all monitors are idle.
+     */
     private Runnable refreshPriorityDataRunnable = new Runnable() {
 
         @Override
         public void run() {
             try {
-
-                // Make sure priority updates is done
-                for (Thing thing : getThing().getThings()) {
-                    try {
-
-                        if (thing.getThingTypeUID().equals(ZoneMinderConstants.THING_TYPE_THING_ZONEMINDER_MONITOR)) {
-                            Thing thingMonitor = thing;
-
-                            ZoneMinderBaseThingHandler thingHandler = (ZoneMinderBaseThingHandler) thing.getHandler();
-                            if (thingHandler != null) {
-
-                                if (thingHandler.getRefreshPriority() == DataRefreshPriorityEnum.HIGH_PRIORITY) {
-                                    logger.debug("[MONITOR-{}]: RefreshPriority is High Priority",
-                                            thingHandler.getZoneMinderId());
-                                    thingHandler.refreshThing(zoneMinderSession, DataRefreshPriorityEnum.HIGH_PRIORITY);
-                                }
-                            } else {
-                                logger.debug(
-                                        "[MONITOR]: refreshThing not called for monitor, since thingHandler is 'null'");
-
-                            }
+                List<ZoneMinderBaseThingHandler> priorityHandlers = getPriorityRefreshHandlers();
+                if (!priorityHandlers.isEmpty()) {
+                    // One request for the data of all monitors instead of one per monitor in alarm
+                    refreshMonitorData(zoneMinderSession);
+
+                    for (ZoneMinderBaseThingHandler thingHandler : priorityHandlers) {
+                        try {
+                            logger.debug("[MONITOR-{}]: RefreshPriority is High Priority",
+                                    thingHandler.getZoneMinderId());
+                            thingHandler.refreshThing(zoneMinderSession, DataRefreshPriorityEnum.HIGH_PRIORITY);
+                        } catch (Exception ex) {
+                            logger.error("[MONITOR]: Method 'refreshThing()' for Bridge failed for thing='{}' - "
+                                    + "Exception='{}'", thingHandler.getThing().getUID(), ex);
                         }
-
-                    } catch (NullPointerException ex) {
-                        // This isn't critical (unless it comes over and over). There seems to be a bug so that a
-                        // null
-                        // pointer exception is coming every now and then.
-                        // HAve to find the reason for that. Until thenm, don't Spamm
-                        logger.error(
-                                "[MONITOR]: Method 'refreshThing()' for Bridge failed for thing='{}' - Exception='{}'",
-                                thing.getUID(), ex);
-                    } catch (Exception ex) {
-                        logger.error(
-                                "[MONITOR]: Method 'refreshThing()' for Bridge failed for thing='{}' - Exception='{}'",
-                                thing.getUID(), ex);
                     }
                 }
 
             } catch (Exception exception) {
                 logger.error("[MONITOR]: monitorRunnable::run(): Exception: ", exception);
             }
+
+            synchronized (priorityRefreshLock) {
+                if (taskPriorityRefreshData == null) {
+                    // Stopped while running
+                    return;
+                }
+                if (getPriorityRefreshHandlers().isEmpty()) {
+                    logger.debug("{}: No monitor in alarm, stopping Priority DataRefresh task", getLogIdentifier());
+                    taskPriorityRefreshData = null;
+                } else {
+                    taskPriorityRefreshData = scheduler.schedule(this, PRIORITY_REFRESH_INTERVAL, TimeUnit.SECONDS);
+                }
+            }
         }
     };
 
@@ -492,6 +500,11 @@ public class ZoneMinderServerBridgeHandler extends BaseBridgeHandler implements
             updateChannel(channel.getUID());
         }
 
+        /*
+         * Fetch the data of all monitors at once, the monitor handlers pick their data from it
+         */
+        refreshMonitorData(session);
+
         /*
          * Request Things attached to Bridge to refresh
          */
@@ -1045,15 +1058,8 @@ public class ZoneMinderServerBridgeHandler extends BaseBridgeHandler implements
             // Start job to handle next updates
             taskRefreshData = startTask(refreshDataRunnable, refreshFrequency, refreshFrequency, TimeUnit.SECONDS);
 
-            if (taskPriorityRefreshData != null) {
-                taskPriorityRefreshData.cancel(true);
-                taskPriorityRefreshData = null;
-            }
-
-            // Only start if Priority Frequency is higher than ordinary
-            if (refreshFrequency > 1) {
-                taskPriorityRefreshData = startTask(refreshPriorityDataRunnable, 0, 1, TimeUnit.SECONDS);
-            }
+            // Monitors which went into alarm during the first refresh
+            schedulePriorityRefresh();
         }
 
         // Update properties
@@ -1075,11 +1081,14 @@ public class ZoneMinderServerBridgeHandler extends BaseBridgeHandler implements
         }
 
         // Stopping High priority thread while OFFLINE
-        if (taskPriorityRefreshData != null) {
-            taskPriorityRefreshData.cancel(true);
-            taskPriorityRefreshData = null;
-            logger.debug("{}: Stopping Priority DataRefresh task", getLogIdentifier());
+        synchronized (priorityRefreshLock) {
+            if (taskPriorityRefreshData != null) {
+                taskPriorityRefreshData.cancel(true);
+                taskPriorityRefreshData = null;
+                logger.debug("{}: Stopping Priority DataRefresh task", getLogIdentifier());
+            }
         }
+        monitorData.clear();
 
         // Make sure everything gets refreshed
         for (Channel ch : getThing().getChannels()) {
@@ -1127,6 +1136,70 @@ public class ZoneMinderServerBridgeHandler extends BaseBridgeHandler implements
 
     }
 
+    /**
+     * Starts the priority refresh, unless it is already running. Called by the monitor handlers when they switch to
+     * high priority refresh.
+     */
+    public void schedulePriorityRefresh() {
+        synchronized (priorityRefreshLock) {
+            // Only start if Priority Frequency is higher than ordinary
+            if (taskRefreshData == null || refreshFrequency <= 1) {
+                return;
+            }
+            if (taskPriorityRefreshData == null && !getPriorityRefreshHandlers().isEmpty()) {
+                logger.debug("{}: Starting Priority DataRefresh task", getLogIdentifier());
+                taskPriorityRefreshData = scheduler.schedule(refreshPriorityDataRunnable, 0, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    private List<ZoneMinderBaseThingHandler> getPriorityRefreshHandlers() {
+        List<ZoneMinderBaseThingHandler> handlers = new ArrayList<ZoneMinderBaseThingHandler>();
+        for (Thing thing : getThing().getThings()) {
+            if (thing.getThingTypeUID().equals(ZoneMinderConstants.THING_TYPE_THING_ZONEMINDER_MONITOR)) {
+                ZoneMinderBaseThingHandler thingHandler = (ZoneMinderBaseThingHandler) thing.getHandler();
+                if (thingHandler != null
+                        && thingHandler.getRefreshPriority() == DataRefreshPriorityEnum.HIGH_PRIORITY) {
+                    handlers.add(thingHandler);
+                }
+            }
+        }
+        return handlers;
+    }
+
+    /**
+     * Fetches the data of all monitors in a single request. If the request fails, the data is cleared so the
+     * monitor handlers fall back to fetching their own data.
+     */
+    private void refreshMonitorData(IZoneMinderSession session) {
+        ArrayList<IZoneMinderMonitorData> monitors = null;
+        if (session != null && isConnected()) {
+            IZoneMinderServer serverProxy = ZoneMinderFactory.getServerProxy(session);
+            monitors = serverProxy.getMonitors();
+            logger.debug("{}: URL='{}' ResponseCode='{}' ResponseMessage='{}'", getLogIdentifier(),
+                    serverProxy.getHttpUrl(), serverProxy.getHttpResponseCode(), serverProxy.getHttpResponseMessage());
+        }
+
+        if (monitors == null) {
+            monitorData.clear();
+            return;
+        }
+
+        Set<String> monitorIds = Sets.newHashSet();
+        for (IZoneMinderMonitorData data : monitors) {
+            monitorIds.add(data.getId());
+            monitorData.put(data.getId(), data);
+        }
+        monitorData.keySet().retainAll(monitorIds);
+    }
+
+    /**
+     * Returns the data of a monitor from the last refresh cycle, or null if it is not available.
+     */
+    public IZoneMinderMonitorData getMonitorData(String zoneMinderId) {
+        return monitorData.get(zoneMinderId);
+    }
+
     public ArrayList<IZoneMinderMonitorData> getMonitors() {
         if (isOnline()) {
 
@@ -722,10 +722,13 @@ public class ZoneMinderThingMonitorHandler extends ZoneMinderBaseThingHandler im
     }
 
     @Override
-    protected void onFetchData() {
+    protected void onFetchData(DataRefreshPriorityEnum refreshPriority) {
 
         IZoneMinderSession session = null;
 
+        // The daemons are not affected by an alarm, so they are only checked on the scheduled refresh
+        boolean fetchDaemonStatus = (refreshPriority != DataRefreshPriorityEnum.HIGH_PRIORITY);
+
         session = aquireSession();
         try {
             IZoneMinderMonitor monitorProxy = ZoneMinderFactory.getMonitorProxy(session, getZoneMinderId());
@@ -735,30 +738,41 @@ public class ZoneMinderThingMonitorHandler extends ZoneMinderBaseThingHandler im
             IZoneMinderDaemonStatus analysisDaemon = null;
             IZoneMinderDaemonStatus frameDaemon = null;
 
-            data = monitorProxy.getMonitorData();
-            logger.debug("{}: URL='{}' ResponseCode='{}' ResponseMessage='{}'", getLogIdentifier(),
-                    monitorProxy.getHttpUrl(), monitorProxy.getHttpResponseCode(),
-                    monitorProxy.getHttpResponseMessage());
-
-            captureDaemon = monitorProxy.getCaptureDaemonStatus();
-            logger.debug("{}: URL='{}' ResponseCode='{}' ResponseMessage='{}'", getLogIdentifier(),
-                    monitorProxy.getHttpUrl(), monitorProxy.getHttpResponseCode(),
-                    monitorProxy.getHttpResponseMessage());
-
-            analysisDaemon = monitorProxy.getAnalysisDaemonStatus();
-            logger.debug("{}: URL='{}' ResponseCode='{}' ResponseMessage='{}'", getLogIdentifier(),
-                    monitorProxy.getHttpUrl(), monitorProxy.getHttpResponseCode(),
-                    monitorProxy.getHttpResponseMessage());
+            // Use the data the bridge fetched for all monitors, only ask for it if it is not available
+            ZoneMinderServerBridgeHandler bridge = getZoneMinderBridgeHandler();
+            if (bridge != null) {
+                data = bridge.getMonitorData(getZoneMinderId());
+            }
+            boolean dataValid = (data != null);
+            if (data == null) {
+                data = monitorProxy.getMonitorData();
+                logger.debug("{}: URL='{}' ResponseCode='{}' ResponseMessage='{}'", getLogIdentifier(),
+                        monitorProxy.getHttpUrl(), monitorProxy.getHttpResponseCode(),
+                        monitorProxy.getHttpResponseMessage());
+                dataValid = (data.getHttpResponseCode() == 200);
+            }
 
-            frameDaemon = monitorProxy.getFrameDaemonStatus();
-            logger.debug("{}: URL='{}' ResponseCode='{}' ResponseMessage='{}'", getLogIdentifier(),
-                    monitorProxy.getHttpUrl(), monitorProxy.getHttpResponseCode(),
-                    monitorProxy.getHttpResponseMessage());
+            if (fetchDaemonStatus) {
+                captureDaemon = monitorProxy.getCaptureDaemonStatus();
+                logger.debug("{}: URL='{}' ResponseCode='{}' ResponseMessage='{}'", getLogIdentifier(),
+                        monitorProxy.getHttpUrl(), monitorProxy.getHttpResponseCode(),
+                        monitorProxy.getHttpResponseMessage());
+
+                analysisDaemon = monitorProxy.getAnalysisDaemonStatus();
+                logger.debug("{}: URL='{}' ResponseCode='{}' ResponseMessage='{}'", getLogIdentifier(),
+                        monitorProxy.getHttpUrl(), monitorProxy.getHttpResponseCode(),
+                        monitorProxy.getHttpResponseMessage());
+
+                frameDaemon = monitorProxy.getFrameDaemonStatus();
+                logger.debug("{}: URL='{}' ResponseCode='{}' ResponseMessage='{}'", getLogIdentifier(),
+                        monitorProxy.getHttpUrl(), monitorProxy.getHttpResponseCode(),
+                        monitorProxy.getHttpResponseMessage());
+            }
 
-            if ((data.getHttpResponseCode() != 200) || (captureDaemon.getHttpResponseCode() != 200)
-                    || (analysisDaemon.getHttpResponseCode() != 200) || (frameDaemon.getHttpResponseCode() != 200)) {
+            if (!dataValid || (fetchDaemonStatus && ((captureDaemon.getHttpResponseCode() != 200)
+                    || (analysisDaemon.getHttpResponseCode() != 200) || (frameDaemon.getHttpResponseCode() != 200)))) {
 
-                if (data.getHttpResponseCode() != 200) {
+                if (!dataValid) {
                     logger.warn("{}: HTTP Response MonitorData: Code='{}', Message'{}'", getLogIdentifier(),
                             data.getHttpResponseCode(), data.getHttpResponseMessage());
 
@@ -767,19 +781,19 @@ public class ZoneMinderThingMonitorHandler extends ZoneMinderBaseThingHandler im
                     channelEnabled = false;
                     channelEventCause = "";
                 }
-                if (captureDaemon.getHttpResponseCode() != 200) {
+                if (captureDaemon != null && captureDaemon.getHttpResponseCode() != 200) {
                     channelDaemonCapture = false;
                     logger.warn("{}: HTTP Response CaptureDaemon: Code='{}', Message'{}'", getLogIdentifier(),
                             captureDaemon.getHttpResponseCode(), captureDaemon.getHttpResponseMessage());
 
                 }
-                if (analysisDaemon.getHttpResponseCode() != 200) {
+                if (analysisDaemon != null && analysisDaemon.getHttpResponseCode() != 200) {
                     channelDaemonAnalysis = false;
 
                     logger.warn("{}: HTTP Response AnalysisDaemon: Code='{}', Message='{}'", getLogIdentifier(),
                             analysisDaemon.getHttpResponseCode(), analysisDaemon.getHttpResponseMessage());
                 }
-                if (frameDaemon.getHttpResponseCode() != 200) {
+                if (frameDaemon != null && frameDaemon.getHttpResponseCode() != 200) {
                     channelDaemonFrame = false;
                     logger.warn("{}: HTTP Response MonitorData: Code='{}', Message'{}'", getLogIdentifier(),
                             frameDaemon.getHttpResponseCode(), frameDaemon.getHttpResponseMessage());
@@ -801,9 +815,11 @@ public class ZoneMinderThingMonitorHandler extends ZoneMinderBaseThingHandler im
                         channelEventCause = "";
                     }
 
-                    channelDaemonCapture = captureDaemon.getStatus();
-                    channelDaemonAnalysis = analysisDaemon.getStatus();
-                    channelDaemonFrame = frameDaemon.getStatus();
+                    if (fetchDaemonStatus) {
+                        channelDaemonCapture = captureDaemon.getStatus();
+                        channelDaemonAnalysis = analysisDaemon.getStatus();
+                        channelDaemonFrame = frameDaemon.getStatus();
+                    }
                 } else {
                     channelMonitorStatus = ZoneMinderMonitorStatusEnum.UNKNOWN;
                     channelFunction = ZoneMinderMonitorFunctionEnum.NONE;
@@ -10,7 +10,10 @@ package org.openhab.binding.zway.handler;
 
 import static org.openhab.binding.zway.ZWayBindingConstants.*;
 
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
@@ -85,6 +88,18 @@ public class ZWayBridgeHandler extends BaseBridgeHandler implements IZWayApiCall
     private ZWayBridgeConfiguration mConfig = null;
     private IZWayApi mZWayApi = null;
 
+    /**
+     * Maximum age of the device list before it is loaded again from the Z-Way server, so the refreshes of all
+     * channels and devices which are performed at the same time share a single request.
+     */
+    private static final long DEVICE_LIST_MAX_AGE = TimeUnit.SECONDS.toMillis(5);
+
+    private final Object deviceListLock = new Object();
+    private DeviceList deviceList = null;
+    private long deviceListTimestamp = 0;
+    // last known update time of each ZAutomation device, indexed by device id
+    private final Map<String, Integer> deviceUpdateTimes = new HashMap<>();
+
     /**
      * Initializer authenticate the Z-Way API instance with bridge configuration.
      *
@@ -304,6 +319,11 @@ public class ZWayBridgeHandler extends BaseBridgeHandler implements IZWayApiCall
             resetInclusionExclusionJob = null;
         }
 
+        synchronized (deviceListLock) {
+            deviceList = null;
+            deviceUpdateTimes.clear();
+        }
+
         super.dispose();
     }
 
@@ -340,6 +360,7 @@ public class ZWayBridgeHandler extends BaseBridgeHandler implements IZWayApiCall
             logger.debug("Starting polling for bridge: {}", getThing().getLabel());
             if (getThing().getStatus().equals(ThingStatus.ONLINE)) {
                 updateControllerData();
+                loadDeviceList(true);
             } else {
                 logger.debug("Polling not possible, bridge isn't ONLINE");
             }
@@ -570,6 +591,66 @@ public class ZWayBridgeHandler extends BaseBridgeHandler implements IZWayApiCall
         return mZWayApi;
     }
 
+    /**
+     * Returns the ZAutomation devices of the Z-Way server. The device list is shared by all device handlers and
+     * only loaded again from the Z-Way server if it is older than {@link #DEVICE_LIST_MAX_AGE}.
+     *
+     * @return device list or null if the device list couldn't be loaded
+     */
+    public DeviceList getDeviceList() {
+        return loadDeviceList(false);
+    }
+
+    /**
+     * Loads the device list from the Z-Way server and refreshes the channels of all devices with a new update time.
+     *
+     * The ZAutomation API can filter the device list by update time (since parameter), but the Z-Way library doesn't
+     * support it, so the complete device list is loaded and the update times are compared.
+     *
+     * @param force load the device list even if it isn't older than {@link #DEVICE_LIST_MAX_AGE}
+     * @return device list or null if the device list couldn't be loaded
+     */
+    private DeviceList loadDeviceList(boolean force) {
+        Set<String> changedDeviceIds = new HashSet<>();
+        DeviceList loadedDeviceList;
+        synchronized (deviceListLock) {
+            if (mZWayApi == null) {
+                return null;
+            }
+            // concurrent callers wait for the device list that is loaded by the first caller
+            if (!force && deviceList != null
+                    && System.currentTimeMillis() - deviceListTimestamp < DEVICE_LIST_MAX_AGE) {
+                return deviceList;
+            }
+            loadedDeviceList = mZWayApi.getDevices();
+            if (loadedDeviceList == null) {
+                return deviceList;
+            }
+
+            boolean initialLoad = deviceList == null;
+            for (Device device : loadedDeviceList.getAllDevices()) {
+                Integer updateTime = device.getUpdateTime();
+                Integer previousUpdateTime = deviceUpdateTimes.put(device.getDeviceId(), updateTime);
+                if (!initialLoad && (previousUpdateTime == null || !previousUpdateTime.equals(updateTime))) {
+                    changedDeviceIds.add(device.getDeviceId());
+                }
+            }
+            deviceList = loadedDeviceList;
+            deviceListTimestamp = System.currentTimeMillis();
+        }
+
+        if (!changedDeviceIds.isEmpty()) {
+            logger.debug("ZAutomation devices changed: {}", changedDeviceIds);
+            for (Thing thing : getThing().getThings()) {
+                ThingHandler handler = thing.getHandler();
+                if (handler instanceof ZWayDeviceHandler) {
+                    ((ZWayDeviceHandler) handler).refreshChangedDevices(loadedDeviceList, changedDeviceIds);
+                }
+            }
+        }
+        return loadedDeviceList;
+    }
+
     /********************************
      ****** Z-Way API callback ******
      *******************************/
@@ -314,8 +314,8 @@ public abstract class ZWayDeviceHandler extends BaseThingHandler {
         // Check device id associated with channel
         String deviceId = channel.getProperties().get("deviceId");
         if (deviceId != null) {
-            // Load and check device from Z-Way server
-            DeviceList deviceList = zwayBridgeHandler.getZWayApi().getDevices();
+            // Load and check device from the device list of the bridge
+            DeviceList deviceList = zwayBridgeHandler.getDeviceList();
             if (deviceList != null) {
                 // 1.) Load only the current value from Z-Way server
                 Device device = deviceList.getDeviceById(deviceId);
@@ -324,19 +324,7 @@ public abstract class ZWayDeviceHandler extends BaseThingHandler {
                     return;
                 }
 
-                try {
-                    updateState(channel.getUID(), ZWayDeviceStateConverter.toState(device, channel));
-                } catch (IllegalArgumentException iae) {
-                    logger.debug(
-                            "IllegalArgumentException ({}) during refresh channel for device: {} (level: {}) with channel: {}",
-                            iae.getMessage(), device.getMetrics().getTitle(), device.getMetrics().getLevel(),
-                            channel.getChannelTypeUID());
-
-                    updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.NONE,
-                            "Channel refresh for device: " + device.getMetrics().getTitle() + " (level: "
-                                    + device.getMetrics().getLevel() + ") with channel: " + channel.getChannelTypeUID()
-                                    + " failed!");
-                }
+                updateChannelState(channel, device);
                 // 2.) Trigger update function, soon as the value has been updated, openHAB will be notified
                 try {
                     device.update();
@@ -363,6 +351,46 @@ public abstract class ZWayDeviceHandler extends BaseThingHandler {
         }
     }
 
+    private void updateChannelState(Channel channel, Device device) {
+        try {
+            updateState(channel.getUID(), ZWayDeviceStateConverter.toState(device, channel));
+        } catch (IllegalArgumentException iae) {
+            logger.debug(
+                    "IllegalArgumentException ({}) during refresh channel for device: {} (level: {}) with channel: {}",
+                    iae.getMessage(), device.getMetrics().getTitle(), device.getMetrics().getLevel(),
+                    channel.getChannelTypeUID());
+
+            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.NONE,
+                    "Channel refresh for device: " + device.getMetrics().getTitle() + " (level: "
+                            + device.getMetrics().getLevel() + ") with channel: " + channel.getChannelTypeUID()
+                            + " failed!");
+        }
+    }
+
+    /**
+     * Updates the linked channels of the changed ZAutomation devices, called by the bridge handler after the device
+     * list has been loaded from the Z-Way server.
+     *
+     * @param deviceList the loaded device list
+     * @param changedDeviceIds ids of the devices with a new update time
+     */
+    protected void refreshChangedDevices(DeviceList deviceList, Set<String> changedDeviceIds) {
+        if (!getThing().getStatus().equals(ThingStatus.ONLINE)) {
+            return;
+        }
+
+        for (Channel channel : getThing().getChannels()) {
+            String deviceId = channel.getProperties().get("deviceId");
+            if (deviceId != null && changedDeviceIds.contains(deviceId) && isLinked(channel.getUID().getId())) {
+                Device device = deviceList.getDeviceById(deviceId);
+                if (device != null) {
+                    logger.debug("Refresh changed device {} of channel: {}", deviceId, channel.getLabel());
+                    updateChannelState(channel, device);
+                }
+            }
+        }
+    }
+
     @Override
     public void channelLinked(ChannelUID channelUID) {
         logger.debug("Z-Way device channel linked: {}", channelUID);
@@ -488,7 +516,7 @@ public abstract class ZWayDeviceHandler extends BaseThingHandler {
         final String deviceId = channel.getProperties().get("deviceId");
 
         if (deviceId != null) {
-            DeviceList deviceList = zwayBridgeHandler.getZWayApi().getDevices();
+            DeviceList deviceList = zwayBridgeHandler.getDeviceList();
             if (deviceList != null) {
                 Device device = deviceList.getDeviceById(deviceId);
                 if (device == null) {
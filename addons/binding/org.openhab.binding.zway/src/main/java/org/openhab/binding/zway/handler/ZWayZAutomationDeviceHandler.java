@@ -55,7 +55,7 @@ public class ZWayZAutomationDeviceHandler extends ZWayDeviceHandler {
                 updateStatus(statusInfo.getStatus(), statusInfo.getStatusDetail(), statusInfo.getDescription());
 
                 // Add all available channels
-                DeviceList deviceList = getZWayBridgeHandler().getZWayApi().getDevices();
+                DeviceList deviceList = getZWayBridgeHandler().getDeviceList();
                 if (deviceList != null) {
                     logger.debug("Z-Way devices loaded ({} virtual devices)", deviceList.getDevices().size());
 
@@ -168,8 +168,8 @@ public class ZWayZAutomationDeviceHandler extends ZWayDeviceHandler {
             return;
         }
 
-        // Load and check device from Z-Way server
-        DeviceList deviceList = zwayBridgeHandler.getZWayApi().getDevices();
+        // Load and check device from the device list of the bridge
+        DeviceList deviceList = zwayBridgeHandler.getDeviceList();
         if (deviceList != null) {
             Device device = deviceList.getDeviceById(mConfig.getDeviceId());
             if (device == null) {
@@ -0,0 +1,342 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.hueemulation.internal;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.ArrayUtils;
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
+import org.eclipse.smarthome.core.items.GenericItem;
+import org.eclipse.smarthome.core.items.Item;
+import org.eclipse.smarthome.core.items.ItemRegistry;
+import org.eclipse.smarthome.core.items.ItemRegistryChangeListener;
+import org.eclipse.smarthome.core.items.StateChangeListener;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.HSBType;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.types.State;
+import org.openhab.io.hueemulation.internal.api.HueDevice;
+import org.openhab.io.hueemulation.internal.api.HueState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Keeps track of the items tagged for voice and the Hue numeric id assigned to each of them.
+ *
+ * The index is updated by the changes of the item registry instead of scanning all items on every request. The JSON
+ * of each light is cached until the state of its item changes, so the lights can be served without any locking. The
+ * id map is persisted in the background a few seconds after the last change, so bulk changes are written only once.
+ *
+ * @author agent - Initial contribution
+ *
+ */
+public class HueDeviceIndex implements ItemRegistryChangeListener, StateChangeListener {
+    private final Logger logger = LoggerFactory.getLogger(HueDeviceIndex.class);
+    private static final String[] SUPPORTED_TAGS = new String[] { "Switchable", "Lighting" };
+    private static final String THREADPOOL_NAME = "hueemulation";
+    private static final long SAVE_DELAY = 5;
+    private final Gson gson = new Gson();
+    private final File file;
+    private final ScheduledExecutorService scheduler = ThreadPoolManager.getScheduledPool(THREADPOOL_NAME);
+    private ItemRegistry itemRegistry;
+    private ScheduledFuture<?> saveJob;
+    // deviceMap maps a Hue numeric id to a Item Name, ordered by that id
+    private final ConcurrentNavigableMap<Integer, String> deviceMap = new ConcurrentSkipListMap<>();
+    // reverse lookup of deviceMap
+    private final Map<String, Integer> deviceIds = new ConcurrentHashMap<>();
+    // the tagged items by Hue numeric id
+    private final Map<Integer, Item> items = new ConcurrentHashMap<>();
+    // the serialized HueDevice of each item, removed when the state of the item changes
+    private final Map<Integer, String> deviceJson = new ConcurrentHashMap<>();
+
+    public HueDeviceIndex(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Loads the id map from disk and indexes all tagged items of the registry. The ids of items which were removed or
+     * untagged in the meantime are dropped.
+     */
+    public synchronized void start(ItemRegistry itemRegistry) {
+        this.itemRegistry = itemRegistry;
+        load();
+        itemRegistry.addRegistryChangeListener(this);
+        indexItems();
+    }
+
+    /**
+     * Stops listening to the registry and writes a pending change of the id map to disk.
+     */
+    public synchronized void stop() {
+        if (itemRegistry != null) {
+            itemRegistry.removeRegistryChangeListener(this);
+            itemRegistry = null;
+        }
+        for (Item item : items.values()) {
+            if (item instanceof GenericItem) {
+                ((GenericItem) item).removeStateChangeListener(this);
+            }
+        }
+        items.clear();
+        deviceJson.clear();
+        if (saveJob != null && saveJob.cancel(false)) {
+            save();
+        }
+        saveJob = null;
+    }
+
+    @Override
+    public synchronized void added(Item item) {
+        if (!isTagged(item)) {
+            return;
+        }
+        Integer id = deviceIds.get(item.getName());
+        if (id == null) {
+            // hue devices are assigned a numeric number starting with 1, if a device is
+            // removed that number is not used again. Not sure how high this id can get
+            // not worrying about it here
+            id = deviceMap.isEmpty() ? 1 : new Integer(deviceMap.lastKey().intValue() + 1);
+            deviceMap.put(id, item.getName());
+            deviceIds.put(item.getName(), id);
+            scheduleSave();
+        }
+        deviceJson.remove(id);
+        items.put(id, item);
+        if (item instanceof GenericItem) {
+            ((GenericItem) item).addStateChangeListener(this);
+        }
+    }
+
+    @Override
+    public synchronized void removed(Item item) {
+        remove(item.getName());
+    }
+
+    @Override
+    public synchronized void updated(Item oldItem, Item item) {
+        if (isTagged(item)) {
+            Integer id = deviceIds.get(oldItem.getName());
+            Item replacedItem = id != null ? items.get(id) : null;
+            if (replacedItem instanceof GenericItem) {
+                ((GenericItem) replacedItem).removeStateChangeListener(this);
+            }
+            added(item);
+        } else {
+            remove(oldItem.getName());
+        }
+    }
+
+    @Override
+    public synchronized void allItemsChanged(Collection<String> oldItemNames) {
+        if (itemRegistry == null) {
+            return;
+        }
+        indexItems();
+    }
+
+    @Override
+    public void stateChanged(Item item, State oldState, State newState) {
+        Integer id = deviceIds.get(item.getName());
+        if (id != null) {
+            deviceJson.remove(id);
+        }
+    }
+
+    @Override
+    public void stateUpdated(Item item, State state) {
+        // only a changed state changes the device
+    }
+
+    /**
+     * Returns the item of a Hue numeric id, or null if there is no tagged item for the id.
+     */
+    public Item getItem(Integer id) {
+        return items.get(id);
+    }
+
+    /**
+     * Returns the Hue numeric ids of all tagged items, in ascending order.
+     */
+    public SortedSet<Integer> getIds() {
+        return new TreeSet<>(items.keySet());
+    }
+
+    /**
+     * Returns the serialized HueDevice of a Hue numeric id, or null if there is no tagged item for the id.
+     */
+    public String getDeviceJson(Integer id) {
+        String json = deviceJson.get(id);
+        if (json == null) {
+            Item item = items.get(id);
+            if (item == null) {
+                return null;
+            }
+            // a state change during the serialization waits for the entry and removes it afterwards
+            json = deviceJson.computeIfAbsent(id, key -> gson.toJson(itemToDevice(item, key)));
+        }
+        return json;
+    }
+
+    /**
+     * Returns the serialized map of all HueDevices, keyed by their Hue numeric id.
+     */
+    public String getDevicesJson() {
+        StringBuilder builder = new StringBuilder("{");
+        for (Integer id : deviceMap.keySet()) {
+            String json = getDeviceJson(id);
+            if (json != null) {
+                if (builder.length() > 1) {
+                    builder.append(',');
+                }
+                builder.append('"').append(id).append("\":").append(json);
+            }
+        }
+        return builder.append('}').toString();
+    }
+
+    /**
+     * Indexes all tagged items of the registry and removes the ids of all other items.
+     */
+    private void indexItems() {
+        Set<String> taggedItemNames = new HashSet<>();
+        for (Item item : itemRegistry.getItems()) {
+            if (isTagged(item)) {
+                taggedItemNames.add(item.getName());
+                added(item);
+            }
+        }
+        for (String itemName : new HashSet<>(deviceIds.keySet())) {
+            if (!taggedItemNames.contains(itemName)) {
+                remove(itemName);
+            }
+        }
+    }
+
+    private void remove(String itemName) {
+        Integer id = deviceIds.remove(itemName);
+        if (id != null) {
+            deviceMap.remove(id);
+            Item removedItem = items.remove(id);
+            deviceJson.remove(id);
+            if (removedItem instanceof GenericItem) {
+                ((GenericItem) removedItem).removeStateChangeListener(this);
+            }
+            scheduleSave();
+        }
+    }
+
+    private boolean isTagged(Item item) {
+        for (String tag : item.getTags()) {
+            if (ArrayUtils.contains(SUPPORTED_TAGS, tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Converts an Item to a HueDevice
+     */
+    private HueDevice itemToDevice(Item item, Integer key) {
+        State itemState = item.getState();
+        HueState hueState;
+        if (itemState instanceof HSBType) {
+            HSBType color = (HSBType) itemState;
+            hueState = new HueState(color);
+        } else if (itemState instanceof DecimalType) {
+            short bri = (short) ((((DecimalType) itemState).intValue() * 255) / 100);
+            hueState = new HueState(bri);
+        } else if (itemState instanceof OnOffType) {
+            short bri = (short) (((OnOffType) itemState) == OnOffType.ON ? 255 : 0);
+            hueState = new HueState(bri);
+        } else {
+            hueState = new HueState((short) 0);
+        }
+
+        HueDevice d = new HueDevice(hueState, item.getLabel(), key);
+        return d;
+    }
+
+    /**
+     * Persists the id map after a delay, further changes within the delay are written together.
+     */
+    private synchronized void scheduleSave() {
+        if (saveJob != null) {
+            saveJob.cancel(false);
+        }
+        saveJob = scheduler.schedule(this::save, SAVE_DELAY, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Loads the id map from disk. The ids of items which are not in the registry anymore are removed by the caller.
+     */
+    private void load() {
+        if (!file.exists()) {
+            return;
+        }
+        JsonReader reader = null;
+        try {
+            reader = new JsonReader(new FileReader(file));
+            Map<Integer, String> tmpMap = gson.fromJson(reader, new TypeToken<Map<Integer, String>>() {
+            }.getType());
+            if (tmpMap != null) {
+                for (Map.Entry<Integer, String> entry : tmpMap.entrySet()) {
+                    if (!deviceIds.containsKey(entry.getValue())) {
+                        deviceMap.put(entry.getKey(), entry.getValue());
+                        deviceIds.put(entry.getValue(), entry.getKey());
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.error("Could not load item cache", e);
+        } finally {
+            IOUtils.closeQuietly(reader);
+        }
+    }
+
+    private synchronized void save() {
+        file.getParentFile().mkdirs();
+        File tmpFile = new File(file.getPath() + ".tmp");
+        JsonWriter writer = null;
+        try {
+            writer = new JsonWriter(new FileWriter(tmpFile));
+            gson.toJson(deviceMap, new TypeToken<Map<Integer, String>>() {
+            }.getType(), writer);
+        } catch (IOException e) {
+            logger.error("Could not persist item cache", e);
+            return;
+        } finally {
+            IOUtils.closeQuietly(writer);
+        }
+        if (file.exists() && !file.delete() || !tmpFile.renameTo(file)) {
+            logger.error("Could not replace item cache {}", file);
+        }
+    }
+}
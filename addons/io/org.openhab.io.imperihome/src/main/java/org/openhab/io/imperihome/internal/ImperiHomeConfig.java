@@ -25,6 +25,7 @@ public class ImperiHomeConfig {
 
     private String systemId;
     private String rootUrl;
+    private int historyMaxPoints;
 
     public void update(Map<String, Object> config) {
         Object cSystemId = config.get("system.id");
@@ -42,6 +43,17 @@ public class ImperiHomeConfig {
             }
         }
 
+        historyMaxPoints = 0;
+        Object historyMaxPointsObj = config.get("history.maxPoints");
+        if (historyMaxPointsObj != null) {
+            try {
+                historyMaxPoints = Integer.parseInt(String.valueOf(historyMaxPointsObj).trim());
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid history.maxPoints value '{}', history will not be consolidated",
+                        historyMaxPointsObj);
+            }
+        }
+
         logger.info("Configuration updated");
     }
 
@@ -53,4 +65,11 @@ public class ImperiHomeConfig {
         return rootUrl;
     }
 
+    /**
+     * @return Maximum number of values in a history response, or 0 if history values are not consolidated.
+     */
+    public int getHistoryMaxPoints() {
+        return historyMaxPoints;
+    }
+
 }
@@ -8,12 +8,10 @@
  */
 package org.openhab.io.imperihome.internal.handler;
 
+import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
 import java.util.Date;
-import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.List;
 import java.util.regex.Matcher;
 
 import javax.servlet.http.HttpServletRequest;
@@ -25,15 +23,18 @@ import org.eclipse.smarthome.core.persistence.PersistenceService;
 import org.eclipse.smarthome.core.persistence.PersistenceServiceRegistry;
 import org.eclipse.smarthome.core.persistence.QueryablePersistenceService;
 import org.eclipse.smarthome.core.types.State;
-import org.openhab.io.imperihome.internal.model.HistoryItem;
-import org.openhab.io.imperihome.internal.model.HistoryList;
+import org.openhab.io.imperihome.internal.ImperiHomeConfig;
 import org.openhab.io.imperihome.internal.model.device.AbstractDevice;
 import org.openhab.io.imperihome.internal.processor.DeviceRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.gson.stream.JsonWriter;
+
 /**
- * Device history request handler.
+ * Device history request handler. The values are written to the response while the persistence results are read.
+ * If a maximum number of values is configured, the values are averaged over buckets of an equal part of the requested
+ * time span.
  *
  * @author Pepijn de Geus - Initial contribution
  */
@@ -45,13 +46,16 @@ public class DeviceHistoryHandler {
 
     private final DeviceRegistry deviceRegistry;
     private final PersistenceServiceRegistry persistenceServiceRegistry;
+    private final ImperiHomeConfig config;
 
-    public DeviceHistoryHandler(DeviceRegistry deviceRegistry, PersistenceServiceRegistry persistenceServiceRegistry) {
+    public DeviceHistoryHandler(DeviceRegistry deviceRegistry, PersistenceServiceRegistry persistenceServiceRegistry,
+            ImperiHomeConfig config) {
         this.deviceRegistry = deviceRegistry;
         this.persistenceServiceRegistry = persistenceServiceRegistry;
+        this.config = config;
     }
 
-    public HistoryList handle(HttpServletRequest req, Matcher urlMatcher) {
+    public void handle(HttpServletRequest req, Matcher urlMatcher, JsonWriter writer) throws IOException {
         String deviceId, field;
         long start, end;
         try {
@@ -68,52 +72,89 @@ public class DeviceHistoryHandler {
         AbstractDevice device = deviceRegistry.getDevice(deviceId);
         if (device == null) {
             logger.warn("Received history request for unknown device: {}", urlMatcher.group(0));
-            return null;
+            writer.nullValue();
+            return;
         }
 
         PersistenceService persistence = persistenceServiceRegistry.getDefault();
         if (persistence == null) {
             logger.warn("Could not retrieve default persistence service; can't serve history request");
-            return null;
+            writer.nullValue();
+            return;
         }
         if (!(persistence instanceof QueryablePersistenceService)) {
             logger.warn("Default persistence service is not queryable; can't serve history request");
-            return null;
+            writer.nullValue();
+            return;
         }
 
-        return serveHistory(device, (QueryablePersistenceService) persistence, start, end);
+        serveHistory(device, (QueryablePersistenceService) persistence, start, end, writer);
     }
 
-    private HistoryList serveHistory(AbstractDevice device, QueryablePersistenceService persistence, long start,
-            long end) {
+    private void serveHistory(AbstractDevice device, QueryablePersistenceService persistence, long start, long end,
+            JsonWriter writer) throws IOException {
         logger.info("Querying persistence for history of Item {}, from {} to {}", device.getItemName(), start, end);
 
         FilterCriteria criteria = new FilterCriteria().setItemName(device.getItemName()).setBeginDate(new Date(start))
                 .setEndDate(new Date(end));
 
-        List<HistoryItem> resultItems = new LinkedList<>();
-        Iterable<HistoricItem> historicItems = persistence.query(criteria);
+        int maxPoints = config.getHistoryMaxPoints();
+        long bucketSize = maxPoints > 0 && end > start ? Math.max(1, (end - start + maxPoints - 1) / maxPoints) : 0;
 
-        Iterator<HistoricItem> iterator = historicItems.iterator();
-        if (!iterator.hasNext()) {
-            logger.info("Persistence returned no results for history query");
-        } else {
-            while (iterator.hasNext()) {
-                HistoricItem historicItem = iterator.next();
-                State state = historicItem.getState();
-                if (state instanceof DecimalType) {
-                    Number value = ((DecimalType) state).toBigDecimal();
-                    resultItems.add(new HistoryItem(historicItem.getTimestamp(), value));
-                }
+        writer.beginObject();
+        writer.name("values");
+        writer.beginArray();
+
+        int resultCount = 0;
+        int valueCount = 0;
+        long bucket = 0;
+        double bucketSum = 0;
+        int bucketCount = 0;
+
+        for (HistoricItem historicItem : persistence.query(criteria)) {
+            resultCount++;
+            State state = historicItem.getState();
+            if (!(state instanceof DecimalType)) {
+                continue;
+            }
+            valueCount++;
+
+            DecimalType value = (DecimalType) state;
+            long date = historicItem.getTimestamp().getTime();
+            if (bucketSize == 0) {
+                writeValue(writer, date, value.toBigDecimal());
+                continue;
             }
 
-            if (resultItems.isEmpty()) {
-                logger.warn(
-                        "Persistence returned results for history query, but could not be interpreted as DecimalTypes");
+            long newBucket = start + Math.floorDiv(date - start, bucketSize) * bucketSize;
+            if (bucketCount > 0 && newBucket != bucket) {
+                writeValue(writer, bucket, bucketSum / bucketCount);
+                bucketSum = 0;
+                bucketCount = 0;
             }
+            bucket = newBucket;
+            bucketSum += value.doubleValue();
+            bucketCount++;
         }
+        if (bucketCount > 0) {
+            writeValue(writer, bucket, bucketSum / bucketCount);
+        }
+
+        writer.endArray();
+        writer.endObject();
+
+        if (resultCount == 0) {
+            logger.info("Persistence returned no results for history query");
+        } else if (valueCount == 0) {
+            logger.warn("Persistence returned results for history query, but could not be interpreted as DecimalTypes");
+        }
+    }
 
-        return new HistoryList(resultItems);
+    private void writeValue(JsonWriter writer, long date, Number value) throws IOException {
+        writer.beginObject();
+        writer.name("date").value(date);
+        writer.name("value").value(value);
+        writer.endObject();
     }
 
 }
@@ -8,18 +8,30 @@
  */
 package org.openhab.io.imperihome.internal.handler;
 
-import java.util.Collection;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 
 import org.openhab.io.imperihome.internal.model.device.AbstractDevice;
-import org.openhab.io.imperihome.internal.model.device.DeviceList;
 import org.openhab.io.imperihome.internal.processor.DeviceRegistry;
+import org.openhab.io.imperihome.internal.processor.ItemProcessor;
+import org.openhab.io.imperihome.internal.util.DigestUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.gson.Gson;
+
 /**
- * Device list request handler.
+ * Device list request handler. The serialized device list is cached. A changed device is serialized again on the next
+ * request, the whole list only after a device was added or removed. Polling clients are served from the cache and can
+ * validate their copy using the ETag.
  *
  * @author Pepijn de Geus - Initial contribution
  */
@@ -28,23 +40,116 @@ public class DevicesListHandler {
     private final Logger logger = LoggerFactory.getLogger(DevicesListHandler.class);
 
     private final DeviceRegistry deviceRegistry;
+    private final Gson gson;
+
+    private final Map<String, String> deviceJson = new LinkedHashMap<>();
+    private long version = -1;
+    private CachedResponse cachedResponse;
 
-    public DevicesListHandler(DeviceRegistry deviceRegistry) {
+    public DevicesListHandler(DeviceRegistry deviceRegistry, Gson gson) {
         this.deviceRegistry = deviceRegistry;
+        this.gson = gson;
     }
 
-    public DeviceList handle(HttpServletRequest req) {
-        DeviceList response = new DeviceList();
+    public void handle(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        CachedResponse response = getResponse();
+
+        resp.setHeader("ETag", response.etag);
+        if (matchesAny(req.getHeaders("If-None-Match"), response.etag)) {
+            resp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        resp.getWriter().write(response.json);
+    }
 
-        Collection<AbstractDevice> devices = deviceRegistry.getDevices().values();
-        for (AbstractDevice device : devices) {
-            device.updateParams();
+    /**
+     * Checks the If-None-Match headers against the ETag, using the weak comparison of RFC 7232: a header holds a list
+     * of entity tags or "*", and a weak tag (W/"...") matches the strong tag with the same value.
+     */
+    static boolean matchesAny(Enumeration<String> ifNoneMatchHeaders, String etag) {
+        if (ifNoneMatchHeaders == null) {
+            return false;
+        }
+        for (String header : Collections.list(ifNoneMatchHeaders)) {
+            for (String tag : header.split(",")) {
+                tag = tag.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals("*") || tag.equals(etag)) {
+                    return true;
+                }
+            }
         }
+        return false;
+    }
 
-        response.setDevices(devices);
+    private synchronized CachedResponse getResponse() {
+        // Changes after reading them are collected again, so the next request serializes those devices
+        long newVersion = deviceRegistry.getVersion();
+        Set<String> changedDevices = deviceRegistry.takeChangedDevices();
+        if (newVersion != version) {
+            version = newVersion;
+            deviceJson.clear();
+            for (AbstractDevice device : deviceRegistry) {
+                deviceJson.put(device.getId(), toJson(device));
+            }
+        } else {
+            // A device with links shows values of its linked devices
+            if (!changedDevices.isEmpty()) {
+                Set<String> linkingDevices = new HashSet<>();
+                for (AbstractDevice device : deviceRegistry) {
+                    for (String linkedDevice : device.getLinks().values()) {
+                        if (changedDevices.contains(ItemProcessor.getDeviceId(linkedDevice))) {
+                            linkingDevices.add(device.getId());
+                        }
+                    }
+                }
+                changedDevices.addAll(linkingDevices);
+            }
+
+            boolean changed = false;
+            for (String deviceId : changedDevices) {
+                AbstractDevice device = deviceRegistry.getDevice(deviceId);
+                if (device != null && deviceJson.containsKey(deviceId)) {
+                    deviceJson.put(deviceId, toJson(device));
+                    changed = true;
+                }
+            }
+            if (cachedResponse != null && !changed) {
+                return cachedResponse;
+            }
+        }
 
-        logger.debug("Device list response: {}", response);
-        return response;
+        // The same JSON as a serialized DeviceList, assembled from the cached devices
+        StringBuilder json = new StringBuilder("{\"devices\":[");
+        String separator = "";
+        for (String device : deviceJson.values()) {
+            json.append(separator).append(device);
+            separator = ",";
+        }
+        json.append("]}");
+
+        logger.debug("Device list response: {}", json);
+
+        cachedResponse = new CachedResponse(json.toString(), '"' + DigestUtil.sha1(json.toString()) + '"');
+        return cachedResponse;
+    }
+
+    private String toJson(AbstractDevice device) {
+        device.updateParams();
+        return gson.toJson(device);
+    }
+
+    private static class CachedResponse {
+        private final String json;
+        private final String etag;
+
+        private CachedResponse(String json, String etag) {
+            this.json = json;
+            this.etag = etag;
+        }
     }
 
 }
@@ -53,6 +53,9 @@ public abstract class AbstractDevice implements StateChangeListener {
     private transient DeviceRegistry deviceRegistry;
     private transient ActionRegistry actionRegistry;
 
+    private transient State lastState;
+    private final transient StateChangeListener itemListener = new ItemStateListener();
+
     public AbstractDevice(DeviceType type, Item item) {
         this.type = type;
         this.item = item;
@@ -60,13 +63,13 @@ public abstract class AbstractDevice implements StateChangeListener {
         links = new HashMap<>();
 
         if (item instanceof GenericItem) {
-            ((GenericItem) item).addStateChangeListener(this);
+            ((GenericItem) item).addStateChangeListener(itemListener);
         }
     }
 
     public void destroy() {
         if (item instanceof GenericItem) {
-            ((GenericItem) item).removeStateChangeListener(this);
+            ((GenericItem) item).removeStateChangeListener(itemListener);
         }
 
         deviceRegistry = null;
@@ -233,6 +236,31 @@ public abstract class AbstractDevice implements StateChangeListener {
         }
     }
 
+    /**
+     * Listener of the Item, forwards the state events to this device and reports a changed state to the device registry
+     * after the device has processed it, so the cached device list is never built from the previous state.
+     */
+    private class ItemStateListener implements StateChangeListener {
+
+        @Override
+        public void stateChanged(Item item, State oldState, State newState) {
+            AbstractDevice.this.stateChanged(item, oldState, newState);
+        }
+
+        @Override
+        public void stateUpdated(Item item, State newState) {
+            AbstractDevice.this.stateUpdated(item, newState);
+
+            if (!newState.equals(lastState)) {
+                lastState = newState;
+                DeviceRegistry registry = deviceRegistry;
+                if (registry != null) {
+                    registry.deviceChanged(AbstractDevice.this);
+                }
+            }
+        }
+    }
+
     @Override
     public String toString() {
         return getClass().getSimpleName() + "{id='" + id + '\'' + ", name='" + name + '\'' + ", room='" + room + '\'' + ", type="
@@ -15,6 +15,7 @@ import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.openhab.io.imperihome.internal.model.Room;
 import org.openhab.io.imperihome.internal.model.device.AbstractDevice;
@@ -22,7 +23,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * The device registry stores created devices by ID.
+ * The device registry stores created devices by ID. It counts the additions and removals of devices and collects the
+ * IDs of changed devices, so the device list only has to be serialized again where something changed.
  *
  * @author Pepijn de Geus - Initial contribution
  */
@@ -31,6 +33,8 @@ public class DeviceRegistry implements Iterable<AbstractDevice> {
     private final Logger logger = LoggerFactory.getLogger(DeviceRegistry.class);
 
     private final Map<String, AbstractDevice> devices;
+    private final AtomicLong version = new AtomicLong();
+    private final Set<String> changedDevices = ConcurrentHashMap.newKeySet();
     private Set<Room> rooms;
 
     public DeviceRegistry() {
@@ -65,8 +69,10 @@ public class DeviceRegistry implements Iterable<AbstractDevice> {
             return;
         }
 
+        device.setDeviceRegistry(this);
         devices.put(device.getId(), device);
         updateRooms();
+        version.incrementAndGet();
 
         logger.debug("Device {} added, registry now contains {} total", device.getName(), devices.size());
     }
@@ -75,11 +81,44 @@ public class DeviceRegistry implements Iterable<AbstractDevice> {
         AbstractDevice removed = devices.remove(deviceId);
         if (removed != null) {
             updateRooms();
+            version.incrementAndGet();
             logger.debug("Device {} removed, registry now contains {} total", removed.getName(), devices.size());
         }
         return removed;
     }
 
+    /**
+     * Called by a device after it has processed a changed state of its Item.
+     *
+     * @param device Changed device.
+     */
+    public void deviceChanged(AbstractDevice device) {
+        changedDevices.add(device.getId());
+        logger.trace("Device {} changed", device.getName());
+    }
+
+    /**
+     * @return Counter of the additions and removals of devices.
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Returns the IDs of the devices which changed since the last call and forgets them. A device which changes again
+     * afterwards is returned by the next call.
+     *
+     * @return IDs of the changed devices.
+     */
+    public Set<String> takeChangedDevices() {
+        Set<String> changed = new HashSet<>();
+        for (Iterator<String> iterator = changedDevices.iterator(); iterator.hasNext();) {
+            changed.add(iterator.next());
+            iterator.remove();
+        }
+        return changed;
+    }
+
     @Override
     public Iterator<AbstractDevice> iterator() {
         return devices.values().iterator();
@@ -94,6 +133,7 @@ public class DeviceRegistry implements Iterable<AbstractDevice> {
         if (rooms != null) {
             rooms.clear();
         }
+        version.incrementAndGet();
 
         logger.debug("Device registry cleared");
     }
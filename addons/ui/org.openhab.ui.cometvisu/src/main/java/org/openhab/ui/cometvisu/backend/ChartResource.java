@@ -22,6 +22,9 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
@@ -33,6 +36,7 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriInfo;
 
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.eclipse.smarthome.core.items.GroupItem;
 import org.eclipse.smarthome.core.items.Item;
 import org.eclipse.smarthome.core.items.ItemNotFoundException;
@@ -79,10 +83,18 @@ public class ChartResource implements RESTResource {
         // df.setPositivePrefix("+");
     }
 
+    private static final String THREADPOOL_NAME = "cometvisu";
+
+    // time in milliseconds a chart response is reused for identical requests
+    private static final long CACHE_EXPIRY = 30000;
+
     protected static Map<String, QueryablePersistenceService> persistenceServices = new HashMap<String, QueryablePersistenceService>();
 
     private ItemRegistry itemRegistry;
 
+    // recent chart responses by request, several clients showing the same diagram request the same series
+    private final Map<String, CachedSeries> cache = new ConcurrentHashMap<String, CachedSeries>();
+
     @Context
     private UriInfo uriInfo;
 
@@ -118,6 +130,13 @@ public class ChartResource implements RESTResource {
         }
         String responseType = MediaType.APPLICATION_JSON;
 
+        String cacheKey = itemName + "|" + consFunction + "|" + start + "|" + end + "|" + resolution;
+        CachedSeries cachedSeries = cache.get(cacheKey);
+        if (cachedSeries != null && !cachedSeries.isExpired()) {
+            logger.debug("returning cached series for rrd '{}'", itemName);
+            return Response.ok(cachedSeries.data, responseType).build();
+        }
+
         // RRD specific: no equivalent in PersistenceService known
         ConsolFun consilidationFunction = ConsolFun.valueOf(consFunction);
 
@@ -161,8 +180,11 @@ public class ChartResource implements RESTResource {
             if (persistenceService.getId().equals("rrd4j")) {
                 data = getRrdSeries(persistenceService, item, consilidationFunction, startTime, endTime, resolution);
             } else {
-                data = getPersistenceSeries(persistenceService, item, startTime, endTime, resolution);
+                data = getPersistenceSeries(persistenceService, item, consilidationFunction, startTime, endTime,
+                        resolution);
             }
+            cache.values().removeIf(CachedSeries::isExpired);
+            cache.put(cacheKey, new CachedSeries(data));
             return Response.ok(data, responseType).build();
         } catch (ItemNotFoundException e1) {
             logger.error("Item '{}' not found error while requesting series data.", itemName);
@@ -171,9 +193,20 @@ public class ChartResource implements RESTResource {
         return Response.serverError().build();
     }
 
-    public Object getPersistenceSeries(QueryablePersistenceService persistenceService, Item item, Date timeBegin,
-            Date timeEnd, long resolution) {
-        Map<Long, ArrayList<String>> data = new HashMap<Long, ArrayList<String>>();
+    /**
+     * returns a series from a generic persistence service, consolidated to the requested resolution
+     *
+     * @param persistenceService
+     * @param item
+     * @param consilidationFunction
+     * @param timeBegin
+     * @param timeEnd
+     * @param resolution
+     * @return
+     */
+    public Object getPersistenceSeries(QueryablePersistenceService persistenceService, Item item,
+            ConsolFun consilidationFunction, Date timeBegin, Date timeEnd, long resolution) {
+        SeriesDownsampler downsampler = new SeriesDownsampler(consilidationFunction, timeBegin.getTime(), resolution);
 
         // Define the data filter
         FilterCriteria filter = new FilterCriteria();
@@ -193,14 +226,21 @@ public class ChartResource implements RESTResource {
             HistoricItem historicItem = it.next();
             org.eclipse.smarthome.core.types.State state = historicItem.getState();
             if (state instanceof DecimalType) {
-                ArrayList<String> vals = new ArrayList<String>();
-                vals.add(formatDouble(((DecimalType) state).doubleValue(), "null", true));
-                data.put(historicItem.getTimestamp().getTime(), vals);
+                downsampler.add(historicItem.getTimestamp().getTime(), ((DecimalType) state).doubleValue());
             }
         }
-        logger.debug("'{}' querying item '{}' from '{}' to '{}' => '{}' results", persistenceService.getId(),
-                filter.getItemName(), filter.getBeginDate(), filter.getEndDate(), dataCounter);
-        return convertToRrd(data);
+        downsampler.finish();
+        logger.debug("'{}' querying item '{}' from '{}' to '{}' => '{}' results, consolidated to '{}'",
+                persistenceService.getId(), filter.getItemName(), filter.getBeginDate(), filter.getEndDate(),
+                dataCounter, downsampler.size());
+
+        ArrayList<Object> rrd = new ArrayList<Object>(downsampler.size());
+        for (int i = 0; i < downsampler.size(); i++) {
+            ArrayList<String> vals = new ArrayList<String>(1);
+            vals.add(formatDouble(downsampler.getValue(i), "null", true));
+            rrd.add(new Object[] { downsampler.getTimestamp(i), vals });
+        }
+        return rrd;
     }
 
     /**
@@ -228,21 +268,51 @@ public class ChartResource implements RESTResource {
             } else {
                 itemNames.add(item.getName());
             }
-            for (String itemName : itemNames) {
-                addRrdData(data, itemName, consilidationFunction, timeBegin, timeEnd, resolution);
+            if (itemNames.size() == 1) {
+                addRrdData(data, itemNames.get(0), consilidationFunction, timeBegin, timeEnd, resolution);
+            } else {
+                // fetch the members in parallel, the columns are added in the order of the members
+                List<Future<Map<Long, ArrayList<String>>>> futures = new ArrayList<>();
+                for (String itemName : itemNames) {
+                    futures.add(ThreadPoolManager.getPool(THREADPOOL_NAME)
+                            .submit(() -> addRrdData(new TreeMap<Long, ArrayList<String>>(), itemName,
+                                    consilidationFunction, timeBegin, timeEnd, resolution)));
+                }
+                for (Future<Map<Long, ArrayList<String>>> future : futures) {
+                    for (Entry<Long, ArrayList<String>> entry : getRrdData(future).entrySet()) {
+                        if (!data.containsKey(entry.getKey())) {
+                            data.put(entry.getKey(), new ArrayList<String>());
+                        }
+                        data.get(entry.getKey()).addAll(entry.getValue());
+                    }
+                }
             }
 
         } catch (FileNotFoundException e) {
             // rrd file does not exist, fallback to generic persistance service
             logger.debug("no rrd file found '{}'", (RRD_FOLDER + File.separator + item.getName() + ".rrd"));
-            return getPersistenceSeries(persistenceService, item, timeBegin, timeEnd, resolution);
+            return getPersistenceSeries(persistenceService, item, consilidationFunction, timeBegin, timeEnd,
+                    resolution);
         } catch (Exception e) {
             logger.error("{}: fallback to generic persistance service", e.getLocalizedMessage());
-            return getPersistenceSeries(persistenceService, item, timeBegin, timeEnd, resolution);
+            return getPersistenceSeries(persistenceService, item, consilidationFunction, timeBegin, timeEnd,
+                    resolution);
         }
         return convertToRrd(data);
     }
 
+    private Map<Long, ArrayList<String>> getRrdData(Future<Map<Long, ArrayList<String>>> future)
+            throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
     private ArrayList<Object> convertToRrd(Map<Long, ArrayList<String>> data) {
         // sort data by key
         Map<Long, ArrayList<String>> treeMap = new TreeMap<Long, ArrayList<String>>(data);
@@ -292,8 +362,24 @@ public class ChartResource implements RESTResource {
             return nanString;
         }
         if (forceExponents) {
-            return df.format(x);
+            // DecimalFormat is not thread safe, members of a group are fetched in parallel
+            synchronized (df) {
+                return df.format(x);
+            }
         }
         return "" + x;
     }
+
+    private static class CachedSeries {
+        private final long timestamp = System.currentTimeMillis();
+        private final Object data;
+
+        CachedSeries(Object data) {
+            this.data = data;
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() - timestamp > CACHE_EXPIRY;
+        }
+    }
 }
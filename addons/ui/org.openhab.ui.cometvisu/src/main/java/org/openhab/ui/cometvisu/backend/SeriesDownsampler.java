@@ -0,0 +1,129 @@
+/**
+ * Copyright (c) 2010-2017 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.ui.cometvisu.backend;
+
+import java.util.Arrays;
+
+import org.rrd4j.ConsolFun;
+
+/**
+ * consolidates the values of a persistence series into buckets of the requested resolution,
+ * the same way the RRD consolidates its archives.
+ *
+ * The values have to be added in ascending order of their timestamps, only the bucket of the
+ * last value is kept open, so the series is consolidated while it is read.
+ *
+ * @author agent - Initial contribution
+ * @since 2.2.0
+ *
+ */
+class SeriesDownsampler {
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final ConsolFun consolidationFunction;
+    private final long begin;
+    private final long step;
+
+    private long[] timestamps = new long[INITIAL_CAPACITY];
+    private double[] values = new double[INITIAL_CAPACITY];
+    private int size;
+
+    private long bucket;
+    private double value;
+    private int count;
+
+    /**
+     * @param consolidationFunction function used to consolidate the values of a bucket
+     * @param begin start of the first bucket in milliseconds
+     * @param resolution bucket size in seconds, each timestamp gets its own bucket if not positive
+     */
+    SeriesDownsampler(ConsolFun consolidationFunction, long begin, long resolution) {
+        this.consolidationFunction = consolidationFunction;
+        this.begin = begin;
+        this.step = resolution > 0 ? resolution * 1000 : 1;
+    }
+
+    /**
+     * adds a value to the bucket of its timestamp
+     *
+     * @param timestamp time in milliseconds, not before the timestamp of the last value
+     * @param newValue
+     */
+    void add(long timestamp, double newValue) {
+        if (Double.isNaN(newValue)) {
+            return;
+        }
+        long newBucket = begin + Math.floorDiv(timestamp - begin, step) * step;
+        if (count > 0 && newBucket != bucket) {
+            flush();
+        }
+        bucket = newBucket;
+        if (count == 0) {
+            value = newValue;
+        } else {
+            switch (consolidationFunction) {
+                case AVERAGE:
+                case TOTAL:
+                    value += newValue;
+                    break;
+                case MIN:
+                    value = Math.min(value, newValue);
+                    break;
+                case MAX:
+                    value = Math.max(value, newValue);
+                    break;
+                case LAST:
+                    value = newValue;
+                    break;
+                case FIRST:
+                default:
+                    break;
+            }
+        }
+        count++;
+    }
+
+    /**
+     * closes the bucket of the last value, has to be called after the last value has been added
+     */
+    void finish() {
+        if (count > 0) {
+            flush();
+        }
+    }
+
+    private void flush() {
+        if (size == timestamps.length) {
+            timestamps = Arrays.copyOf(timestamps, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        timestamps[size] = bucket;
+        values[size] = consolidationFunction == ConsolFun.AVERAGE ? value / count : value;
+        size++;
+        count = 0;
+    }
+
+    /**
+     * @return number of consolidated values
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return start of the bucket in milliseconds
+     */
+    long getTimestamp(int index) {
+        return timestamps[index];
+    }
+
+    double getValue(int index) {
+        return values[index];
+    }
+}